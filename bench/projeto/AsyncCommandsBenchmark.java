@@ -0,0 +1,95 @@
+package projeto;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Tempo que o thread de decisao fica preso em cada comando de corpo, com a
+ * chamada bloqueante direta e com o {@link AsyncCommands}, contra um destino
+ * que demora roundTrip microssegundos para "confirmar" o comando. Mostra
+ * tambem a latencia de confirmacao medida pelo AsyncCommands.
+ *
+ * Antes confere que os comandos dos modos com pool nao criam threads: o
+ * numero de threads do processo nao cresce com o numero de jogadores.
+ *
+ * uso: AsyncCommandsBenchmark [comandos] [roundTrip us] [periodo us]
+ */
+public class AsyncCommandsBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int commands = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+		long roundTrip = (args.length > 1 ? Long.parseLong(args[1]) : 2000) * 1000;
+		long period = (args.length > 2 ? Long.parseLong(args[2]) : 5000) * 1000;
+
+		int[] teams = { 1, 2, 10 };
+		for (ExecutionMode mode : ExecutionMode.values()) {
+			for (int t : teams) {
+				int growth = threadGrowth(mode, t);
+				System.out.printf("%s: +%d threads for %d players%n", mode, growth,
+						t * DecisionFixtures.FORMATION.size());
+				if (mode != ExecutionMode.THREAD_PER_PLAYER && growth != 0) {
+					throw new IllegalStateException("failed: " + mode + " creates threads per player");
+				}
+			}
+		}
+
+		SlowCommands direct = new SlowCommands(roundTrip);
+		long blocked = run(direct, commands, period);
+
+		SlowCommands slow = new SlowCommands(roundTrip);
+		AsyncCommands async = new AsyncCommands(slow);
+		PlayerMetrics metrics = new PlayerMetrics("bench");
+		async.setMetrics(metrics);
+		long submit = run(async, commands, period);
+		Thread.sleep(period / 1000000 + roundTrip / 1000000 + 10); // ultimo comando confirmado
+
+		Histogram ack = metrics.getAckLatency();
+		System.out.printf("blocking: %.1f us/command in the decision thread%n", blocked / 1e3 / commands);
+		System.out.printf("async:    %.1f us/command in the decision thread, ack p50=%d us p99=%d us (%d acks)%n",
+				submit / 1e3 / commands, ack.percentile(0.5) / 1000, ack.percentile(0.99) / 1000, ack.getCount());
+		System.out.println(async);
+	}
+
+	/* Threads criadas ao montar os jogadores (e seus comandos) de teams times no modo dado */
+	private static int threadGrowth(ExecutionMode mode, int teams) {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		int before = threads.getThreadCount();
+		Formation formation = DecisionFixtures.FORMATION;
+		BarcelonaPlayer[] players = new BarcelonaPlayer[teams * formation.size()];
+		for (int i = 0; i < players.length; i++) {
+			players[i] = new BarcelonaPlayer(null, formation, new WorldModelPublisher(), mode);
+		}
+		BenchUtil.consume(players.length);
+		return threads.getThreadCount() - before;
+	}
+
+	/* Um comando por periodo; devolve o tempo total gasto dentro das chamadas */
+	private static long run(BodyCommands target, int commands, long period) {
+		long inside = 0;
+		long next = System.nanoTime();
+		for (int i = 0; i < commands; i++) {
+			long t0 = System.nanoTime();
+			target.doDashBlocking(50);
+			inside += System.nanoTime() - t0;
+			next += period;
+			LockSupport.parkNanos(next - System.nanoTime());
+		}
+		return inside;
+	}
+
+	private static final class SlowCommands extends NullCommands {
+		private final long roundTrip;
+
+		SlowCommands(long roundTrip) {
+			this.roundTrip = roundTrip;
+		}
+
+		@Override
+		public void doDashBlocking(double power) {
+			LockSupport.parkNanos(roundTrip);
+			count++;
+		}
+	}
+
+}
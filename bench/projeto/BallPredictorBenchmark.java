@@ -0,0 +1,82 @@
+package projeto;
+
+import java.util.Random;
+
+/**
+ * Custo das consultas do {@link BallPredictor} (posicao em k ciclos e
+ * primeiro ciclo de interceptacao) contra a simulacao ciclo a ciclo que elas
+ * substituem, conferindo que as duas dao o mesmo resultado.
+ */
+public class BallPredictorBenchmark {
+
+	public static void main(String[] args) {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		ServerParams params = ServerParams.get();
+		double decay = params.getDouble("ball_decay", 0.94);
+		BallPredictor predictor = new BallPredictor(params);
+		Random rnd = new Random(5);
+
+		int n = 1024;
+		double[] bx = new double[n], by = new double[n], bvx = new double[n], bvy = new double[n];
+		double[] px = new double[n], py = new double[n];
+		for (int i = 0; i < n; i++) {
+			bx[i] = rnd.nextDouble() * 80 - 40;
+			by[i] = rnd.nextDouble() * 50 - 25;
+			double speed = rnd.nextDouble() * 3, dir = rnd.nextDouble() * 2 * Math.PI;
+			bvx[i] = speed * Math.cos(dir);
+			bvy[i] = speed * Math.sin(dir);
+			px[i] = bx[i] + rnd.nextDouble() * 30 - 15;
+			py[i] = by[i] + rnd.nextDouble() * 30 - 15;
+		}
+
+		for (int i = 0; i < n; i++) {
+			predictor.set(bx[i], by[i], bvx[i], bvy[i]);
+			double x = bx[i], vx = bvx[i];
+			for (int k = 0; k < 30; k++) {
+				if (Math.abs(predictor.getX(k) - x) > 1e-9) {
+					throw new IllegalStateException("position mismatch at cycle " + k);
+				}
+				x += vx;
+				vx *= decay;
+			}
+			int fast = predictor.interceptCycle(px[i], py[i]);
+			int slow = linearIntercept(predictor, px[i], py[i]);
+			if (fast != slow) {
+				throw new IllegalStateException("intercept mismatch: " + fast + " != " + slow);
+			}
+		}
+
+		for (int round = 0; round < 2; round++) {
+			long t0 = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				int j = i & (n - 1);
+				predictor.set(bx[j], by[j], bvx[j], bvy[j]);
+				BenchUtil.consume(predictor.interceptCycle(px[j], py[j]));
+			}
+			long table = System.nanoTime() - t0;
+
+			t0 = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				int j = i & (n - 1);
+				predictor.set(bx[j], by[j], bvx[j], bvy[j]);
+				BenchUtil.consume(linearIntercept(predictor, px[j], py[j]));
+			}
+			long linear = System.nanoTime() - t0;
+			if (round == 1) {
+				System.out.printf("interceptCycle: %.1f ns/op, linear scan: %.1f ns/op%n", (double) table / iterations,
+						(double) linear / iterations);
+			}
+		}
+	}
+
+	/* Primeiro k, varrendo ciclo a ciclo, com o mesmo criterio do preditor */
+	private static int linearIntercept(BallPredictor predictor, double px, double py) {
+		for (int k = 0; k <= BallPredictor.HORIZON; k++) {
+			if (predictor.canReach(px, py, k)) {
+				return k;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,36 @@
+package projeto;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Utilitarios comuns dos benchmarks: bytes alocados pela thread atual e
+ * um sumidouro para o JIT nao eliminar o codigo medido.
+ */
+final class BenchUtil {
+	static volatile long sink;
+
+	private BenchUtil() {
+	}
+
+	/** Bytes alocados ate agora pela thread atual, ou -1 se a JVM nao informa. */
+	static long allocatedBytes() {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if (bean instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	static void consume(long v) {
+		sink += v;
+	}
+
+	static void consume(double v) {
+		sink += (long) v;
+	}
+
+	static void consume(boolean v) {
+		sink += v ? 1 : 0;
+	}
+
+}
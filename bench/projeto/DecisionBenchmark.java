@@ -0,0 +1,140 @@
+package projeto;
+
+import simple_soccer_lib.utils.EMatchState;
+
+/**
+ * Custo por ciclo da logica de decisao do BarcelonaPlayer, sem servidor.
+ *
+ * Mede isCloserToBall(), getCloserPlayer(), isAlignedTo() e
+ * executeStateMachine() para cada State, e a decisao completa de cada papel
+ * (camisas 1 a 7) para cada EMatchState, com a bola longe e no pe. Rode antes
+ * de colocar uma tatica nova em jogo e compare com a execucao anterior.
+ *
+ * Antes de medir confere que nenhuma decisao manda mais de um comando de
+ * corpo por ciclo (o servidor so executa um) e que o goleiro cobra o tiro de
+ * meta com a bola no pe.
+ *
+ * uso: DecisionBenchmark [iteracoes]
+ */
+public class DecisionBenchmark {
+
+	public static void main(String[] args) {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		NullCommands sink = new NullCommands();
+		checks(sink);
+		BarcelonaPlayer player = new BarcelonaPlayer(sink, DecisionFixtures.FORMATION);
+
+		DecisionFixtures.load(player.getView(), 5, EMatchState.PLAY_ON, false);
+		player.startRole();
+		predicates(player, iterations, false); // aquecimento
+		predicates(player, iterations, true);
+
+		System.out.println("benchmark,uniform,match_state,state,ball,ns_per_op");
+		for (boolean ballAtFeet : new boolean[] { false, true }) {
+			for (BarcelonaPlayer.State state : BarcelonaPlayer.State.values()) {
+				DecisionFixtures.load(player.getView(), 5, EMatchState.PLAY_ON, ballAtFeet);
+				double ns = stateMachine(player, state, iterations);
+				System.out.printf("executeStateMachine,5,PLAY_ON,%s,%s,%.1f%n", state, ball(ballAtFeet), ns);
+			}
+		}
+
+		for (int uniform = 1; uniform <= DecisionFixtures.FORMATION.size(); uniform++) {
+			BarcelonaPlayer rolePlayer = new BarcelonaPlayer(sink, DecisionFixtures.FORMATION);
+			DecisionFixtures.load(rolePlayer.getView(), uniform, EMatchState.BEFORE_KICK_OFF, false);
+			rolePlayer.startRole();
+			for (EMatchState matchState : EMatchState.values()) {
+				for (boolean ballAtFeet : new boolean[] { false, true }) {
+					DecisionFixtures.load(rolePlayer.getView(), uniform, matchState, ballAtFeet);
+					double ns = decide(rolePlayer, iterations);
+					System.out.printf("decideCycle,%d,%s,-,%s,%.1f%n", uniform, matchState, ball(ballAtFeet), ns);
+				}
+			}
+		}
+		BenchUtil.consume(sink.count);
+	}
+
+	private static void checks(NullCommands sink) {
+		for (int uniform = 1; uniform <= DecisionFixtures.FORMATION.size(); uniform++) {
+			BarcelonaPlayer rolePlayer = new BarcelonaPlayer(sink, DecisionFixtures.FORMATION);
+			DecisionFixtures.load(rolePlayer.getView(), uniform, EMatchState.BEFORE_KICK_OFF, false);
+			rolePlayer.startRole();
+			for (EMatchState matchState : EMatchState.values()) {
+				for (boolean ballAtFeet : new boolean[] { false, true }) {
+					DecisionFixtures.load(rolePlayer.getView(), uniform, matchState, ballAtFeet);
+					rolePlayer.resetDecision(BarcelonaPlayer.State.RETURN_TO_HOME);
+					long dropped = rolePlayer.getCommands().getSuppressedSameCycle();
+					rolePlayer.decideCycle();
+					check(rolePlayer.getCommands().getSuppressedSameCycle() == dropped,
+							"one body command per decision: " + uniform + " " + matchState + " " + ball(ballAtFeet));
+				}
+			}
+		}
+
+		BarcelonaPlayer keeper = new BarcelonaPlayer(sink, DecisionFixtures.FORMATION);
+		DecisionFixtures.load(keeper.getView(), 1, EMatchState.BEFORE_KICK_OFF, false);
+		keeper.startRole();
+		DecisionFixtures.load(keeper.getView(), 1, EMatchState.GOAL_KICK_LEFT, true);
+		long kicks = sink.kicks;
+		keeper.decideCycle();
+		check(sink.kicks == kicks + 1, "keeper kicks in GOAL_KICK_LEFT");
+	}
+
+	private static void check(boolean ok, String what) {
+		if (!ok) {
+			throw new IllegalStateException("failed: " + what);
+		}
+	}
+
+	private static void predicates(BarcelonaPlayer player, int iterations, boolean print) {
+		long t0 = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			BenchUtil.consume(player.isCloserToBall());
+		}
+		long closer = System.nanoTime() - t0;
+
+		t0 = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			BenchUtil.consume(player.getCloserPlayer().getX());
+		}
+		long mate = System.nanoTime() - t0;
+
+		t0 = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			BenchUtil.consume(player.isAlignedTo(player.getView().getBallPosition()));
+		}
+		long aligned = System.nanoTime() - t0;
+
+		if (print) {
+			System.out.printf("isCloserToBall: %.1f ns/op%n", (double) closer / iterations);
+			System.out.printf("getCloserPlayer: %.1f ns/op%n", (double) mate / iterations);
+			System.out.printf("isAlignedTo: %.1f ns/op%n", (double) aligned / iterations);
+		}
+	}
+
+	private static double stateMachine(BarcelonaPlayer player, BarcelonaPlayer.State state, int iterations) {
+		long total = 0;
+		for (int i = 0; i < iterations; i++) {
+			player.resetDecision(state);
+			long t0 = System.nanoTime();
+			player.executeStateMachine();
+			total += System.nanoTime() - t0;
+		}
+		return (double) total / iterations;
+	}
+
+	private static double decide(BarcelonaPlayer player, int iterations) {
+		long total = 0;
+		for (int i = 0; i < iterations; i++) {
+			player.resetDecision(BarcelonaPlayer.State.RETURN_TO_HOME);
+			long t0 = System.nanoTime();
+			player.decideCycle();
+			total += System.nanoTime() - t0;
+		}
+		return (double) total / iterations;
+	}
+
+	private static String ball(boolean atFeet) {
+		return atFeet ? "at_feet" : "far";
+	}
+
+}
@@ -0,0 +1,56 @@
+package projeto;
+
+import simple_soccer_lib.utils.EFieldSide;
+import simple_soccer_lib.utils.EMatchState;
+
+/**
+ * Situacoes sinteticas de jogo para os benchmarks de decisao: o time na
+ * formacao inicial, com a bola longe ou no pe do jogador medido.
+ */
+final class DecisionFixtures {
+	static final Formation FORMATION = Formation.builtIn();
+
+	private DecisionFixtures() {
+	}
+
+	static WorldModel team(double ballX, double ballY) {
+		return team(FORMATION, ballX, ballY);
+	}
+
+	/** O time inteiro na posicao de saida da formacao. */
+	static WorldModel team(Formation formation, double ballX, double ballY) {
+		int players = formation.size();
+		int[] uniforms = new int[players];
+		double[] x = new double[players];
+		double[] y = new double[players];
+		for (int i = 0; i < players; i++) {
+			uniforms[i] = i + 1;
+			x[i] = formation.getKickOffX(i + 1);
+			y[i] = formation.getKickOffY(i + 1);
+			for (int j = 0; j < i; j++) {
+				if (x[j] == x[i] && y[j] == y[i]) {
+					y[i] += 4; // camisas na mesma posicao nao ficam sobrepostas
+				}
+			}
+		}
+		return WorldModel.of(System.nanoTime(), uniforms, x, y, players, ballX, ballY);
+	}
+
+	static void load(PlayerView view, int uniform, EMatchState matchState, boolean ballAtFeet) {
+		load(view, FORMATION, uniform, matchState, ballAtFeet);
+	}
+
+	/** Prepara a view do jogador com a camisa dada; com ballAtFeet a bola fica ao alcance do chute. */
+	static void load(PlayerView view, Formation formation, int uniform, EMatchState matchState,
+			boolean ballAtFeet) {
+		WorldModel world = ballAtFeet
+				? team(formation, formation.getKickOffX(uniform) + 0.3, formation.getKickOffY(uniform))
+				: team(formation, 20, 15);
+		int me = world.indexOf(uniform);
+		view.setSelf("BarcelonaFC_bench", uniform, EFieldSide.LEFT, world.getX(me), world.getY(me), 1, 0);
+		view.setBall(world.getBallX(), world.getBallY());
+		view.setMatchState(matchState);
+		view.setWorld(world);
+	}
+
+}
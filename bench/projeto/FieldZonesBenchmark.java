@@ -0,0 +1,101 @@
+package projeto;
+
+import java.util.Random;
+
+import simple_soccer_lib.utils.EFieldSide;
+
+/**
+ * Classificacao de pontos pelas {@link FieldZones} contra os testes
+ * exatos de cada retangulo e contra o java.awt.Rectangle que os papeis
+ * usavam: custo da carga das classes, de uma consulta (todas as zonas de
+ * uma vez) e quantos pontos caem numa zona diferente por causa da grade.
+ *
+ * uso: FieldZonesBenchmark [iteracoes]
+ */
+public class FieldZonesBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000000;
+
+		long t0 = System.nanoTime();
+		Class.forName("projeto.FieldZones");
+		long zonesLoad = System.nanoTime() - t0;
+		t0 = System.nanoTime();
+		Class<?> rectangle = Class.forName("java.awt.Rectangle");
+		Object r = rectangle.getConstructor(int.class, int.class, int.class, int.class).newInstance(-52, -25, 32, 50);
+		long awtLoad = System.nanoTime() - t0;
+		java.awt.Rectangle defense = (java.awt.Rectangle) r;
+		System.out.printf("class init: FieldZones %.1f ms (grid %dx%d, %d combinations), java.awt.Rectangle %.1f ms%n",
+				zonesLoad / 1e6, FieldZones.NX, FieldZones.NY, FieldZones.combinations(), awtLoad / 1e6);
+
+		Random rnd = new Random(24);
+		int n = 4096;
+		double[] x = new double[n], y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = rnd.nextDouble() * 105 - 52.5;
+			y[i] = rnd.nextDouble() * 68 - 34;
+		}
+
+		// a grade erra no maximo meia celula perto das bordas das zonas
+		FieldZones.Zone[] zones = FieldZones.Zone.values();
+		int differ = 0;
+		for (int i = 0; i < 1000000; i++) {
+			double px = rnd.nextDouble() * 105 - 52.5, py = rnd.nextDouble() * 68 - 34;
+			int mask = FieldZones.zones(px, py);
+			int mirrored = FieldZones.zones(-px, -py, EFieldSide.RIGHT);
+			if (mask != mirrored) {
+				throw new IllegalStateException("right side is not the mirror of the left");
+			}
+			for (FieldZones.Zone z : zones) {
+				if (((mask & z.mask) != 0) != z.contains(px, py)) {
+					differ++;
+					if (Math.min(Math.min(Math.abs(px - z.minX), Math.abs(px - z.maxX)),
+							Math.min(Math.abs(py - z.minY), Math.abs(py - z.maxY))) > FieldZones.CELL) {
+						throw new IllegalStateException(z + " wrong far from its border at " + px + ", " + py);
+					}
+					break;
+				}
+			}
+		}
+		System.out.printf("%.3f%% of points differ from the exact rectangles (all near a border)%n", differ / 1e4);
+
+		for (int round = 0; round < 2; round++) {
+			t0 = System.nanoTime();
+			long sum = 0;
+			for (int i = 0; i < iterations; i++) {
+				sum += FieldZones.zones(x[i & (n - 1)], y[i & (n - 1)], EFieldSide.LEFT);
+			}
+			long grid = System.nanoTime() - t0;
+			BenchUtil.consume(sum);
+
+			t0 = System.nanoTime();
+			sum = 0;
+			for (int i = 0; i < iterations; i++) {
+				double px = x[i & (n - 1)], py = y[i & (n - 1)];
+				int mask = 0;
+				for (FieldZones.Zone z : zones) {
+					if (z.contains(px, py)) {
+						mask |= z.mask;
+					}
+				}
+				sum += mask;
+			}
+			long exact = System.nanoTime() - t0;
+			BenchUtil.consume(sum);
+
+			t0 = System.nanoTime();
+			sum = 0;
+			for (int i = 0; i < iterations; i++) {
+				sum += defense.contains(x[i & (n - 1)], y[i & (n - 1)]) ? 1 : 0;
+			}
+			long awt = System.nanoTime() - t0;
+			BenchUtil.consume(sum);
+			if (round == 1) {
+				System.out.printf("grid (all %d zones): %.1f ns, exact rectangles (all zones): %.1f ns, "
+						+ "awt Rectangle (one zone): %.1f ns%n", zones.length, (double) grid / iterations,
+						(double) exact / iterations, (double) awt / iterations);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,63 @@
+package projeto;
+
+import java.io.File;
+
+import simple_soccer_lib.utils.EMatchState;
+
+/**
+ * Custo de decisao por jogador conforme o tamanho do time: para cada
+ * formacao, todos os jogadores decidem um ciclo de PLAY_ON sobre o mesmo
+ * WorldModel. O custo por jogador deve ficar estavel de 7 para 11.
+ *
+ * uso: FormationBenchmark [ciclos] [arquivo de formacao...]
+ */
+public class FormationBenchmark {
+
+	public static void main(String[] args) {
+		int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		Formation[] formations;
+		if (args.length > 1) {
+			formations = new Formation[args.length - 1];
+			for (int i = 1; i < args.length; i++) {
+				formations[i - 1] = Formation.load(new File(args[i]));
+			}
+		} else {
+			formations = new Formation[] { Formation.load(new File("formations/7.txt")),
+					Formation.load(new File("formations/11.txt")) };
+		}
+
+		NullCommands sink = new NullCommands();
+		for (Formation f : formations) {
+			run(f, sink, cycles); // aquecimento
+		}
+		System.out.println("players,ns_per_team_cycle,ns_per_player_cycle,bytes_per_team_cycle");
+		for (Formation f : formations) {
+			run(f, sink, cycles);
+			long bytes0 = BenchUtil.allocatedBytes();
+			long t0 = System.nanoTime();
+			run(f, sink, cycles);
+			long elapsed = System.nanoTime() - t0;
+			long bytes = BenchUtil.allocatedBytes() - bytes0;
+			System.out.printf("%d,%.1f,%.1f,%.1f%n", f.size(), (double) elapsed / cycles,
+					(double) elapsed / cycles / f.size(), (double) bytes / cycles);
+		}
+		BenchUtil.consume(sink.count);
+	}
+
+	private static void run(Formation formation, NullCommands sink, int cycles) {
+		int n = formation.size();
+		BarcelonaPlayer[] players = new BarcelonaPlayer[n];
+		for (int i = 0; i < n; i++) {
+			players[i] = new BarcelonaPlayer(sink, formation);
+			DecisionFixtures.load(players[i].getView(), formation, i + 1, EMatchState.PLAY_ON, false);
+			players[i].startRole();
+		}
+		for (int c = 0; c < cycles; c++) {
+			for (int i = 0; i < n; i++) {
+				players[i].resetDecision(BarcelonaPlayer.State.RETURN_TO_HOME);
+				players[i].decideCycle();
+			}
+		}
+	}
+
+}
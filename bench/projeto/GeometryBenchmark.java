@@ -0,0 +1,122 @@
+package projeto;
+
+import java.util.Random;
+
+import simple_soccer_lib.utils.EMatchState;
+
+/**
+ * Custo dos predicados geometricos de um ciclo de decisao (mais perto da
+ * bola, companheiro mais proximo, alinhamento, distancias), em ns e em bytes
+ * alocados por ciclo. O esperado e 0 bytes/ciclo.
+ *
+ * Depois mede o ciclo de decisao real do BarcelonaPlayer no play_on
+ * (predicados e decisao completa de cada camisa, com a bola longe e no pe,
+ * sobre o {@link DecisionFixtures}), tambem em ns e bytes por decisao.
+ *
+ * uso: GeometryBenchmark [ciclos] [decisoes]
+ */
+public class GeometryBenchmark {
+	private static final int PLAYERS = 7;
+	private static final int SCENARIOS = 1024;
+
+	public static void main(String[] args) {
+		int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+		int decisions = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+
+		Random rnd = new Random(42);
+		double[][] xs = new double[SCENARIOS][PLAYERS];
+		double[][] ys = new double[SCENARIOS][PLAYERS];
+		double[] ball = new double[SCENARIOS * 2];
+		double[] dir = new double[SCENARIOS * 2];
+		for (int s = 0; s < SCENARIOS; s++) {
+			for (int i = 0; i < PLAYERS; i++) {
+				xs[s][i] = rnd.nextDouble() * 105 - 52.5;
+				ys[s][i] = rnd.nextDouble() * 68 - 34;
+			}
+			ball[2 * s] = rnd.nextDouble() * 105 - 52.5;
+			ball[2 * s + 1] = rnd.nextDouble() * 68 - 34;
+			double a = rnd.nextDouble() * 2 * Math.PI;
+			dir[2 * s] = Math.cos(a);
+			dir[2 * s + 1] = Math.sin(a);
+		}
+
+		run(xs, ys, ball, dir, cycles); // aquecimento do JIT
+		long alloc = BenchUtil.allocatedBytes();
+		long t0 = System.nanoTime();
+		run(xs, ys, ball, dir, cycles);
+		long elapsed = System.nanoTime() - t0;
+		alloc = BenchUtil.allocatedBytes() - alloc;
+
+		System.out.printf("cycles=%d ns/cycle=%.1f bytes/cycle=%.3f%n", cycles, (double) elapsed / cycles,
+				(double) alloc / cycles);
+
+		NullCommands sink = new NullCommands();
+		BarcelonaPlayer player = new BarcelonaPlayer(sink, DecisionFixtures.FORMATION);
+		DecisionFixtures.load(player.getView(), 5, EMatchState.PLAY_ON, false);
+		player.startRole();
+		predicates(player, decisions); // aquecimento
+		alloc = BenchUtil.allocatedBytes();
+		t0 = System.nanoTime();
+		predicates(player, decisions);
+		elapsed = System.nanoTime() - t0;
+		alloc = BenchUtil.allocatedBytes() - alloc;
+		System.out.printf("predicates: ns/decision=%.1f bytes/decision=%.3f%n", (double) elapsed / decisions,
+				(double) alloc / decisions);
+
+		for (int uniform = 1; uniform <= DecisionFixtures.FORMATION.size(); uniform++) {
+			for (boolean ballAtFeet : new boolean[] { false, true }) {
+				BarcelonaPlayer rolePlayer = new BarcelonaPlayer(sink, DecisionFixtures.FORMATION);
+				DecisionFixtures.load(rolePlayer.getView(), uniform, EMatchState.BEFORE_KICK_OFF, false);
+				rolePlayer.startRole();
+				DecisionFixtures.load(rolePlayer.getView(), uniform, EMatchState.PLAY_ON, ballAtFeet);
+				decide(rolePlayer, decisions); // aquecimento
+				alloc = BenchUtil.allocatedBytes();
+				t0 = System.nanoTime();
+				decide(rolePlayer, decisions);
+				elapsed = System.nanoTime() - t0;
+				alloc = BenchUtil.allocatedBytes() - alloc;
+				System.out.printf("decideCycle %d %s: ns/decision=%.1f bytes/decision=%.3f%n", uniform,
+						ballAtFeet ? "at_feet" : "far", (double) elapsed / decisions, (double) alloc / decisions);
+			}
+		}
+		BenchUtil.consume(sink.count);
+	}
+
+	/* Os predicados que a decisao consulta a cada ciclo, sobre o modelo do time */
+	private static void predicates(BarcelonaPlayer player, int decisions) {
+		for (int i = 0; i < decisions; i++) {
+			BenchUtil.consume(player.isCloserToBall());
+			BenchUtil.consume(player.getCloserPlayer().getX());
+			BenchUtil.consume(player.isAlignedTo(player.getView().getBallPosition()));
+		}
+	}
+
+	/* Sempre do mesmo estado, para nao depender de plano em andamento */
+	private static void decide(BarcelonaPlayer player, int decisions) {
+		for (int i = 0; i < decisions; i++) {
+			player.resetDecision(BarcelonaPlayer.State.ATTACKING);
+			player.decideCycle();
+		}
+	}
+
+	private static void run(double[][] xs, double[][] ys, double[] ball, double[] dir, int cycles) {
+		for (int c = 0; c < cycles; c++) {
+			int s = c & (SCENARIOS - 1);
+			int self = c % PLAYERS;
+			double[] x = xs[s], y = ys[s];
+			double bx = ball[2 * s], by = ball[2 * s + 1];
+
+			double min = Geometry.minDistance(bx, by, x, y, PLAYERS);
+			boolean closer = Geometry.distance(x[self], y[self], bx, by) <= min;
+			int mate = Geometry.nearest(x[self], y[self], x, y, PLAYERS, self);
+			boolean aligned = Geometry.isAligned(x[self], y[self], dir[2 * s], dir[2 * s + 1], bx, by, 15.0d);
+			boolean home = Geometry.distance(x[self], y[self], -10, 8) <= 2.0d;
+
+			BenchUtil.consume(closer);
+			BenchUtil.consume(mate);
+			BenchUtil.consume(aligned);
+			BenchUtil.consume(home);
+		}
+	}
+
+}
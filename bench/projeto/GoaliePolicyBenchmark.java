@@ -0,0 +1,74 @@
+package projeto;
+
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Custo de gerar a grade da {@link GoaliePolicy} contra mapea-la do
+ * arquivo, e de uma consulta por ciclo. Confere alguns casos: bola parada
+ * de frente para o gol deixa o goleiro no eixo, chute para o canto e
+ * marcado como SHOT e o alvo vai para o lado do chute.
+ */
+public class GoaliePolicyBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+		ServerParams params = ServerParams.get();
+		File file = File.createTempFile("goalie", ".policy");
+		file.deleteOnExit();
+
+		long t0 = System.nanoTime();
+		GoaliePolicy built = GoaliePolicy.build(params);
+		long build = System.nanoTime() - t0;
+		built.save(file);
+		t0 = System.nanoTime();
+		GoaliePolicy policy = GoaliePolicy.map(params, file);
+		long map = System.nanoTime() - t0;
+		if (policy == null || !policy.isMapped()) {
+			throw new IllegalStateException("policy file not mapped");
+		}
+		System.out.printf("grid: build %.0f ms, map %.2f ms (%d KB)%n", build / 1e6, map / 1e6, file.length() / 1024);
+
+		int still = GoaliePolicy.cell(-30, 0, 0, 0);
+		check(Math.abs(policy.targetY(still)) < 0.6 && policy.targetX(still) > -52.5, "ball in front: keeper on axis");
+		int shot = GoaliePolicy.cell(-40, 0, -2.4, -1.2);
+		check((policy.flags(shot) & GoaliePolicy.SHOT) != 0, "shot to the corner flagged");
+		check(policy.targetY(shot) < -1, "keeper moves to the shot side");
+		int wide = GoaliePolicy.cell(-40, 30, 0, 0);
+		check((policy.flags(wide) & GoaliePolicy.CATCH_ZONE) == 0, "wide ball outside the penalty area");
+		int loose = GoaliePolicy.cell(-45, 5, 0, 0);
+		check((policy.flags(loose) & GoaliePolicy.ADVANCE) != 0, "loose ball in the area: advance");
+		System.out.printf("ball (-30, 0): keeper (%.1f, %.1f); shot from (-40, 0): keeper (%.1f, %.1f)%n",
+				policy.targetX(still), policy.targetY(still), policy.targetX(shot), policy.targetY(shot));
+
+		Random rnd = new Random(23);
+		double[] x = new double[1024], y = new double[1024], vx = new double[1024], vy = new double[1024];
+		for (int i = 0; i < x.length; i++) {
+			x[i] = rnd.nextDouble() * 105 - 52.5;
+			y[i] = rnd.nextDouble() * 68 - 34;
+			vx[i] = rnd.nextDouble() * 6 - 3;
+			vy[i] = rnd.nextDouble() * 6 - 3;
+		}
+		for (int round = 0; round < 2; round++) {
+			t0 = System.nanoTime();
+			double sum = 0;
+			for (int i = 0; i < iterations; i++) {
+				int k = i & 1023;
+				int c = GoaliePolicy.cell(x[k], y[k], vx[k], vy[k]);
+				sum += policy.targetX(c) + policy.targetY(c) + policy.flags(c);
+			}
+			long elapsed = System.nanoTime() - t0;
+			BenchUtil.consume(sum);
+			if (round == 1) {
+				System.out.printf("lookup: %.1f ns%n", (double) elapsed / iterations);
+			}
+		}
+	}
+
+	private static void check(boolean ok, String what) {
+		if (!ok) {
+			throw new IllegalStateException("failed: " + what);
+		}
+	}
+
+}
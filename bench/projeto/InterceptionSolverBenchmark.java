@@ -0,0 +1,87 @@
+package projeto;
+
+import java.util.Random;
+
+/**
+ * Tempo de interceptacao dos 22 jogadores de uma vez com o
+ * {@link InterceptionSolver} contra uma chamada do {@link BallPredictor} por
+ * jogador. Com os corpos alinhados a bola os dois devem concordar; o solver
+ * tambem nao deve alocar.
+ */
+public class InterceptionSolverBenchmark {
+
+	public static void main(String[] args) {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int players = 2 * Formation.MAX_PLAYERS;
+		InterceptionSolver solver = InterceptionSolver.get();
+		BallPredictor predictor = new BallPredictor(ServerParams.get());
+		Random rnd = new Random(15);
+
+		int n = 256;
+		double[] bx = new double[n], by = new double[n], bvx = new double[n], bvy = new double[n];
+		double[][] x = new double[n][players], y = new double[n][players];
+		double[][] cos = new double[n][players], sin = new double[n][players];
+		for (int i = 0; i < n; i++) {
+			bx[i] = rnd.nextDouble() * 80 - 40;
+			by[i] = rnd.nextDouble() * 50 - 25;
+			double speed = rnd.nextDouble() * 3, dir = rnd.nextDouble() * 2 * Math.PI;
+			bvx[i] = speed * Math.cos(dir);
+			bvy[i] = speed * Math.sin(dir);
+			for (int p = 0; p < players; p++) {
+				x[i][p] = rnd.nextDouble() * 100 - 50;
+				y[i][p] = rnd.nextDouble() * 64 - 32;
+				double body = rnd.nextDouble() * 2 * Math.PI;
+				cos[i][p] = Math.cos(body);
+				sin[i][p] = Math.sin(body);
+			}
+		}
+
+		// corpos virados para a bola parada: o solver tem que concordar com o preditor
+		int[] cycles = new int[players];
+		double[] faceCos = new double[players], faceSin = new double[players];
+		for (int i = 0; i < n; i++) {
+			for (int p = 0; p < players; p++) {
+				double dx = bx[i] - x[i][p], dy = by[i] - y[i][p];
+				double d = Math.sqrt(dx * dx + dy * dy);
+				faceCos[p] = d == 0 ? 1 : dx / d;
+				faceSin[p] = d == 0 ? 0 : dy / d;
+			}
+			solver.solve(bx[i], by[i], 0, 0, x[i], y[i], faceCos, faceSin, players, cycles);
+			predictor.set(bx[i], by[i], 0, 0);
+			for (int p = 0; p < players; p++) {
+				int expected = predictor.interceptCycle(x[i][p], y[i][p]);
+				if (cycles[p] != (expected < 0 ? InterceptionSolver.NEVER : expected)) {
+					throw new IllegalStateException("intercept mismatch: " + cycles[p] + " != " + expected);
+				}
+			}
+		}
+
+		for (int round = 0; round < 2; round++) {
+			long bytes0 = BenchUtil.allocatedBytes();
+			long t0 = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				int j = i & (n - 1);
+				solver.solve(bx[j], by[j], bvx[j], bvy[j], x[j], y[j], cos[j], sin[j], players, cycles);
+				BenchUtil.consume(InterceptionSolver.fastest(cycles, players));
+			}
+			long batch = System.nanoTime() - t0;
+			long bytes = BenchUtil.allocatedBytes() - bytes0;
+
+			t0 = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				int j = i & (n - 1);
+				predictor.set(bx[j], by[j], bvx[j], bvy[j]);
+				for (int p = 0; p < players; p++) {
+					BenchUtil.consume(predictor.interceptCycle(x[j][p], y[j][p]));
+				}
+			}
+			long single = System.nanoTime() - t0;
+			if (round == 1) {
+				System.out.printf("solver: %.1f ns/cycle (%d players, %.1f bytes/cycle), per player: %.1f ns/cycle%n",
+						(double) batch / iterations, players, (double) bytes / iterations,
+						(double) single / iterations);
+			}
+		}
+	}
+
+}
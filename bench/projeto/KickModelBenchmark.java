@@ -0,0 +1,102 @@
+package projeto;
+
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Custo de montar as tabelas do {@link KickModel} contra le-las do cache,
+ * e de uma consulta. Confere as sequencias de dois chutes simulando o
+ * servidor: a bola tem que continuar na area de chute depois do primeiro e
+ * sair do segundo com a velocidade tabelada.
+ */
+public class KickModelBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		ServerParams params = ServerParams.get();
+		File cache = File.createTempFile("kick", ".cache");
+		cache.delete();
+		cache.deleteOnExit();
+
+		long t0 = System.nanoTime();
+		KickModel built = new KickModel(params);
+		built.loadOrBuild(cache);
+		long build = System.nanoTime() - t0;
+		t0 = System.nanoTime();
+		KickModel loaded = new KickModel(params);
+		loaded.loadOrBuild(cache);
+		long load = System.nanoTime() - t0;
+		if (built.isLoaded() || !loaded.isLoaded()) {
+			throw new IllegalStateException("cache not used");
+		}
+		System.out.printf("tables: build+save %.1f ms, load %.1f ms (%d KB)%n", build / 1e6, load / 1e6,
+				cache.length() / 1024);
+
+		double decay = params.getDouble("ball_decay", 0.94);
+		double kickable = params.getDouble("kickable_margin", 0.7) + params.getDouble("player_size", 0.3)
+				+ params.getDouble("ball_size", 0.085);
+		double minDist = params.getDouble("player_size", 0.3) + params.getDouble("ball_size", 0.085);
+		Random rnd = new Random(22);
+		int better = 0, checked = 0;
+		double worst = 0, gain = 0;
+		for (int i = 0; i < 20000; i++) {
+			// celulas exatas da tabela, para a conferencia nao pegar erro de arredondamento
+			double dist = minDist + (kickable - minDist) * rnd.nextInt(KickModel.DISTANCES) / (KickModel.DISTANCES - 1);
+			double angle = rnd.nextInt(KickModel.ANGLES) * 360.0 / KickModel.ANGLES - 180;
+			double dir = rnd.nextInt(KickModel.ANGLES) * 360.0 / KickModel.ANGLES - 180;
+			double one = loaded.maxSpeed(dist, angle);
+			double two = loaded.twoKickSpeed(dist, angle, dir);
+			if (two <= one) {
+				continue;
+			}
+			better++;
+			gain += two - one;
+			double bx = dist * Math.cos(Math.toRadians(angle)), by = dist * Math.sin(Math.toRadians(angle));
+			double p1 = loaded.firstPower(dist, angle, dir), d1 = Math.toRadians(loaded.firstDirection(dist, angle, dir));
+			double a1 = p1 * loaded.rate(dist, angle);
+			double vx = a1 * Math.cos(d1), vy = a1 * Math.sin(d1);
+			bx += vx;
+			by += vy;
+			vx *= decay;
+			vy *= decay;
+			double r = Math.hypot(bx, by);
+			if (r > kickable || r < minDist) {
+				throw new IllegalStateException("first kick leaves the kickable area: " + r);
+			}
+			double a2 = loaded.secondPower(dist, angle, dir) * loaded.rate(r, Math.toDegrees(Math.atan2(by, bx)));
+			double d2 = Math.toRadians(loaded.secondDirection(dist, angle, dir));
+			vx += a2 * Math.cos(d2);
+			vy += a2 * Math.sin(d2);
+			double speed = vx * Math.cos(Math.toRadians(dir)) + vy * Math.sin(Math.toRadians(dir));
+			worst = Math.max(worst, Math.abs(speed - two));
+			checked++;
+		}
+		System.out.printf("two kicks faster in %d of 20000 cells (+%.2f m/cycle on average), worst error %.4f%n",
+				better, better == 0 ? 0 : gain / better, worst);
+		if (worst > 1e-3) {
+			throw new IllegalStateException("two-kick table disagrees with the simulation");
+		}
+		BenchUtil.consume(checked);
+
+		double[] dists = new double[1024], angles = new double[1024], dirs = new double[1024];
+		for (int i = 0; i < dists.length; i++) {
+			dists[i] = minDist + rnd.nextDouble() * (kickable - minDist);
+			angles[i] = rnd.nextDouble() * 360 - 180;
+			dirs[i] = rnd.nextDouble() * 360 - 180;
+		}
+		for (int round = 0; round < 2; round++) {
+			t0 = System.nanoTime();
+			double sum = 0;
+			for (int i = 0; i < iterations; i++) {
+				int k = i & 1023;
+				sum += loaded.power(dists[k], angles[k], 1.5) + loaded.twoKickSpeed(dists[k], angles[k], dirs[k]);
+			}
+			long elapsed = System.nanoTime() - t0;
+			BenchUtil.consume(sum);
+			if (round == 1) {
+				System.out.printf("query: %.1f ns (one-kick power + two-kick lookup)%n", (double) elapsed / iterations);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,121 @@
+package projeto;
+
+import java.io.File;
+import java.util.Random;
+
+import simple_soccer_lib.utils.EFieldSide;
+import simple_soccer_lib.utils.EMatchState;
+
+/**
+ * Grava com o {@link MatchRecorder} uma partida sintetica (o time da
+ * formacao contra outro, bola andando ao acaso) e repete com o
+ * {@link MatchReplay}, conferindo que nenhuma decisao muda e medindo quantas
+ * vezes o tempo real o replay roda.
+ *
+ * uso: MatchReplayBenchmark [ciclos] [repeticoes]
+ */
+public class MatchReplayBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+		int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		Formation formation = DecisionFixtures.FORMATION;
+		File file = File.createTempFile("match", ".bfr");
+		file.deleteOnExit();
+
+		MatchRecorder recorder = new MatchRecorder(file);
+		BarcelonaPlayer last = record(recorder, formation, cycles);
+		recorder.close();
+		System.out.printf("%d bytes/record, %d KB for %d cycles%n", MatchRecorder.RECORD_SIZE,
+				(MatchRecorder.HEADER_SIZE + recorder.getCount() * MatchRecorder.RECORD_SIZE) / 1024, cycles);
+
+		// custo so da gravacao, repetindo a ultima decisao
+		File scratch = File.createTempFile("record", ".bfr");
+		scratch.deleteOnExit();
+		MatchRecorder timed = new MatchRecorder(scratch);
+		int writes = 20 * MatchRecorder.SEGMENT_RECORDS;
+		long t0 = System.nanoTime();
+		for (int i = 0; i < writes; i++) {
+			timed.record(last, BarcelonaPlayer.State.FOLLOW, Math.max(0, last.getCommands().getSent() - 1));
+		}
+		long elapsed = System.nanoTime() - t0;
+		timed.close();
+		System.out.printf("record: %.0f ns/record%n", (double) elapsed / writes);
+
+		MatchReplay replay = new MatchReplay(formation);
+		try (MatchLog log = new MatchLog(file)) {
+			for (int r = 0; r < repeats; r++) {
+				replay.replay(log, r == 0);
+			}
+		}
+		System.out.println(replay);
+		if (replay.getMismatches() != 0) {
+			throw new IllegalStateException("replay diverged from the recording");
+		}
+	}
+
+	/* Devolve o ultimo jogador, para medir a gravacao sozinha */
+	private static BarcelonaPlayer record(MatchRecorder recorder, Formation formation, int cycles) {
+		int n = formation.size();
+		NullCommands sink = new NullCommands();
+		BarcelonaPlayer[] players = new BarcelonaPlayer[n];
+		Random rnd = new Random(19);
+		double[] px = new double[n], py = new double[n], dir = new double[n];
+		double[] ox = new double[n], oy = new double[n];
+		double bx = 0, by = 0, bvx = 0, bvy = 0;
+		for (int i = 0; i < n; i++) {
+			px[i] = formation.getKickOffX(i + 1);
+			py[i] = formation.getKickOffY(i + 1) + i * 0.1; // sem posicoes repetidas
+			ox[i] = -px[i];
+			oy[i] = py[i];
+		}
+
+		for (int c = 0; c < cycles; c++) {
+			if (c % 40 == 0) { // um chute de vez em quando
+				double a = rnd.nextDouble() * 2 * Math.PI, speed = 1 + rnd.nextDouble() * 2;
+				bvx = speed * Math.cos(a);
+				bvy = speed * Math.sin(a);
+			}
+			bx = Math.max(-52, Math.min(52, bx + bvx));
+			by = Math.max(-34, Math.min(34, by + bvy));
+			bvx *= 0.94;
+			bvy *= 0.94;
+			for (int i = 0; i < n; i++) { // todos andam um pouco na direcao da bola
+				dir[i] = Math.atan2(by - py[i], bx - px[i]) + (rnd.nextDouble() - 0.5);
+				px[i] += 0.3 * Math.cos(dir[i]);
+				py[i] += 0.3 * Math.sin(dir[i]);
+				ox[i] += 0.2 * (rnd.nextDouble() - 0.5);
+				oy[i] += 0.2 * (rnd.nextDouble() - 0.5);
+			}
+
+			int[] uniforms = new int[n], oppUniforms = new int[n];
+			double[] x = px.clone(), y = py.clone(), cos = new double[n], sin = new double[n];
+			for (int i = 0; i < n; i++) {
+				uniforms[i] = oppUniforms[i] = i + 1;
+				cos[i] = Math.cos(dir[i]);
+				sin[i] = Math.sin(dir[i]);
+			}
+			WorldModel world = WorldModel.of(c, uniforms, x, y, n, bx, by, bvx, bvy, cos, sin, oppUniforms,
+					ox.clone(), oy.clone(), n, new double[n], new double[n]);
+
+			for (int i = 0; i < n; i++) {
+				if (players[i] == null) {
+					players[i] = new BarcelonaPlayer(sink, formation);
+					players[i].setRecorder(recorder);
+				}
+				PlayerView view = players[i].getView();
+				view.setSelf("BarcelonaFC_bench", i + 1, EFieldSide.LEFT, px[i], py[i], cos[i], sin[i]);
+				view.setBall(bx, by);
+				view.setMatchState(c < 10 ? EMatchState.BEFORE_KICK_OFF : EMatchState.PLAY_ON);
+				view.setWorld(world);
+				if (c == 0) {
+					players[i].startRole();
+				}
+				players[i].decideCycle();
+			}
+		}
+		BenchUtil.consume(sink.count);
+		return players[n - 1];
+	}
+
+}
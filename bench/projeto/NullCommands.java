@@ -0,0 +1,57 @@
+package projeto;
+
+import simple_soccer_lib.utils.Vector2D;
+
+/**
+ * {@link BodyCommands} que so conta os comandos, para rodar a decisao sem
+ * servidor.
+ */
+class NullCommands implements BodyCommands {
+	long count;
+	long kicks;
+
+	@Override
+	public void doDashBlocking(double power) {
+		count++;
+	}
+
+	@Override
+	public void doTurnToDirectionBlocking(Vector2D direction) {
+		count++;
+	}
+
+	@Override
+	public void doTurnToPointBlocking(Vector2D point) {
+		count++;
+	}
+
+	@Override
+	public boolean doKick(double power, double direction) {
+		count++;
+		kicks++;
+		return true;
+	}
+
+	@Override
+	public void doKickBlocking(double power, double direction) {
+		count++;
+		kicks++;
+	}
+
+	@Override
+	public void doKickToPointBlocking(double power, Vector2D point) {
+		count++;
+		kicks++;
+	}
+
+	@Override
+	public void doMoveBlocking(double x, double y) {
+		count++;
+	}
+
+	@Override
+	public void doCatchBlocking(double direction) {
+		count++;
+	}
+
+}
@@ -0,0 +1,78 @@
+package projeto;
+
+import java.util.Random;
+
+/**
+ * Candidatos de passe avaliados por milissegundo pelo {@link PassEvaluator},
+ * em sequencia e dividido entre threads, sobre modelos com 11 contra 11 em
+ * posicoes ao acaso. Os dois modos tem que escolher o mesmo passe.
+ *
+ * uso: PassEvaluatorBenchmark [iteracoes] [orcamento]
+ */
+public class PassEvaluatorBenchmark {
+
+	public static void main(String[] args) {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int budget = args.length > 1 ? Integer.parseInt(args[1]) : PassEvaluator.BUDGET;
+		int n = Formation.MAX_PLAYERS;
+		Random rnd = new Random(21);
+
+		int worlds = 128;
+		WorldModel[] models = new WorldModel[worlds];
+		for (int w = 0; w < worlds; w++) {
+			int[] uniforms = new int[n];
+			double[] x = new double[n], y = new double[n], cos = new double[n], sin = new double[n];
+			double[] ox = new double[n], oy = new double[n], ocos = new double[n], osin = new double[n];
+			for (int i = 0; i < n; i++) {
+				uniforms[i] = i + 1;
+				x[i] = rnd.nextDouble() * 100 - 50;
+				y[i] = rnd.nextDouble() * 64 - 32;
+				ox[i] = rnd.nextDouble() * 100 - 50;
+				oy[i] = rnd.nextDouble() * 64 - 32;
+				double a = rnd.nextDouble() * 2 * Math.PI, b = rnd.nextDouble() * 2 * Math.PI;
+				cos[i] = Math.cos(a);
+				sin[i] = Math.sin(a);
+				ocos[i] = Math.cos(b);
+				osin[i] = Math.sin(b);
+			}
+			// a bola no pe do jogador 0
+			models[w] = WorldModel.of(w, uniforms, x, y, n, x[0] + 0.3, y[0], 0, 0, cos, sin, uniforms.clone(), ox,
+					oy, n, ocos, osin);
+		}
+
+		PassEvaluator sequential = new PassEvaluator(ServerParams.get(), budget, false);
+		PassEvaluator parallel = new PassEvaluator(ServerParams.get(), budget, true);
+		int safe = 0;
+		for (WorldModel world : models) {
+			int a = sequential.evaluate(world, 0, world.getBallX(), world.getBallY(), 1);
+			int b = parallel.evaluate(world, 0, world.getBallX(), world.getBallY(), 1);
+			if (a != b) {
+				throw new IllegalStateException("parallel chose " + b + ", sequential " + a);
+			}
+			safe += a >= 0 ? 1 : 0;
+		}
+		System.out.printf("%d processors, budget %d, safe pass in %d of %d worlds%n",
+				Runtime.getRuntime().availableProcessors(), budget, safe, worlds);
+
+		for (int round = 0; round < 2; round++) {
+			for (PassEvaluator evaluator : new PassEvaluator[] { sequential, parallel }) {
+				long candidates = 0;
+				long bytes0 = BenchUtil.allocatedBytes();
+				long t0 = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					WorldModel world = models[i % worlds];
+					BenchUtil.consume(evaluator.evaluate(world, 0, world.getBallX(), world.getBallY(), 1));
+					candidates += evaluator.size();
+				}
+				long elapsed = System.nanoTime() - t0;
+				long bytes = BenchUtil.allocatedBytes() - bytes0;
+				if (round == 1) {
+					System.out.printf("%s: %.0f candidates/ms, %.1f us/cycle, %.0f B/cycle%n",
+							evaluator == sequential ? "sequential" : "parallel", candidates / (elapsed / 1e6),
+							elapsed / 1e3 / iterations, (double) bytes / iterations);
+				}
+			}
+		}
+	}
+
+}
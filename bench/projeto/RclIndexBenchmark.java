@@ -0,0 +1,136 @@
+package projeto;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Indexacao e consultas do {@link RclIndex} sobre um .rcl grande, feito
+ * repetindo o log de tools/ com os ciclos deslocados. Compara a construcao
+ * do indice (MB/s) com ler o log linha a linha com BufferedReader e split,
+ * e o tempo de uma consulta com o indice contra o grep pelo log inteiro.
+ *
+ * uso: RclIndexBenchmark [rcl] [copias]
+ */
+public class RclIndexBenchmark {
+	private static final String PLAYER = "BarcelonaFC_a_5";
+
+	public static void main(String[] args) throws IOException {
+		File source = new File(args.length > 0 ? args[0] : "tools/rcssserver-14.0.3-win/incomplete.rcl");
+		int copies = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+		File log = File.createTempFile("match", ".rcl");
+		File indexFile = new File(log.getPath() + ".idx");
+		log.deleteOnExit();
+		indexFile.deleteOnExit();
+		int lastCycle = synthesize(source, log, copies);
+		double mb = log.length() / 1e6;
+		System.out.printf("%.1f MB, %d cycles%n", mb, lastCycle);
+
+		for (int round = 0; round < 3; round++) {
+			long t0 = System.nanoTime();
+			int lines = RclIndex.build(log, indexFile);
+			long build = System.nanoTime() - t0;
+			t0 = System.nanoTime();
+			int grepped = grep(log, null, null, 0, Integer.MAX_VALUE);
+			long reader = System.nanoTime() - t0;
+			if (lines != grepped) {
+				throw new IllegalStateException("indexed " + lines + " lines, grep found " + grepped);
+			}
+			System.out.printf("build: %.0f MB/s (%d lines, index %d KB), BufferedReader+split: %.0f MB/s%n",
+					mb / (build / 1e9), lines, indexFile.length() / 1024, mb / (reader / 1e9));
+		}
+
+		int from = lastCycle / 2, to = from + 1000;
+		try (RclIndex index = RclIndex.open(log)) {
+			int[] hits = new int[4096];
+			int expected = grep(log, PLAYER, "kick", from, to);
+			long t0 = System.nanoTime();
+			int found = 0, queries = 1000;
+			for (int q = 0; q < queries; q++) {
+				found = index.find(PLAYER, RclIndex.Type.KICK, from, to, hits);
+			}
+			double query = (System.nanoTime() - t0) / 1e6 / queries;
+			if (found != expected) {
+				throw new IllegalStateException("index found " + found + " kicks, grep " + expected);
+			}
+
+			t0 = System.nanoTime();
+			for (int q = 0; q < queries; q++) {
+				BenchUtil.consume(index.commandsPerCycle(from, to)[0]);
+			}
+			double histogram = (System.nanoTime() - t0) / 1e6 / queries;
+
+			t0 = System.nanoTime();
+			grep(log, PLAYER, "kick", from, to);
+			double scan = (System.nanoTime() - t0) / 1e6;
+			System.out.printf("kicks of %s in [%d, %d]: %d, index %.3f ms, histogram %.3f ms, grep %.0f ms%n", PLAYER,
+					from, to, found, query, histogram, scan);
+		}
+	}
+
+	/* Copias do log com os ciclos somados ao ultimo ciclo da copia anterior */
+	private static int synthesize(File source, File log, int copies) throws IOException {
+		List<String> lines = Files.readAllLines(source.toPath(), StandardCharsets.US_ASCII);
+		int last = 0;
+		for (String line : lines) {
+			int comma = line.indexOf(',');
+			if (comma > 0) {
+				last = Math.max(last, Integer.parseInt(line.substring(0, comma)));
+			}
+		}
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(log), 1 << 16)) {
+			for (int c = 0; c < copies; c++) {
+				int shift = c * (last + 1);
+				for (String line : lines) {
+					int comma = line.indexOf(',');
+					String shifted = comma > 0 ? (Integer.parseInt(line.substring(0, comma)) + shift) + line.substring(comma)
+							: line;
+					out.write(shifted.getBytes(StandardCharsets.US_ASCII));
+					out.write('\n');
+				}
+			}
+		}
+		return copies * (last + 1) - 1;
+	}
+
+	/* O caminho sem indice: cada linha vira String e e quebrada com split */
+	private static int grep(File log, String player, String command, int from, int to) throws IOException {
+		int found = 0;
+		try (BufferedReader in = new BufferedReader(
+				new InputStreamReader(new FileInputStream(log), StandardCharsets.US_ASCII), 1 << 16)) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				String[] parts = line.split("\t");
+				if (parts.length < 2) {
+					continue;
+				}
+				int cycle = Integer.parseInt(parts[0].split(",")[0]);
+				String[] words = parts[1].split("[ :()]+");
+				boolean recv = words[0].equals("Recv");
+				if (!recv && !(words.length > 1 && words[1].equals("referee"))) {
+					continue;
+				}
+				if (cycle < from || cycle > to) {
+					continue;
+				}
+				if (player != null && !(recv && words[1].equals(player))) {
+					continue;
+				}
+				if (command != null && !(recv && words.length > 2 && words[2].equals(command))) {
+					continue;
+				}
+				found++;
+			}
+		}
+		return found;
+	}
+
+}
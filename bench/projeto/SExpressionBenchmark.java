@@ -0,0 +1,121 @@
+package projeto;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Custo de ler mensagens do protocolo com o {@link SExpressionTokenizer}
+ * sobre um buffer direto, contra decodificar para String e quebrar com
+ * split (o caminho antigo do LocalSimulator). Mede ns e bytes alocados por
+ * mensagem para um datagrama de comandos e para um see com 22 jogadores.
+ */
+public class SExpressionBenchmark {
+
+	public static void main(String[] args) {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		checkNumbers();
+
+		String commands = "(turn_neck 0)(dash 87.5)(say \"pass\")";
+		StringBuilder see = new StringBuilder("(see 1234");
+		Random rnd = new Random(17);
+		for (int i = 0; i < 30; i++) {
+			see.append(" ((f r t ").append(i).append(") ").append(rnd.nextInt(900) / 10.0).append(' ')
+					.append(rnd.nextInt(90) - 45).append(')');
+		}
+		see.append(" ((b) 12.3 -7 0.5 1.2)");
+		for (int i = 0; i < 21; i++) {
+			see.append(" ((p \"").append(i < 10 ? "Barcelona" : "Outro").append("\" ").append(i % 11 + 1)
+					.append(") ").append(rnd.nextInt(600) / 10.0).append(' ').append(rnd.nextInt(90) - 45)
+					.append(" 0.1 -0.3 45 0)");
+		}
+		see.append(')');
+
+		for (String msg : new String[] { commands, see.toString() }) {
+			ByteBuffer buf = ByteBuffer.allocateDirect(8192);
+			buf.put(msg.getBytes(StandardCharsets.US_ASCII)).flip();
+			SExpressionTokenizer tk = new SExpressionTokenizer();
+			if (Math.abs(tokenize(tk, buf) - split(buf)) > 1e-6) {
+				throw new IllegalStateException("sum mismatch");
+			}
+			for (int round = 0; round < 2; round++) {
+				long bytes0 = BenchUtil.allocatedBytes();
+				long t0 = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					BenchUtil.consume((long) tokenize(tk, buf));
+				}
+				long tokenizer = System.nanoTime() - t0;
+				long tokenizerBytes = BenchUtil.allocatedBytes() - bytes0;
+
+				bytes0 = BenchUtil.allocatedBytes();
+				t0 = System.nanoTime();
+				for (int i = 0; i < iterations; i++) {
+					BenchUtil.consume((long) split(buf));
+				}
+				long strings = System.nanoTime() - t0;
+				long stringBytes = BenchUtil.allocatedBytes() - bytes0;
+				if (round == 1) {
+					System.out.printf("%d bytes: tokenizer %.1f ns/msg %.1f B/msg, decode+split %.1f ns/msg %.1f B/msg%n",
+							msg.length(), (double) tokenizer / iterations, (double) tokenizerBytes / iterations,
+							(double) strings / iterations, (double) stringBytes / iterations);
+				}
+			}
+		}
+	}
+
+	/* Soma de todos os numeros da mensagem */
+	private static double tokenize(SExpressionTokenizer tk, ByteBuffer buf) {
+		tk.reset(buf);
+		double sum = 0;
+		int t;
+		while ((t = tk.next()) != SExpressionTokenizer.END) {
+			if (t == SExpressionTokenizer.ATOM) {
+				double v = tk.number();
+				if (!Double.isNaN(v)) {
+					sum += v;
+				}
+			}
+		}
+		return sum;
+	}
+
+	private static double split(ByteBuffer buf) {
+		String msg = StandardCharsets.US_ASCII.decode(buf.duplicate()).toString();
+		double sum = 0;
+		for (String token : msg.replace("(", " ").replace(")", " ").trim().split("\\s+")) {
+			char c = token.charAt(0);
+			if (c == '-' || c >= '0' && c <= '9') {
+				sum += Double.parseDouble(token);
+			}
+		}
+		return sum;
+	}
+
+	private static void checkNumbers() {
+		Random rnd = new Random(3);
+		ByteBuffer buf = ByteBuffer.allocate(64);
+		SExpressionTokenizer tk = new SExpressionTokenizer();
+		for (int i = 0; i < 100000; i++) {
+			String s;
+			switch (i % 3) {
+			case 0:
+				s = Integer.toString(rnd.nextInt(20000) - 10000);
+				break;
+			case 1:
+				s = Double.toString(Math.round(rnd.nextGaussian() * 1e4) / 100.0);
+				break;
+			default:
+				s = String.format("%.6f", rnd.nextGaussian() * 100).replace(',', '.');
+				break;
+			}
+			buf.clear();
+			buf.put(s.getBytes(StandardCharsets.US_ASCII)).flip();
+			tk.reset(buf);
+			tk.next();
+			if (tk.number() != Double.parseDouble(s)) {
+				throw new IllegalStateException("number mismatch: " + s + " -> " + tk.number());
+			}
+		}
+	}
+
+}
@@ -0,0 +1,120 @@
+package projeto;
+
+import java.util.Random;
+
+/**
+ * Consultas do {@link SpatialIndex} (vizinho mais proximo, raio e cone) com
+ * 22 jogadores e custo de recarregar o indice a cada ciclo. Imprime tambem os
+ * bytes alocados por operacao (devem ser 0).
+ *
+ * Referencia: uma grade de 5 m sobre o campo custava ~450 ns por consulta de
+ * vizinho mais proximo contra ~40 ns da varredura linear com 22 jogadores.
+ */
+public class SpatialIndexBenchmark {
+	private static final int PLAYERS = 11;
+
+	public static void main(String[] args) {
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		Random rnd = new Random(13);
+		double[] x = new double[PLAYERS], y = new double[PLAYERS];
+		double[] ox = new double[PLAYERS], oy = new double[PLAYERS];
+		int[] uniforms = new int[PLAYERS];
+		for (int i = 0; i < PLAYERS; i++) {
+			uniforms[i] = i + 1;
+			x[i] = rnd.nextDouble() * 105 - 52.5;
+			y[i] = rnd.nextDouble() * 68 - 34;
+			ox[i] = rnd.nextDouble() * 105 - 52.5;
+			oy[i] = rnd.nextDouble() * 68 - 34;
+		}
+		WorldModel world = WorldModel.of(0, uniforms, x, y, PLAYERS, 0, 0, uniforms, ox, oy, PLAYERS);
+		SpatialIndex index = new SpatialIndex();
+		index.load(world);
+
+		// conferencia com a varredura linear
+		double[] ax = new double[2 * PLAYERS], ay = new double[2 * PLAYERS];
+		for (int i = 0; i < 2 * PLAYERS; i++) {
+			ax[i] = index.getX(i);
+			ay[i] = index.getY(i);
+		}
+		for (int q = 0; q < 1000; q++) {
+			double px = rnd.nextDouble() * 105 - 52.5, py = rnd.nextDouble() * 68 - 34;
+			int a = index.nearest(px, py, SpatialIndex.ALL, -1);
+			int b = Geometry.nearest(px, py, ax, ay, 2 * PLAYERS, -1);
+			if (Geometry.distanceSq(px, py, ax[a], ay[a]) != Geometry.distanceSq(px, py, ax[b], ay[b])) {
+				throw new IllegalStateException("nearest mismatch at " + px + "," + py);
+			}
+			double dir = rnd.nextDouble() * 360 - 180, half = rnd.nextDouble() * 90;
+			int[] cone = new int[2 * PLAYERS];
+			int n = index.withinCone(px, py, dir, half, 30, SpatialIndex.ALL, cone);
+			int expected = 0;
+			for (int i = 0; i < 2 * PLAYERS; i++) {
+				double angle = Math.toDegrees(Math.atan2(ay[i] - py, ax[i] - px));
+				if (Geometry.distance(px, py, ax[i], ay[i]) <= 30
+						&& Math.abs(Geometry.normalizeAngle(angle - dir)) <= half) {
+					expected++;
+				}
+			}
+			if (n != expected) {
+				throw new IllegalStateException("cone mismatch: " + n + " != " + expected);
+			}
+		}
+
+		int[] out = new int[2 * PLAYERS];
+		for (int round = 0; round < 2; round++) {
+			boolean print = round == 1;
+			long bytes0 = BenchUtil.allocatedBytes();
+			long t0 = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				BenchUtil.consume(index.nearest(ax[i % 22], ay[i % 22], SpatialIndex.OPPONENTS, i % 22));
+			}
+			report(print, "nearest_index", t0, bytes0, iterations);
+
+			bytes0 = BenchUtil.allocatedBytes();
+			t0 = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				BenchUtil.consume(Geometry.nearest(ax[i % 22], ay[i % 22], ax, ay, 2 * PLAYERS, i % 22));
+			}
+			report(print, "nearest_geometry", t0, bytes0, iterations);
+
+			bytes0 = BenchUtil.allocatedBytes();
+			t0 = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				BenchUtil.consume(index.withinRadius(ax[i % 22], ay[i % 22], 10, SpatialIndex.ALL, out));
+			}
+			report(print, "radius_10m", t0, bytes0, iterations);
+
+			bytes0 = BenchUtil.allocatedBytes();
+			t0 = System.nanoTime();
+			for (int i = 0; i < iterations; i++) {
+				BenchUtil.consume(index.withinCone(ax[i % 22], ay[i % 22], i % 360, 30, 25, SpatialIndex.OPPONENTS, out));
+			}
+			report(print, "cone_25m_60deg", t0, bytes0, iterations);
+
+			int cycles = iterations / 10;
+			WorldModel[] frames = new WorldModel[64];
+			for (int f = 0; f < frames.length; f++) {
+				double[] fx = x.clone(), fy = y.clone(), fox = ox.clone(), foy = oy.clone();
+				for (int i = 0; i < PLAYERS; i++) {
+					fx[i] += f * 0.5;
+					fox[i] -= f * 0.5;
+				}
+				frames[f] = WorldModel.of(f, uniforms, fx, fy, PLAYERS, 0, 0, uniforms, fox, foy, PLAYERS);
+			}
+			bytes0 = BenchUtil.allocatedBytes();
+			t0 = System.nanoTime();
+			for (int c = 0; c < cycles; c++) {
+				index.load(frames[c & 63]);
+			}
+			report(print, "load", t0, bytes0, cycles);
+		}
+	}
+
+	private static void report(boolean print, String name, long t0, long bytes0, int ops) {
+		long elapsed = System.nanoTime() - t0;
+		long bytes = BenchUtil.allocatedBytes() - bytes0;
+		if (print) {
+			System.out.printf("%s: %.1f ns/op %.2f bytes/op%n", name, (double) elapsed / ops, (double) bytes / ops);
+		}
+	}
+
+}
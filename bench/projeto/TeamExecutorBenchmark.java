@@ -0,0 +1,76 @@
+package projeto;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mede o custo de hospedar varios times no mesmo processo, em cada modo de
+ * execucao: threads vivas, uso de CPU e latencia do ciclo (chegada da
+ * percepcao ate o fim da decisao).
+ *
+ * Precisa de um servidor rodando na porta padrao. Os times sao adicionados
+ * aos poucos (1, 2, 4, ... ate o maximo) e cada patamar e medido por alguns
+ * segundos.
+ *
+ * uso: TeamExecutorBenchmark [thread|eventloop|dispatcher] [maxTimes] [segundosPorPatamar]
+ */
+public class TeamExecutorBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		ExecutionMode mode = ExecutionMode.THREAD_PER_PLAYER;
+		if (args.length > 0 && args[0].equalsIgnoreCase("eventloop")) {
+			mode = ExecutionMode.EVENT_LOOP;
+		} else if (args.length > 0 && args[0].equalsIgnoreCase("dispatcher")) {
+			mode = ExecutionMode.TEAM_DISPATCHER;
+		}
+		int maxTeams = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+		List<BarcelonaFC> teams = new ArrayList<BarcelonaFC>();
+
+		System.out.printf("mode=%s cpus=%d%n", mode, os.getAvailableProcessors());
+		System.out.println("teams,threads,cpu_percent,latency_mean_ms,latency_max_ms,skipped_cycles");
+		for (int target = 1; target <= maxTeams; target *= 2) {
+			while (teams.size() < target) {
+				BarcelonaFC team = new BarcelonaFC("b" + teams.size(), mode);
+				team.launchTeam();
+				teams.add(team);
+			}
+
+			long cpuBefore = processCpuNanos(os);
+			long wallBefore = System.nanoTime();
+			Thread.sleep(seconds * 1000L);
+			long cpu = processCpuNanos(os) - cpuBefore;
+			long wall = System.nanoTime() - wallBefore;
+
+			double latencySum = 0, latencyMax = 0;
+			long skipped = 0;
+			int players = 0;
+			for (BarcelonaFC team : teams) {
+				for (BarcelonaPlayer p : team.getPlayers()) {
+					CycleSynchronizer sync = p.getCycleSynchronizer();
+					latencySum += sync.getMeanLatencyMillis();
+					latencyMax = Math.max(latencyMax, sync.getMaxLatencyMillis());
+					skipped += sync.getSkippedCycles();
+					players++;
+				}
+			}
+			System.out.printf("%d,%d,%.1f,%.3f,%.3f,%d%n", teams.size(), threads.getThreadCount(),
+					100.0 * cpu / wall, players == 0 ? 0 : latencySum / players, latencyMax, skipped);
+		}
+		System.exit(0);
+	}
+
+	private static long processCpuNanos(OperatingSystemMXBean os) {
+		if (os instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+		}
+		return 0;
+	}
+
+}
@@ -0,0 +1,58 @@
+package projeto;
+
+import java.util.Random;
+
+/**
+ * Tempo de montagem e tamanho do {@link WorldModel} para times de 7 e 11
+ * jogadores, comparado com cada jogador refazendo as mesmas consultas
+ * (mais perto da bola, companheiro mais proximo) por conta propria.
+ */
+public class WorldModelBenchmark {
+
+	public static void main(String[] args) {
+		int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		System.out.println("players,build_ns,footprint_bytes,per_player_queries_ns");
+		for (int players : new int[] { 7, 11 }) {
+			measure(players, cycles / 10, false); // aquecimento
+			measure(players, cycles, true);
+		}
+	}
+
+	private static void measure(int players, int cycles, boolean print) {
+		Random rnd = new Random(7);
+		int[] uniforms = new int[players];
+		double[] x = new double[players];
+		double[] y = new double[players];
+		for (int i = 0; i < players; i++) {
+			uniforms[i] = i + 1;
+			x[i] = rnd.nextDouble() * 105 - 52.5;
+			y[i] = rnd.nextDouble() * 68 - 34;
+		}
+
+		long t0 = System.nanoTime();
+		WorldModel last = null;
+		for (int c = 0; c < cycles; c++) {
+			last = WorldModel.of(c, uniforms, x, y, players, c % 50, 0);
+			BenchUtil.consume(last.getBallClosest());
+		}
+		long build = System.nanoTime() - t0;
+
+		// o que cada jogador fazia antes: as consultas de todos, refeitas por cada um
+		t0 = System.nanoTime();
+		for (int c = 0; c < cycles; c++) {
+			for (int me = 0; me < players; me++) {
+				double min = Geometry.minDistance(c % 50, 0, x, y, players);
+				BenchUtil.consume(min);
+				BenchUtil.consume(Geometry.nearest(x[me], y[me], x, y, players, me));
+			}
+		}
+		long naive = System.nanoTime() - t0;
+
+		if (!print) {
+			return;
+		}
+		System.out.printf("%d,%.1f,%d,%.1f%n", players, (double) build / cycles, last.footprintBytes(),
+				(double) naive / cycles);
+	}
+
+}
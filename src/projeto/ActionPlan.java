@@ -0,0 +1,162 @@
+package projeto;
+
+import simple_soccer_lib.utils.EMatchState;
+import simple_soccer_lib.utils.Vector2D;
+
+/**
+ * Sequencia curta de acoes de um jogador (ex.: virar -> esperar N ciclos ->
+ * chutar), avancada um passo por ciclo pelo loop de decisao.
+ *
+ * Substitui os Thread.sleep entre o giro e o chute: enquanto o plano anda o
+ * agente continua recebendo percepcoes, e o plano e abortado se ficar
+ * obsoleto (a bola saiu do alcance antes do chute ou o estado da partida
+ * mudou).
+ *
+ * Os passos ficam num anel de tamanho fixo, reaproveitado de um plano para
+ * o outro: montar e avancar um plano nao aloca nada.
+ */
+public class ActionPlan {
+	private enum Kind {
+		TURN_TO, WAIT, KICK, KICK_TO_POINT
+	};
+
+	private static final int MAX_STEPS = 8;
+
+	private static class Step {
+		Kind kind;
+		double power, direction;
+		Vector2D point;
+		int cycles;
+	}
+
+	private final CommandFilter commands;
+	private final Step[] steps = new Step[MAX_STEPS];
+	private int head, size;
+	private EMatchState matchState;
+	private boolean fresh;
+
+	private long completed;
+	private long aborted;
+
+	public ActionPlan(CommandFilter commands) {
+		this.commands = commands;
+		for (int i = 0; i < MAX_STEPS; i++) {
+			steps[i] = new Step();
+		}
+	}
+
+	/** Descarta o plano atual e comeca um novo, valido enquanto a partida estiver no estado dado. */
+	public ActionPlan start(EMatchState state) {
+		size = 0;
+		matchState = state;
+		fresh = true;
+		return this;
+	}
+
+	public ActionPlan turnTo(Vector2D point) {
+		return add(Kind.TURN_TO, 0, 0, point, 0);
+	}
+
+	public ActionPlan waitCycles(int cycles) {
+		return add(Kind.WAIT, 0, 0, null, cycles);
+	}
+
+	public ActionPlan kick(double power, double direction) {
+		return add(Kind.KICK, power, direction, null, 0);
+	}
+
+	public ActionPlan kickToPoint(double power, Vector2D point) {
+		return add(Kind.KICK_TO_POINT, power, 0, point, 0);
+	}
+
+	private ActionPlan add(Kind kind, double power, double direction, Vector2D point, int cycles) {
+		if (size == MAX_STEPS) {
+			throw new IllegalStateException("plan with more than " + MAX_STEPS + " steps");
+		}
+		Step step = steps[(head + size++) % MAX_STEPS];
+		step.kind = kind;
+		step.power = power;
+		step.direction = direction;
+		step.point = point;
+		step.cycles = cycles;
+		return this;
+	}
+
+	public boolean isActive() {
+		return size > 0;
+	}
+
+	/** Plano criado neste ciclo e que ainda nao executou nenhum passo. */
+	public boolean isFresh() {
+		return fresh && size > 0;
+	}
+
+	/** O plano ficou obsoleto se a partida mudou de estado ou se ainda falta chutar e a bola saiu do alcance. */
+	public boolean isStale(EMatchState current, boolean ballKickable) {
+		if (current != matchState) {
+			return true;
+		}
+		if (!ballKickable) {
+			for (int i = 0; i < size; i++) {
+				Kind kind = steps[(head + i) % MAX_STEPS].kind;
+				if (kind == Kind.KICK || kind == Kind.KICK_TO_POINT) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/** Executa o passo do ciclo atual. */
+	public void advance() {
+		fresh = false;
+		if (size == 0) {
+			return;
+		}
+		Step step = steps[head];
+		switch (step.kind) {
+		case WAIT:
+			if (--step.cycles > 0) {
+				return;
+			}
+			break;
+		case TURN_TO:
+			commands.doTurnToPointBlocking(step.point);
+			break;
+		case KICK:
+			commands.doKickBlocking(step.power, step.direction);
+			break;
+		case KICK_TO_POINT:
+			commands.doKickToPointBlocking(step.power, step.point);
+			break;
+		default:
+			break;
+		}
+		step.point = null;
+		head = (head + 1) % MAX_STEPS;
+		if (--size == 0) {
+			completed++;
+		}
+	}
+
+	public void abort() {
+		if (size > 0) {
+			size = 0;
+			aborted++;
+		}
+	}
+
+	public long getCompleted() {
+		return completed;
+	}
+
+	public long getAborted() {
+		return aborted;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("plans completed=%d aborted=%d", completed, aborted);
+	}
+
+}
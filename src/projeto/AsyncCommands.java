@@ -0,0 +1,217 @@
+package projeto;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import simple_soccer_lib.utils.Vector2D;
+
+/**
+ * {@link BodyCommands} que nao bloqueia quem decide: cada comando e entregue
+ * a um thread proprio do jogador, que faz a chamada bloqueante da biblioteca,
+ * e o resultado volta num CompletableFuture.
+ *
+ * O servidor executa um comando de corpo por ciclo, entao ha no maximo um
+ * comando na fila: um comando novo enviado enquanto o anterior ainda espera
+ * o substitui, e o futuro do anterior termina com false. O futuro de um
+ * comando enviado termina com true quando a chamada bloqueante retorna (o
+ * servidor ja executou o comando); o tempo desde o envio, espera na fila
+ * incluida, e gravado como latencia de confirmacao nas {@link PlayerMetrics}.
+ *
+ * Ativado com -Dcommands.async=true no modo {@link ExecutionMode#THREAD_PER_PLAYER}; os modos com pool
+ * mandam os comandos sem bloquear, sem este thread por jogador.
+ */
+public class AsyncCommands implements BodyCommands {
+	private enum Kind {
+		DASH, TURN_TO_DIRECTION, TURN_TO_POINT, KICK, KICK_TO_POINT, MOVE, CATCH
+	};
+
+	private static final class Command {
+		final Kind kind;
+		final double arg1, arg2, arg3;
+		final long submittedAt = System.nanoTime();
+		final CompletableFuture<Boolean> done = new CompletableFuture<Boolean>();
+
+		Command(Kind kind, double arg1, double arg2, double arg3) {
+			this.kind = kind;
+			this.arg1 = arg1;
+			this.arg2 = arg2;
+			this.arg3 = arg3;
+		}
+	}
+
+	private static final AtomicInteger senders = new AtomicInteger();
+
+	private final BodyCommands target;
+	private final Object lock = new Object();
+	private Command next;
+	private volatile PlayerMetrics metrics;
+
+	private long submitted;
+	private long superseded;
+	private long failed;
+
+	public AsyncCommands(BodyCommands target) {
+		this.target = target;
+		Thread sender = new Thread(this::sendLoop, "player-commands-" + senders.incrementAndGet());
+		sender.setDaemon(true);
+		sender.start();
+	}
+
+	public CompletableFuture<Boolean> dash(double power) {
+		return submit(new Command(Kind.DASH, power, 0, 0));
+	}
+
+	public CompletableFuture<Boolean> turnToDirection(Vector2D direction) {
+		return submit(new Command(Kind.TURN_TO_DIRECTION, direction.getX(), direction.getY(), 0));
+	}
+
+	public CompletableFuture<Boolean> turnToPoint(Vector2D point) {
+		return submit(new Command(Kind.TURN_TO_POINT, point.getX(), point.getY(), 0));
+	}
+
+	public CompletableFuture<Boolean> kick(double power, double direction) {
+		return submit(new Command(Kind.KICK, power, direction, 0));
+	}
+
+	public CompletableFuture<Boolean> kickToPoint(double power, Vector2D point) {
+		return submit(new Command(Kind.KICK_TO_POINT, power, point.getX(), point.getY()));
+	}
+
+	public CompletableFuture<Boolean> move(double x, double y) {
+		return submit(new Command(Kind.MOVE, x, y, 0));
+	}
+
+	public CompletableFuture<Boolean> catchBall(double direction) {
+		return submit(new Command(Kind.CATCH, direction, 0, 0));
+	}
+
+	private CompletableFuture<Boolean> submit(Command command) {
+		Command replaced;
+		synchronized (lock) {
+			replaced = next;
+			next = command;
+			submitted++;
+			if (replaced != null) {
+				superseded++;
+			}
+			lock.notify();
+		}
+		if (replaced != null) {
+			replaced.done.complete(false);
+		}
+		return command.done;
+	}
+
+	private void sendLoop() {
+		while (true) {
+			Command c;
+			synchronized (lock) {
+				while (next == null) {
+					try {
+						lock.wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				c = next;
+				next = null;
+			}
+			try {
+				execute(c);
+			} catch (RuntimeException e) {
+				synchronized (lock) {
+					failed++;
+				}
+				c.done.completeExceptionally(e);
+				continue;
+			}
+			PlayerMetrics m = metrics;
+			if (m != null) {
+				m.acknowledged(System.nanoTime() - c.submittedAt);
+			}
+			c.done.complete(true);
+		}
+	}
+
+	private void execute(Command c) {
+		switch (c.kind) {
+		case DASH:
+			target.doDashBlocking(c.arg1);
+			break;
+		case TURN_TO_DIRECTION:
+			target.doTurnToDirectionBlocking(new Vector2D(c.arg1, c.arg2));
+			break;
+		case TURN_TO_POINT:
+			target.doTurnToPointBlocking(new Vector2D(c.arg1, c.arg2));
+			break;
+		case KICK:
+			target.doKickBlocking(c.arg1, c.arg2);
+			break;
+		case KICK_TO_POINT:
+			target.doKickToPointBlocking(c.arg1, new Vector2D(c.arg2, c.arg3));
+			break;
+		case MOVE:
+			target.doMoveBlocking(c.arg1, c.arg2);
+			break;
+		case CATCH:
+			target.doCatchBlocking(c.arg1);
+			break;
+		}
+	}
+
+	/** Passa a gravar a latencia de confirmacao (gravada so pelo thread de envio). */
+	public void setMetrics(PlayerMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/* BodyCommands: os do*Blocking so enfileiram */
+
+	@Override
+	public void doDashBlocking(double power) {
+		dash(power);
+	}
+
+	@Override
+	public void doTurnToDirectionBlocking(Vector2D direction) {
+		turnToDirection(direction);
+	}
+
+	@Override
+	public void doTurnToPointBlocking(Vector2D point) {
+		turnToPoint(point);
+	}
+
+	@Override
+	public boolean doKick(double power, double direction) {
+		kick(power, direction);
+		return true;
+	}
+
+	@Override
+	public void doKickBlocking(double power, double direction) {
+		kick(power, direction);
+	}
+
+	@Override
+	public void doKickToPointBlocking(double power, Vector2D point) {
+		kickToPoint(power, point);
+	}
+
+	@Override
+	public void doMoveBlocking(double x, double y) {
+		move(x, y);
+	}
+
+	@Override
+	public void doCatchBlocking(double direction) {
+		catchBall(direction);
+	}
+
+	@Override
+	public String toString() {
+		synchronized (lock) {
+			return String.format("async submitted=%d superseded=%d failed=%d", submitted, superseded, failed);
+		}
+	}
+
+}
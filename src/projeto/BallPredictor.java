@@ -0,0 +1,159 @@
+package projeto;
+
+/**
+ * Previsao do movimento da bola com o modelo do servidor: a cada ciclo a
+ * bola anda a sua velocidade e a velocidade e multiplicada por ball_decay.
+ *
+ * As somas de decay^i e o alcance maximo de um jogador partindo parado sao
+ * tabelados uma vez, entao a posicao da bola daqui a k ciclos e O(1) e o
+ * primeiro ciclo em que o jogador alcanca a bola e O(log n).
+ *
+ * A velocidade e estimada pela diferenca entre as posicoes de dois ciclos
+ * seguidos, ja que a percepcao da biblioteca so traz a posicao.
+ */
+public class BallPredictor {
+	public static final int HORIZON = 60;
+
+	private final double ballDecay;
+	private final double ballSpeedMax;
+	private final double playerSpeedMax;
+	private final double kickableArea;
+	private final double[] travel = new double[HORIZON + 1]; // soma de decay^i, i < k
+	private final double[] reach = new double[HORIZON + 1]; // distancia maxima do jogador em k ciclos
+
+	private double x, y, vx, vy;
+	private double prevX, prevY;
+	private boolean hasPrevious;
+
+	public BallPredictor(ServerParams params) {
+		ballDecay = params.getDouble("ball_decay", 0.94);
+		ballSpeedMax = params.getDouble("ball_speed_max", 3.0);
+		playerSpeedMax = params.getDouble("player_speed_max", 1.05);
+		kickableArea = params.getDouble("kickable_margin", 0.7) + params.getDouble("player_size", 0.3)
+				+ params.getDouble("ball_size", 0.085);
+
+		double playerDecay = params.getDouble("player_decay", 0.4);
+		double accel = params.getDouble("dash_power_rate", 0.006) * 100;
+		double sum = 0, pos = 0, speed = 0;
+		for (int k = 0; k <= HORIZON; k++) {
+			travel[k] = sum;
+			reach[k] = pos;
+			sum += Math.pow(ballDecay, k);
+			speed = Math.min(playerSpeedMax, speed + accel);
+			pos += speed;
+			speed *= playerDecay;
+		}
+	}
+
+	/** Chamado uma vez por ciclo com a posicao percebida da bola. */
+	public void observe(double bx, double by) {
+		if (hasPrevious) {
+			set(bx, by, (bx - prevX) * ballDecay, (by - prevY) * ballDecay);
+		} else {
+			set(bx, by, 0, 0);
+		}
+		prevX = bx;
+		prevY = by;
+		hasPrevious = true;
+	}
+
+	/** Estado conhecido da bola (benchmarks e replay). */
+	public void set(double bx, double by, double bvx, double bvy) {
+		double speed = Math.sqrt(bvx * bvx + bvy * bvy);
+		if (speed > ballSpeedMax) {
+			bvx *= ballSpeedMax / speed;
+			bvy *= ballSpeedMax / speed;
+		}
+		x = bx;
+		y = by;
+		vx = bvx;
+		vy = bvy;
+	}
+
+	/** Esquece a velocidade, ex.: depois de uma bola parada. */
+	public void reset() {
+		hasPrevious = false;
+		vx = vy = 0;
+	}
+
+	public double getX(int cycles) {
+		return x + vx * travel[Math.min(cycles, HORIZON)];
+	}
+
+	public double getY(int cycles) {
+		return y + vy * travel[Math.min(cycles, HORIZON)];
+	}
+
+	public double getVelocityX() {
+		return vx;
+	}
+
+	public double getVelocityY() {
+		return vy;
+	}
+
+	/**
+	 * Primeiro ciclo em que um jogador parado em (px, py) consegue chegar a
+	 * bola correndo em linha reta, ou -1 se nao chega dentro de HORIZON.
+	 *
+	 * Enquanto a bola e mais rapida que o jogador a distancia pode oscilar,
+	 * entao esses primeiros ciclos sao varridos; depois dai a folga
+	 * alcance - distancia so cresce e a busca e binaria.
+	 */
+	public int interceptCycle(double px, double py) {
+		int fast = fastCycles();
+		for (int k = 0; k < fast; k++) {
+			if (canReach(px, py, k)) {
+				return k;
+			}
+		}
+		if (!canReach(px, py, HORIZON)) {
+			return -1;
+		}
+		int lo = fast, hi = HORIZON;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (canReach(px, py, mid)) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
+	/*
+	 * Ciclos ate a bola andar por ciclo menos que o jogador ganha de alcance
+	 * (o jogador parte parado, entao isso vale mesmo com a bola lenta)
+	 */
+	private int fastCycles() {
+		double speed = Math.sqrt(vx * vx + vy * vy);
+		int k = 0;
+		while (k < HORIZON && speed * (travel[k + 1] - travel[k]) > reach[k + 1] - reach[k]) {
+			k++;
+		}
+		return k;
+	}
+
+	/** Soma de decay^i para i < k: deslocamento da bola em k ciclos por unidade de velocidade. */
+	double travel(int k) {
+		return travel[Math.min(k, HORIZON)];
+	}
+
+	/** Distancia maxima que um jogador parado percorre em k ciclos. */
+	double reach(int k) {
+		return reach[Math.min(k, HORIZON)];
+	}
+
+	double getKickableArea() {
+		return kickableArea;
+	}
+
+	/** Se o jogador em (px, py) alcanca a bola em k ciclos. */
+	boolean canReach(double px, double py, int k) {
+		double dx = getX(k) - px, dy = getY(k) - py;
+		double r = reach[k] + kickableArea;
+		return dx * dx + dy * dy <= r * r;
+	}
+
+}
@@ -1,29 +1,61 @@
 package projeto;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import simple_soccer_lib.AbstractTeam;
 import simple_soccer_lib.PlayerCommander;
 
 
 public class BarcelonaFC extends AbstractTeam {
+	private final String name;
+	private final ExecutionMode mode;
+	private final Formation formation;
+	private final List<BarcelonaPlayer> players = new CopyOnWriteArrayList<BarcelonaPlayer>();
+	private final WorldModelPublisher worldModels = new WorldModelPublisher();
+	private TeamDispatcher dispatcher;
 
 	public BarcelonaFC(String suffix) {
-		super("BarcelonaFC_" + suffix, 7, true);
+		this(suffix, ExecutionMode.THREAD_PER_PLAYER);
+	}
+
+	public BarcelonaFC(String suffix, ExecutionMode mode) {
+		this(suffix, mode, Formation.get());
+	}
+
+	BarcelonaFC(String suffix, ExecutionMode mode, Formation formation) {
+		super("BarcelonaFC_" + suffix, formation.size(), true);
+		this.name = "BarcelonaFC_" + suffix;
+		this.mode = mode;
+		this.formation = formation;
 	}
 
 	@Override
 	protected void launchPlayer(int ag, PlayerCommander commander) {
-		double targetX, targetY;
-		
-		if (ag == 0) {
-			targetY = 34.0d / 2; //posio que aparece mais baixa no monitor
+		BarcelonaPlayer pl = new BarcelonaPlayer(commander, formation, worldModels, mode);
+		players.add(pl);
+		if (mode == ExecutionMode.EVENT_LOOP) {
+			TeamExecutor.shared().submit(pl);
+		} else if (mode == ExecutionMode.TEAM_DISPATCHER) {
+			dispatcher().add(pl);
 		} else {
-			targetY = -34.0d / 2;  //posio mais alta
+			new Thread(pl, "BarcelonaPlayer-" + ag).start();
+		}
+	}
+
+	private synchronized TeamDispatcher dispatcher() {
+		if (dispatcher == null) {
+			dispatcher = new TeamDispatcher(name);
 		}
-		
-		targetX = 52.5d / 2;
-		
-		BarcelonaPlayer pl = new BarcelonaPlayer(commander, targetX, targetY);
-		pl.start();
+		return dispatcher;
+	}
+
+	public List<BarcelonaPlayer> getPlayers() {
+		return players;
+	}
+
+	public WorldModelPublisher getWorldModels() {
+		return worldModels;
 	}
 
 }
@@ -1,152 +1,490 @@
 package projeto;
 
-import java.awt.Rectangle;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.EnumMap;
 
 import simple_soccer_lib.PlayerCommander;
-import simple_soccer_lib.perception.FieldPerception;
-import simple_soccer_lib.perception.MatchPerception;
 import simple_soccer_lib.perception.PlayerPerception;
 import simple_soccer_lib.utils.EFieldSide;
 import simple_soccer_lib.utils.EMatchState;
 import simple_soccer_lib.utils.Vector2D;
 
-public class BarcelonaPlayer extends Thread {
+public class BarcelonaPlayer implements Runnable {
 	private static final double ERROR_RADIUS = 2.0d;
 	private static final double KICK_RADIUS = 0.6d;
-	private static final double KICK_FACTOR = 4.5d;
+	private static final double DRIBBLE_DISTANCE = 15.0d; // conduzir: a bola para uns 15 m a frente
+	private static final double DRIBBLE_END_SPEED = 0.2d;
+	private static final double TWO_KICK_GAIN = 0.35d; // dois chutes so se a bola sair bem mais rapida
+	private static final long STARTUP_WAIT = 5000; // espera, para dar tempo de ver as mensagens iniciais
+	private static final int PRE_KICK_WAIT_CYCLES = 1; // o giro so aparece na percepcao do ciclo seguinte
+	private static final int POST_PASS_WAIT_CYCLES = 10; // deixa a bola sair antes de voltar a persegui-la
+	static final boolean ASYNC_COMMANDS = Boolean.getBoolean("commands.async");
+	private static final boolean DEBUG = false; // liga o _printf
 	
 	private static enum EstrategiaTime {ATAQUE, DEFESA};
 	
-	private enum State {
+	enum State {
 		ATTACKING, RETURN_TO_HOME, FOLLOW, PASSING_BALL
 	};
 
+	private static final double ALIGN_TOLERANCE = 15.0d;
+	private static final Vector2D FIELD_CENTER = new Vector2D(0, 0);
+	private static final double CATCHABLE_AREA = ServerParams.get().getDouble("catchable_area_l", 1.2);
+	private static final int CATCH_BAN_CYCLES = ServerParams.get().getInt("catch_ban_cycle", 5);
+	private static final double GOALIE_TOLERANCE = 0.5d;
+
 	private PlayerCommander commander;
+	private CycleSynchronizer cycleSync;
+	private CommandFilter commands;
+	private ActionPlan plan;
 	private State state;
-
-	private PlayerPerception selfPerception;
-	private FieldPerception fieldPerception;
-	private MatchPerception matchPerception;
+	private Role role;
+	private EnumMap<EMatchState, Role.Action> actions;
+	private PlayerMetrics metrics;
+	private MatchRecorder recorder;
+
+	private PerceptionExchange perceptions;
+	private WorldModelPublisher worldModels;
+	private final PlayerView view = new PlayerView();
 	 
-	private Vector2D playerDeafaultPosition;
+	private final Formation formation;
+	private Vector2D playerDeafaultPosition = new Vector2D(0, 0);
+	private double xInit, yInit;
+	private final Vector2D moveFrom = new Vector2D(0, 0);
+	private int area; // FieldZones em que o jogador sai na bola
+	private Vector2D golPosition;
+	private Vector2D followTarget = new Vector2D(0, 0);
+	private final BallPredictor ballPredictor = new BallPredictor(ServerParams.get());
+	private EMatchState lastMatchState;
+	private final Vector2D interceptTarget = new Vector2D(0, 0);
+	private final PassEvaluator passEvaluator = new PassEvaluator();
+	private double passPower; // forca do chute do ultimo bestPass()
+	/* Alvos reaproveitados a cada ciclo; um plano guarda o ponto, mas so ate o proximo plano ser montado */
+	private final Vector2D passTarget = new Vector2D(0, 0);
+	private final Vector2D closerPlayer = new Vector2D(0, 0);
+	private final Vector2D frontPosition = new Vector2D(0, 0);
+	private final KickModel kickModel = KickModel.get();
+	private GoaliePolicy goaliePolicy;
+	private final Vector2D goalieTarget = new Vector2D(0, 0);
+	private int catchBan; // ciclos ate poder segurar a bola de novo
+
+	private boolean started;
+	private long startupCycles;
+	private long startupDeadline;
+
+	public BarcelonaPlayer(PlayerCommander player, Formation formation, WorldModelPublisher worldModels) {
+		this(player, formation, worldModels, ExecutionMode.THREAD_PER_PLAYER);
+	}
+
+	BarcelonaPlayer(PlayerCommander player, Formation formation, WorldModelPublisher worldModels,
+			ExecutionMode mode) {
+		this(player, commandsFor(player, mode), formation, worldModels);
+		recorder = MatchRecorder.get();
+	}
+
+	/*
+	 * Nos modos com pool um do*Blocking prenderia uma thread do pool por um ciclo inteiro: os comandos so sao
+	 * enviados, sem thread por jogador. Com um thread por jogador, -Dcommands.async=true tira a espera do
+	 * thread de decisao com um AsyncCommands.
+	 */
+	static BodyCommands commandsFor(PlayerCommander player, ExecutionMode mode) {
+		if (mode != ExecutionMode.THREAD_PER_PLAYER) {
+			return new LibraryCommands(player, false);
+		}
+		return ASYNC_COMMANDS ? new AsyncCommands(new LibraryCommands(player)) : new LibraryCommands(player);
+	}
 
-	public BarcelonaPlayer(PlayerCommander player, double x, double y) {
+	/* Jogador sem servidor, alimentado por getView() e decideCycle(): benchmarks e replay */
+	BarcelonaPlayer(BodyCommands target, Formation formation) {
+		this(null, target, formation, null);
+		startupCycles = 0;
+	}
+
+	private BarcelonaPlayer(PlayerCommander player, BodyCommands target, Formation formation,
+			WorldModelPublisher worldModels) {
 		commander = player;
-		playerDeafaultPosition = new Vector2D(x, y);
+		this.formation = formation;
+		this.worldModels = worldModels;
+		cycleSync = new CycleSynchronizer(player, ServerParams.get().simulatorStep());
+		perceptions = new PerceptionExchange(player, cycleSync, ServerParams.get().simulatorStep());
+		commands = new CommandFilter(target, cycleSync);
+		plan = new ActionPlan(commands);
+		startupCycles = STARTUP_WAIT / ServerParams.get().simulatorStep(); // contado em ciclos, vale tambem no simulador local
 	}
 
 	@Override
 	public void run() {
 		_printf("Waiting initial perceptions...");
-		selfPerception = commander.perceiveSelfBlocking();
-		fieldPerception = commander.perceiveFieldBlocking();
-		matchPerception = commander.perceiveMatchBlocking();
-		
-		state = State.RETURN_TO_HOME;		
-		
-		switch (selfPerception.getUniformNumber()) {
-		case 1:
-			stegen();
-			break;
-		case 2:
-			pique();
-			break;
-		case 3:
-			coutinho();
-			break;
-		case 4:
-			busquets();
-			break;
-		case 5:
-			suarez();
-			break;
-		case 6:
-		case 7:
-			messi();
-		default:
-			break;
+		perceptions.publish(0, commander.perceiveSelfBlocking(), commander.perceiveFieldBlocking(),
+				cycleSync.observeMatch(commander.perceiveMatchBlocking()));
+		loadView(perceptions.read());
+		startRole();
+
+		while (commander.isActive()) {
+			updatePerceptions(); // deixar aqui, no comeo do loop, para ler o resultado do 'move'
+			decide();
 		}
+		finish();
 	}
 
-	
-	private void updatePerceptions() {
-		PlayerPerception newSelf = commander.perceiveSelf();
-		FieldPerception newField = commander.perceiveField();
-		MatchPerception newMatch = commander.perceiveMatch();
+	/*
+	 * Versao nao bloqueante do run(), chamada repetidamente pelo TeamExecutor: executa no maximo uma
+	 * decisao por chamada e retorna false quando o jogador terminou.
+	 */
+	boolean step() {
+		if (!isActive()) {
+			finish();
+			return false;
+		}
+		if (pollCycle()) {
+			decideOn();
+		}
+		return true;
+	}
 
-		if (newSelf != null) {
-			this.selfPerception = newSelf;
+	boolean isActive() {
+		return commander.isActive();
+	}
+
+	/* Fim do jogador: estatisticas e a linha final das metricas */
+	void finish() {
+		if (started) {
+			printStats();
+			MetricsExporter exporter = MetricsExporter.get();
+			if (commander != null && exporter != null) {
+				exporter.finished(metrics);
+			}
 		}
-		if (newField != null) {
-			this.fieldPerception = newField;
+	}
+
+	/*
+	 * Parte de I/O do step(), usada sozinha pelo TeamDispatcher: junta as percepcoes iniciais e depois
+	 * publica o snapshot de cada ciclo novo. Retorna true se ha um ciclo novo para decidir.
+	 */
+	boolean pollCycle() {
+		if (!started) {
+			PerceptionSnapshot s = perceptions.publish(0, commander.perceiveSelf(), commander.perceiveField(),
+					cycleSync.observeMatch(commander.perceiveMatch()));
+			if (s.getSelf() != null && s.getField() != null && s.getMatch() != null) {
+				loadView(s);
+				startRole();
+			}
+			return false;
 		}
-		if (newMatch != null) {
-			this.matchPerception = newMatch;
+		PlayerPerception newSelf = cycleSync.pollNextCycle();
+		if (newSelf == null) {
+			return false;
 		}
+		perceptions.publish(cycleSync.getCycles(), newSelf);
+		return true;
+	}
+
+	/* Decisao do step() sobre o ultimo snapshot publicado por pollCycle() */
+	void decideOn() {
+		loadView(perceptions.read());
+		decide();
+	}
+
+	CycleSynchronizer getCycleSynchronizer() {
+		return cycleSync;
+	}
+
+	PlayerView getView() {
+		return view;
+	}
+
+	CommandFilter getCommands() {
+		return commands;
+	}
+
+	State getState() {
+		return state;
+	}
+
+	Role getRole() {
+		return role;
+	}
+
+	PlayerMetrics getMetrics() {
+		return metrics;
+	}
+
+	long getCycles() {
+		return cycleSync.getCycles();
+	}
+
+	/* Gravacao sem servidor (benchmarks) */
+	void setRecorder(MatchRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/* Descarta o plano em andamento e forca o estado (benchmarks e replay) */
+	void resetDecision(State newState) {
+		plan.abort();
+		state = newState;
+	}
+
+	/* Um ciclo de decisao sobre o que estiver em getView() */
+	void decideCycle() {
+		cycleSync.markCycle();
+		decide();
 	}
-	
-	private PlayerPerception getCloserPlayer() {
 
-		Vector2D selfPosition = selfPerception.getPosition();
-		ArrayList<PlayerPerception> teamPlayers = fieldPerception.getTeamPlayers(selfPerception.getSide());
+	void startRole() {
+		state = State.RETURN_TO_HOME;
+		golPosition = new Vector2D(50 * view.getSide().value(), 0);
+		metrics = new PlayerMetrics(view.getTeam() + "/" + view.getUniformNumber());
+		commands.setMetrics(metrics);
+		MetricsExporter exporter = MetricsExporter.get();
+		if (commander != null && exporter != null) {
+			exporter.register(metrics);
+		}
+		startupDeadline = cycleSync.getCycles() + startupCycles;
+
+		int unum = view.getUniformNumber();
+		role = formation.getRole(unum);
+		actions = role.table(view.getSide());
+		xInit = formation.getKickOffX(unum);
+		yInit = formation.getKickOffY(unum);
+		updateHome();
+		role.getSetup().execute(this);
+		if (role.isGoalie()) {
+			startupDeadline = 0; // o goleiro se posiciona imediatamente
+		}
+		started = true;
+	}
 
-		teamPlayers.remove(selfPerception);
+	/* Uma decisao do papel do jogador para o ciclo atual */
+	private void decide() {
+		EMatchState matchState = view.getMatchState();
+		if (matchState != EMatchState.PLAY_ON || matchState != lastMatchState) {
+			ballPredictor.reset(); // bola parada ou reposta: nao ha velocidade a estimar
+		}
+		lastMatchState = matchState;
+		ballPredictor.observe(view.getBallPosition().getX(), view.getBallPosition().getY());
+		if (cycleSync.getCycles() < startupDeadline) {
+			return;
+		}
+		decideObserved();
+	}
 
-		int closerPlayerIndex = -1;
-		double closerDistance = Double.MAX_VALUE;
-		for (int i = 0; i < teamPlayers.size(); i++) {
-			double d = selfPosition.distanceTo(teamPlayers.get(i).getPosition());
-			if (d < closerDistance) {
-				closerPlayerIndex = i;
-				closerDistance = d;
+	/*
+	 * Um ciclo de replay: a velocidade da bola estimada pelo jogador na partida vem da gravacao, ja que
+	 * as percepcoes do periodo de inicializacao nao sao gravadas
+	 */
+	void replayCycle(double ballVx, double ballVy) {
+		cycleSync.markCycle();
+		ballPredictor.set(view.getBallPosition().getX(), view.getBallPosition().getY(), ballVx, ballVy);
+		decideObserved();
+	}
+
+	private void decideObserved() {
+		long start = System.nanoTime();
+		metrics.perceptionAge(start - cycleSync.getCycleStartNanos());
+		State before = state;
+		long sentBefore = commands.getSent();
+
+		decideRole();
+
+		metrics.decisionTime(System.nanoTime() - start);
+		metrics.commandsSent(commands.getSent() - sentBefore);
+		metrics.transition(before, state);
+		if (recorder != null) {
+			recorder.record(this, before, sentBefore);
+		}
+	}
+
+	private void decideRole() {
+		updateHome();
+		boolean kickable = arrivedAtBall();
+		commands.getKickReaction().update(kickable);
+		if (plan.isActive()) {
+			if (plan.isStale(view.getMatchState(), kickable)) {
+				plan.abort();
+			} else {
+				plan.advance();
+				cycleSync.decisionDone();
+				return;
 			}
 		}
+		actions.get(view.getMatchState()).execute(this);
+		if (plan.isFresh()) {
+			plan.advance(); // primeiro passo ja neste ciclo
+		}
+		cycleSync.decisionDone();
+	}
 
-		PlayerPerception j = teamPlayers.get(closerPlayerIndex);
-		return j;
+	/* Posicao base da formacao para a fase atual, espelhada para o lado direito */
+	private void updateHome() {
+		int side = view.getSide().value();
+		int unum = view.getUniformNumber();
+		boolean attacking = view.getBallPosition().getX() * side > 0;
+		playerDeafaultPosition.setX(formation.getHomeX(unum, attacking) * side);
+		playerDeafaultPosition.setY(formation.getHomeY(unum, attacking) * side);
 	}
 
-	private boolean isCloserToBall() {
+	private void printStats() {
+		System.out.printf("[%s/%d] %s%n", view.getTeam(), view.getUniformNumber(), cycleSync);
+		System.out.printf("[%s/%d] %s%n", view.getTeam(), view.getUniformNumber(), commands);
+		System.out.printf("[%s/%d] %s%n", view.getTeam(), view.getUniformNumber(), plan);
+		System.out.printf("[%s/%d] %s%n", view.getTeam(), view.getUniformNumber(), perceptions);
+		if (view.getUniformNumber() == 1) {
+			System.out.printf("[%s] %s%n", view.getTeam(), worldModels);
+		}
+	}
 
-		Vector2D ballPosition = fieldPerception.getBall().getPosition();
-		Vector2D selfPosition = selfPerception.getPosition();
-		
-		ArrayList<PlayerPerception> teamPlayers = fieldPerception.getTeamPlayers(selfPerception.getSide());
-		
-		double minDistance = teamPlayers.stream()
-				.map(p -> p.getPosition().distanceTo(ballPosition))
-				.min(Comparator.comparing(Double::valueOf))
-				.get();
+	/* Bloqueia ate o proximo ciclo do servidor; uma decisao por ciclo */
+	private void updatePerceptions() {
+		PlayerPerception newSelf = cycleSync.awaitNextCycle();
+		if (newSelf != null) {
+			perceptions.publish(cycleSync.getCycles(), newSelf);
+		}
+		loadView(perceptions.read());
+	}
+
+	/* A decisao inteira usa um snapshot so: self, campo e partida do mesmo ciclo */
+	private void loadView(PerceptionSnapshot s) {
+		view.load(s.getSelf(), s.getField(), s.getMatch());
+		view.setWorld(worldModels.acquire(s.getMatch().getTime(), s.getField(), s.getSelf().getSide(),
+				s.getMatch().getState()));
+	}
+	
+	/* Posicao do companheiro mais proximo, segundo o modelo do time calculado neste ciclo */
+	Vector2D getCloserPlayer() {
+		WorldModel world = view.getWorld();
+		int me = world.indexOf(view.getUniformNumber());
+		int closer;
+		if (me >= 0) {
+			closer = world.getNearestMate(me);
+		} else {
+			Vector2D selfPosition = view.getPosition();
+			closer = view.getIndex().nearest(selfPosition.getX(), selfPosition.getY(), SpatialIndex.MATES, -1);
+		}
+		closerPlayer.setX(world.getX(closer));
+		closerPlayer.setY(world.getY(closer));
+		return closerPlayer;
+	}
+
+	/* Alvo do melhor passe seguro do PassEvaluator, ou null se nenhum passe e seguro */
+	private Vector2D bestPass() {
+		WorldModel world = view.getWorld();
+		int me = world.indexOf(view.getUniformNumber());
+		int c = passEvaluator.evaluate(world, me, world.getBallX(), world.getBallY(), view.getSide().value());
+		if (c < 0) {
+			return null;
+		}
+		passTarget.setX(passEvaluator.getTargetX(c));
+		passTarget.setY(passEvaluator.getTargetY(c));
+		passPower = kickPower(passTarget, passEvaluator.getSpeed(c));
+		return passTarget;
+	}
+
+	/* Forca para a bola sair a speed depois de o jogador virar para target (KickModel, bola onde esta) */
+	private double kickPower(Vector2D target, double speed) {
+		Vector2D myPos = view.getPosition();
+		Vector2D ballPos = view.getBallPosition();
+		double dist = Geometry.distance(myPos.getX(), myPos.getY(), ballPos.getX(), ballPos.getY());
+		double angle = Geometry.angleFrom(target.getX() - myPos.getX(), target.getY() - myPos.getY(),
+				ballPos.getX() - myPos.getX(), ballPos.getY() - myPos.getY());
+		double power = kickModel.power(dist, angle, speed);
+		return Double.isNaN(power) ? 100.0d : power;
+	}
+
+	/* Passe sem o PassEvaluator: forca para a bola chegar em target com a velocidade de um passe */
+	private double passPower(Vector2D target) {
+		return kickPower(target, kickModel.speedFor(distanceTo(target), PassEvaluator.END_SPEED));
+	}
+
+	/*
+	 * Acrescenta ao plano o chute mais forte na direcao de target, com o
+	 * jogador ja virado para ele: dois chutes se ajeitar a bola antes deixa
+	 * o segundo bem mais rapido que um chute so.
+	 */
+	private ActionPlan strongKick(ActionPlan plan, Vector2D target) {
+		Vector2D myPos = view.getPosition();
+		Vector2D ballPos = view.getBallPosition();
+		double dist = Geometry.distance(myPos.getX(), myPos.getY(), ballPos.getX(), ballPos.getY());
+		double angle = Geometry.angleFrom(target.getX() - myPos.getX(), target.getY() - myPos.getY(),
+				ballPos.getX() - myPos.getX(), ballPos.getY() - myPos.getY());
+		if (kickModel.twoKickSpeed(dist, angle, 0) > kickModel.maxSpeed(dist, angle) + TWO_KICK_GAIN) {
+			return plan.kick(kickModel.firstPower(dist, angle, 0), kickModel.firstDirection(dist, angle, 0))
+					.kick(kickModel.secondPower(dist, angle, 0), kickModel.secondDirection(dist, angle, 0));
+		}
+		return plan.kick(100.0d, 0d);
+	}
+
+	/*
+	 * Quem chega primeiro a bola (InterceptionSolver, com giro e trajetoria da
+	 * bola); se ninguem chega no horizonte, quem esta mais perto dela.
+	 */
+	boolean isCloserToBall() {
+		WorldModel world = view.getWorld();
+		int closest = world.getBallClosest();
+		if (closest < 0) {
+			return true;
+		}
+		int me = world.indexOf(view.getUniformNumber());
+		int fastest = world.getFastestMate();
+		if (me >= 0 && fastest >= 0) {
+			return me == fastest;
+		}
+		if (me >= 0) {
+			return me == closest || world.getBallDistance(me) <= world.getBallDistance(closest);
+		}
+		Vector2D selfPosition = view.getPosition();
+		return Geometry.distance(selfPosition.getX(), selfPosition.getY(), world.getBallX(),
+				world.getBallY()) <= world.getBallDistance(closest);
+	}
 
-		return selfPosition.distanceTo(ballPosition) == minDistance;
+	private double distanceTo(Vector2D position) {
+		Vector2D myPos = view.getPosition();
+		return Geometry.distance(myPos.getX(), myPos.getY(), position.getX(), position.getY());
 	}
 
 	private boolean isCloseTo(Vector2D position) {
-		Vector2D myPos = selfPerception.getPosition();
-		return Vector2D.distance(myPos, position) <= ERROR_RADIUS;
+		Vector2D myPos = view.getPosition();
+		return Geometry.distance(myPos.getX(), myPos.getY(), position.getX(), position.getY()) <= ERROR_RADIUS;
 	}
 
 	private boolean arrivedAtBall() {
-		Vector2D myPos = selfPerception.getPosition();
-		return Vector2D.distance(myPos, fieldPerception.getBall().getPosition()) <= KICK_RADIUS;
+		Vector2D myPos = view.getPosition();
+		Vector2D ballPos = view.getBallPosition();
+		return Geometry.distance(myPos.getX(), myPos.getY(), ballPos.getX(), ballPos.getY()) <= KICK_RADIUS;
+	}
+
+	/* Ponto onde o jogador alcanca a bola primeiro, ou onde ela para */
+	private Vector2D interceptPoint() {
+		Vector2D myPos = view.getPosition();
+		int k = ballPredictor.interceptCycle(myPos.getX(), myPos.getY());
+		if (k < 0) {
+			k = BallPredictor.HORIZON;
+		}
+		interceptTarget.setX(ballPredictor.getX(k));
+		interceptTarget.setY(ballPredictor.getY(k));
+		return interceptTarget;
+	}
+
+	BallPredictor getBallPredictor() {
+		return ballPredictor;
 	}
 
 	private void turnTo(Vector2D position) {
-		Vector2D myPos = selfPerception.getPosition();
+		commands.doTurnToPointBlocking(position);
+	}
 
-		Vector2D newDirection = position.sub(myPos);
-		commander.doTurnToDirectionBlocking(newDirection);
+	boolean isAlignedTo(Vector2D position) {
+		if (position == null) {
+			return false;
+		}
+		return isAlignedTo(position.getX(), position.getY());
 	}
 
-	private boolean isAlignedTo(Vector2D position) {
-		Vector2D myPos = selfPerception.getPosition();
-		if (position == null || myPos == null) {
+	private boolean isAlignedTo(double x, double y) {
+		Vector2D myPos = view.getPosition();
+		if (myPos == null) {
 			return false;
 		}
-		double angle = selfPerception.getDirection().angleFrom(position.sub(myPos));
-		return angle < 15.0d && angle > -15.0d;
+		Vector2D dir = view.getDirection();
+		return Geometry.isAligned(myPos.getX(), myPos.getY(), dir.getX(), dir.getY(), x, y, ALIGN_TOLERANCE);
 	}
 
 	/*If close to ball and state is RETURN_BASE go to ATTAKCKING stage*/
@@ -158,7 +496,7 @@ public class BarcelonaPlayer extends Thread {
 
 		if (!isCloseTo(playerDeafaultPosition)) {
 			if (isAlignedTo(playerDeafaultPosition)) {
-				commander.doDashBlocking(50.0d);
+				commands.doDashBlocking(50.0d);
 			} else {
 				turnTo(playerDeafaultPosition);
 			}
@@ -173,74 +511,60 @@ public class BarcelonaPlayer extends Thread {
 			return;		
 		}
 
-		Vector2D golPosition;
-		Vector2D ballPosition = fieldPerception.getBall().getPosition();
-//		ballPosition = new Vector2D(ballPosition.getX() - (selfPerception.getSide().value() * 2), ballPosition.getY());
+		Vector2D ballPosition = view.getBallPosition();
+//		ballPosition = new Vector2D(ballPosition.getX() - (view.getSide().value() * 2), ballPosition.getY());
 
 		if (arrivedAtBall()) {
-			golPosition = new Vector2D(50 * selfPerception.getSide().value(), 0);
 			// Vector2D novaPosicao = posicaoChutarGol();
-			if (selfPerception.getSide() == EFieldSide.LEFT) {
+			if (view.getSide() == EFieldSide.LEFT) {
 
-				if (selfPerception.getPosition().getX() > 30.0d) {
+				if (view.getPosition().getX() > 30.0d) {
 					if(isAlignedTo(golPosition)){
-						commander.doKick(100.0d, 0d);					
+						strongKick(newPlan(), golPosition);
 					}else {
-						turnTo(golPosition);
-						commander.doKickBlocking(100.0d, 0d);
+						strongKick(newPlan().turnTo(golPosition), golPosition);
 					}
 					
 					
-				} else if (selfPerception.getPosition().getX() <=  30.0d) {
-					PlayerPerception j = getCloserPlayer();
-					if(selfPerception.getPosition().getX() < j.getPosition().getX()) { // verify if closer player is in front
-						turnTo(golPosition);
-						tick();
-						commander.doKick(45.0d, 0d);
+				} else if (view.getPosition().getX() <=  30.0d) {
+					Vector2D pass = bestPass();
+					Vector2D j = getCloserPlayer();
+					if (pass != null) {
+						newPlan().turnTo(pass).kick(passPower, 0d).waitCycles(POST_PASS_WAIT_CYCLES);
+					} else if(view.getPosition().getX() < j.getX()) { // verify if closer player is in front
+						newPlan().turnTo(golPosition).waitCycles(PRE_KICK_WAIT_CYCLES).kick(dribblePower(), 0d);
 					}else { // toca bola
-						double mag = j.getPosition().sub(selfPerception.getPosition()).magnitude();
-						Vector2D frontPosition = new Vector2D(j.getPosition().getX() + 15.0, j.getPosition().getY());
-						commander.doTurnToPointBlocking(frontPosition);					
-						commander.doKickBlocking(mag*KICK_FACTOR, 0d);
-						try {
-							Thread.sleep(1000);
-						} catch (InterruptedException e) {
-							e.printStackTrace();
-						}
+						frontPosition.setX(j.getX() + 15.0);
+						frontPosition.setY(j.getY());
+						newPlan().turnTo(frontPosition).kick(passPower(frontPosition), 0d).waitCycles(POST_PASS_WAIT_CYCLES);
 					}							
 					
 				}
 			} else {
-				if (selfPerception.getPosition().getX() < -30.0d) {
-					turnTo(golPosition);
-					tick();
-					commander.doKick(100.0d, 0d); // kick toward adversary goal
-				} else if (selfPerception.getPosition().getX() >= -30.0d) {
-					PlayerPerception j = getCloserPlayer();
-					if(selfPerception.getPosition().getX() > j.getPosition().getX()) { // verify if closer plaer is in front
-						turnTo(golPosition);
-						tick();
-						commander.doKick(45.0d, 0d);
+				if (view.getPosition().getX() < -30.0d) {
+					// kick toward adversary goal
+					strongKick(newPlan().turnTo(golPosition).waitCycles(PRE_KICK_WAIT_CYCLES), golPosition);
+				} else if (view.getPosition().getX() >= -30.0d) {
+					Vector2D pass = bestPass();
+					Vector2D j = getCloserPlayer();
+					if (pass != null) {
+						newPlan().turnTo(pass).kick(passPower, 0d).waitCycles(POST_PASS_WAIT_CYCLES);
+					} else if(view.getPosition().getX() > j.getX()) { // verify if closer plaer is in front
+						newPlan().turnTo(golPosition).waitCycles(PRE_KICK_WAIT_CYCLES).kick(dribblePower(), 0d);
 					}else { // toca bola
-						double mag = j.getPosition().sub(selfPerception.getPosition()).magnitude();
-						commander.doTurnToPointBlocking(j.getPosition());					
-						commander.doKickBlocking(mag*KICK_FACTOR, 0d);
-						try {
-							Thread.sleep(1000);
-						} catch (InterruptedException e) {
-							e.printStackTrace();
-						}
+						newPlan().turnTo(j).kick(passPower(j), 0d).waitCycles(POST_PASS_WAIT_CYCLES);
 					}	
 				}
 			}
 
 		} else {
-			if (isAlignedTo(ballPosition) && selfPerception.getPosition().getX() < fieldPerception.getBall().getPosition().getX()) {
+			Vector2D target = interceptPoint(); // corre para onde a bola vai estar
+			if (isAlignedTo(target) && view.getPosition().getX() < view.getBallPosition().getX()) {
 				_printf("ATK: Running to the ball...");
-				commander.doDashBlocking(100.0d);
+				commands.doDashBlocking(100.0d);
 			} else {
 				_printf("ATK: Turning...");
-				turnTo(ballPosition);
+				turnTo(target);
 			}
 		}
 	}
@@ -250,26 +574,17 @@ public class BarcelonaPlayer extends Thread {
 			state = State.ATTACKING;
 			return;
 		}
-		double y = 0;
-		if(selfPerception.getUniformNumber() == 6) {
-			y = -8*selfPerception.getSide().value();
-		}else if(selfPerception.getUniformNumber() == 5) {
-			y = 8*selfPerception.getSide().value();
-		}else if(selfPerception.getUniformNumber() == 4) {
-			y = -20*selfPerception.getSide().value();
-		}else if(selfPerception.getUniformNumber() == 3) {
-			y = 20*selfPerception.getSide().value();
-		}
+		double y = formation.getFollowY(view.getUniformNumber()) * view.getSide().value();
 		
-		Vector2D golPosition = new Vector2D(50 * selfPerception.getSide().value(), 0);
-		Vector2D myPosition = selfPerception.getPosition();
-		Vector2D ballPosition = fieldPerception.getBall().getPosition();
-		if (isAlignedTo(new Vector2D(ballPosition.getX(), y))) {
+		Vector2D ballPosition = view.getBallPosition();
+		if (isAlignedTo(ballPosition.getX(), y)) {
 			_printf("ATK: Running to the ball...");
-			commander.doDashBlocking(100.0d);
+			commands.doDashBlocking(100.0d);
 		} else {
 			_printf("ATK: Turning...");
-			commander.doTurnToPointBlocking(new Vector2D(ballPosition.getX(), y));
+			followTarget.setX(ballPosition.getX());
+			followTarget.setY(y);
+			commands.doTurnToPointBlocking(followTarget);
 		}		
 	}
 	
@@ -279,29 +594,24 @@ public class BarcelonaPlayer extends Thread {
 //			return;
 //		}
 
-		Vector2D golPosition;
-		Vector2D ballPosition = fieldPerception.getBall().getPosition();
+		Vector2D ballPosition = view.getBallPosition();
 
 		if (arrivedAtBall()) {
-			PlayerPerception p = getCloserPlayer();
-			double mag = p.getPosition().sub(selfPerception.getPosition()).magnitude();
-			turnTo(p.getPosition());			
-			try {
-				Thread.sleep(1000);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-			commander.doKickToPointBlocking(mag * KICK_FACTOR, p.getPosition());
-			try {
-				Thread.sleep(1000);
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+			Vector2D p = bestPass();
+			double power = passPower;
+			if (p == null) { // nenhum passe seguro: o companheiro mais proximo
+				p = getCloserPlayer();
+				power = passPower(p);
 			}
+			newPlan().turnTo(p)
+					.waitCycles(PRE_KICK_WAIT_CYCLES)
+					.kickToPoint(power, p)
+					.waitCycles(POST_PASS_WAIT_CYCLES);
 			state = State.FOLLOW;
 		} else {
 			if (isAlignedTo(ballPosition)) {
 				_printf("ATK: Running to the ball...");
-				commander.doDashBlocking(70.0d);
+				commands.doDashBlocking(70.0d);
 			} else {
 				_printf("ATK: Turning...");
 				turnTo(ballPosition);
@@ -310,41 +620,44 @@ public class BarcelonaPlayer extends Thread {
 		}
 	}
 
-	private void tick() {
-		try {
-			Thread.sleep(100); // espera, para dar tempo de ver as mensagens iniciais
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
+	/* Conduzir a bola em direcao ao gol */
+	private double dribblePower() {
+		return kickPower(golPosition, kickModel.speedFor(DRIBBLE_DISTANCE, DRIBBLE_END_SPEED));
+	}
+
+	private ActionPlan newPlan() {
+		return plan.start(view.getMatchState());
 	}
 
 	private void dash(Vector2D point) {
-		if (selfPerception.getPosition().distanceTo(point) <= ERROR_RADIUS)
+		if (distanceTo(point) <= ERROR_RADIUS)
 			return;
 		if (!isAlignedTo(point))
-			commander.doTurnToPointBlocking(point);
-		commander.doDashBlocking(90);
+			commands.doTurnToPointBlocking(point); // so um comando de corpo por ciclo: corre no proximo
+		else
+			commands.doDashBlocking(90);
 	}
 	private void dashBall(Vector2D point) {
-		if (selfPerception.getPosition().distanceTo(point) <= KICK_RADIUS)
+		if (distanceTo(point) <= KICK_RADIUS)
 			return;
 		if (!isAlignedTo(point))
-			commander.doTurnToPointBlocking(point);
-		commander.doDashBlocking(80);
+			commands.doTurnToPointBlocking(point);
+		else
+			commands.doDashBlocking(80);
 	}
 	// for debugging
 	public void _printf(String format, Object... objects) {
+		if (!DEBUG) {
+			return; // sem montar o prefixo: o _printf e chamado em toda decisao
+		}
 		String teamPlayer = "";
-		if (selfPerception != null) {
-			teamPlayer += "[" + selfPerception.getTeam() + "/" + selfPerception.getUniformNumber() + "] ";
+		if (started) {
+			teamPlayer += "[" + view.getTeam() + "/" + view.getUniformNumber() + "] ";
 		}
-		//System.out.printf(teamPlayer + format + "%n", objects);
+		System.out.printf(teamPlayer + format + "%n", objects);
 	}
 
-	private void executeStateMachine() {
-		if(selfPerception.getUniformNumber() == 3) {
-			System.out.println("Estado do Jogador 3 :"+ state);
-		}
+	void executeStateMachine() {
 		switch (state) {
 		
 		case ATTACKING:			
@@ -365,638 +678,100 @@ public class BarcelonaPlayer extends Thread {
 		}
 	}
 	
-	private void messi() {
-		try {
-			Thread.sleep(5000); // espera, para dar tempo de ver as mensagens iniciais
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
-		double xInit = -10; double yInit = -8;
-		playerDeafaultPosition = new Vector2D(xInit, yInit);
-		if (selfPerception.getSide() == EFieldSide.RIGHT) { // ajusta a posio base de acordo com o lado do jogador
-														// (basta mudar o sinal do x)
-			playerDeafaultPosition.setX(-playerDeafaultPosition.getX());
-		}
-		while (commander.isActive()) {
-			updatePerceptions(); // deixar aqui, no comeo do loop, para ler o resultado do 'move'
-			switch (matchPerception.getState()) {
-			case BEFORE_KICK_OFF:
-				commander.doMoveBlocking(xInit, yInit);				
-				break;
-			case PLAY_ON:
-				executeStateMachine();
-				break;
-			case KICK_OFF_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case KICK_OFF_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case CORNER_KICK_LEFT: // escanteio time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case CORNER_KICK_RIGHT: // escanteio time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case KICK_IN_LEFT: // lateral time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-			case KICK_IN_RIGHT: // lateal time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_LEFT: // Tiro livre time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_RIGHT: // Tiro Livre time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_FAULT_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_FAULT_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case GOAL_KICK_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.RETURN_TO_HOME;
-					executeStateMachine();
-				}
-				break;
-			case GOAL_KICK_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.RETURN_TO_HOME;
-					executeStateMachine();
-				}
-				break;
-			case AFTER_GOAL_LEFT:				
-				commander.doMoveBlocking(xInit, yInit);
-				break;
-			case AFTER_GOAL_RIGHT:				
-				commander.doMoveBlocking(xInit, yInit);
-				break;
-			case INDIRECT_FREE_KICK_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case INDIRECT_FREE_KICK_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			default:
-				break;
-			}
+	/* Acoes usadas nas tabelas de Role */
 
-		}
+	void moveHome() {
+		int side = view.getSide().value(); // o move e nas coordenadas do time
+		moveFrom.setX(view.getPosition().getX() * side);
+		moveFrom.setY(view.getPosition().getY() * side);
+		commands.doMoveBlocking(xInit, yInit, moveFrom);
 	}
 
-	private void coutinho() {
-		try {
-			Thread.sleep(5000); // espera, para dar tempo de ver as mensagens iniciais
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
-		
-		int xInit = -25;
-		int yInit = 10;
-		playerDeafaultPosition = new Vector2D(xInit*selfPerception.getSide().value(), yInit*selfPerception.getSide().value());
-		
-		while (commander.isActive()) {
-			updatePerceptions(); // deixar aqui, no comeo do loop, para ler o resultado do 'move'
-			switch (matchPerception.getState()) {
-			case BEFORE_KICK_OFF:
-				commander.doMoveBlocking(xInit, yInit);				
-				break;
-			case PLAY_ON:
-				state = State.ATTACKING;
-				executeStateMachine();
-				break;
-			case KICK_OFF_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case KICK_OFF_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case CORNER_KICK_LEFT: // escanteio time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case CORNER_KICK_RIGHT: // escanteio time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case KICK_IN_LEFT: // lateral time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-			case KICK_IN_RIGHT: // lateal time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_LEFT: // Tiro livre time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_RIGHT: // Tiro Livre time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_FAULT_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_FAULT_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case GOAL_KICK_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					executeStateMachine();
-				}
-				break;
-			case GOAL_KICK_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					executeStateMachine();
-				}
-				break;
-			case AFTER_GOAL_LEFT:
-				commander.doMoveBlocking(xInit, yInit);		
-				break;
-			case AFTER_GOAL_RIGHT:
-				commander.doMoveBlocking(xInit, yInit);	
-				break;
-			case INDIRECT_FREE_KICK_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case INDIRECT_FREE_KICK_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			default:
-				break;
-			}
-		}
+	void attack() {
+		state = State.ATTACKING;
+		executeStateMachine();
 	}
 
-	private void stegen() {
-		double xInit = -48, yInit = 0, ballX = 0, ballY = 0;
-		EFieldSide side = selfPerception.getSide();
-		Vector2D initPos = new Vector2D(xInit * side.value(), yInit * side.value());
-		Vector2D ballPos;
-		playerDeafaultPosition = new Vector2D(xInit, yInit);
-		Rectangle area = side == EFieldSide.LEFT ? new Rectangle(-62, -30, 26, 50) : new Rectangle(46, -30, 26, 50);
-		while (true) {
-			updatePerceptions();
-			ballPos = fieldPerception.getBall().getPosition();
-			switch (matchPerception.getState()) {
-			case BEFORE_KICK_OFF: // posiciona
-				commander.doMoveBlocking(xInit, yInit);								
-				break;
-			case PLAY_ON:
-				ballX = fieldPerception.getBall().getPosition().getX() - (selfPerception.getSide().value() * 10);
-				ballY = fieldPerception.getBall().getPosition().getY();
-				if (arrivedAtBall()) { // chutar
-					//commander.doKickBlocking(100.0d, 0.0d);
-					turnTo(new Vector2D(0, 0));
-					commander.doCatchBlocking(20);
-					commander.doKickBlocking(100d, 0);
-				} else if (area.contains(ballX, ballY)) { // defender
-					dashBall(ballPos);
-				} else if (!isCloseTo(initPos)) { // recuar					
-					dash(initPos);
-				} else { // olhar para a bola
-					turnTo(ballPos);					
-				}
-				break;
-			case GOAL_KICK_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					if(arrivedAtBall()) {
-						commander.doTurnToPointBlocking(new Vector2D(0, 0));
-						commander.doKickBlocking(100, 0);
-					}else {
-						dashBall(ballPos);
-					}
-				}
-				break;
-			case GOAL_KICK_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					if(arrivedAtBall()) {
-						commander.doTurnToPointBlocking(new Vector2D(0, 0));
-						commander.doKickBlocking(100, 0);
-					}else {
-						dashBall(ballPos);
-					}
-				}
-				break;
-			default:
-				break;
-			}
-		}
+	void passBall() {
+		state = State.PASSING_BALL;
+		executeStateMachine();
 	}
-	
-	private void pique() {
-		// TODO Auto-generated method stub
-		try {
-			Thread.sleep(5000); // espera, para dar tempo de ver as mensagens iniciais
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
-		int xInit = -38;
-		int yInit = 0;
-		EFieldSide side = selfPerception.getSide();
-		Vector2D initPos = new Vector2D(xInit * side.value(), yInit * side.value());
-		playerDeafaultPosition = initPos;
-		Vector2D ballPos;
-		double ballX = 0, ballY = 0;
-		
-		Rectangle area = side == EFieldSide.LEFT ? new Rectangle(-52, -25, 32, 50) : new Rectangle(25, -25, 32, 50);
-		
-		while (commander.isActive()) {
-			updatePerceptions(); // deixar aqui, no comeo do loop, para ler o resultado do 'move'
-			ballPos = fieldPerception.getBall().getPosition();
-			switch (matchPerception.getState()) {
-			case BEFORE_KICK_OFF:				
-				commander.doMoveBlocking(-38, 0);				
-				break;
-			case PLAY_ON:
-				ballX = fieldPerception.getBall().getPosition().getX();
-				ballY = fieldPerception.getBall().getPosition().getY();
-				if (arrivedAtBall()) { // chutar
-					commander.doKickBlocking(100.0d, 0.0d);
-				} else if (area.contains(ballX, ballY)) { // defender
-					dashBall(ballPos);
-				} else if (!isCloseTo(initPos)) { // recuar					
-					dash(initPos);
-				} else { // olhar para a bola
-					turnTo(ballPos);					
-				}
-				break;
-			case KICK_OFF_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case KICK_OFF_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case CORNER_KICK_LEFT: // escanteio time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case CORNER_KICK_RIGHT: // escanteio time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case KICK_IN_LEFT: // lateral time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-			case KICK_IN_RIGHT: // lateal time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_LEFT: // Tiro livre time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_RIGHT: // Tiro Livre time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_FAULT_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_FAULT_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case GOAL_KICK_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					executeStateMachine();
-				}
-				break;
-			case GOAL_KICK_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					executeStateMachine();
-				}
-				break;
-			case AFTER_GOAL_LEFT:
-				commander.doMoveBlocking(-38, 0);
-				break;
-			case AFTER_GOAL_RIGHT:
-				commander.doMoveBlocking(-38, 0);
-				break;			
-			default:
-				break;
+
+	void returnHome() {
+		state = State.RETURN_TO_HOME;
+		executeStateMachine();
+	}
+
+	void setupGoalArea() {
+		goaliePolicy = GoaliePolicy.get();
+	}
+
+	void setupDefenseArea() {
+		area = FieldZones.Zone.DEFENSE_ZONE.mask;
+	}
+
+	/*
+	 * Goleiro: posicao e decisoes da GoaliePolicy (coordenadas do time da
+	 * esquerda, x espelhado para o da direita); um comando de corpo por ciclo.
+	 */
+	void keepGoal() {
+		Vector2D ballPos = view.getBallPosition();
+		WorldModel world = view.getWorld();
+		int side = view.getSide().value();
+		int cell = GoaliePolicy.cell(ballPos.getX() * side, ballPos.getY(), world.getBallVx() * side,
+				world.getBallVy());
+		int flags = goaliePolicy.flags(cell);
+		if (catchBan > 0) {
+			catchBan--;
+		}
+		if ((flags & GoaliePolicy.CATCH_ZONE) != 0 && catchBan == 0 && distanceTo(ballPos) <= CATCHABLE_AREA) { // segurar
+			Vector2D myPos = view.getPosition();
+			Vector2D dir = view.getDirection();
+			commands.doCatchBlocking(Geometry.angleFrom(dir.getX(), dir.getY(), ballPos.getX() - myPos.getX(),
+					ballPos.getY() - myPos.getY()));
+			catchBan = CATCH_BAN_CYCLES;
+		} else if (arrivedAtBall()) { // afastar
+			commands.doKickToPointBlocking(100d, FIELD_CENTER);
+		} else if ((flags & GoaliePolicy.ADVANCE) != 0) { // sair na bola
+			dashBall(interceptPoint());
+		} else {
+			goalieTarget.setX(goaliePolicy.targetX(cell) * side);
+			goalieTarget.setY(goaliePolicy.targetY(cell));
+			if (distanceTo(goalieTarget) <= GOALIE_TOLERANCE) { // posicionado: olhar para a bola
+				turnTo(ballPos);
+			} else if (isAlignedTo(goalieTarget)) {
+				commands.doDashBlocking(100.0d);
+			} else {
+				turnTo(goalieTarget);
 			}
 		}
 	}
-	
-	private void busquets() {
-		// TODO Auto-generated method stub
-		try {
-			Thread.sleep(5000); // espera, para dar tempo de ver as mensagens iniciais
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
-		int xInit = -25;
-		int yInit = -10;
-		playerDeafaultPosition = new Vector2D(xInit*selfPerception.getSide().value(), yInit *selfPerception.getSide().value());
-		
-		while (commander.isActive()) {
-			updatePerceptions(); // deixar aqui, no comeo do loop, para ler o resultado do 'move'
-			switch (matchPerception.getState()) {
-			case BEFORE_KICK_OFF:
-				commander.doMoveBlocking(xInit, yInit);				
-				break;
-			case PLAY_ON:
-				state = State.ATTACKING;
-				executeStateMachine();
-				break;
-			case KICK_OFF_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case KICK_OFF_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					//if(closer)
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case CORNER_KICK_LEFT: // escanteio time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case CORNER_KICK_RIGHT: // escanteio time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case KICK_IN_LEFT: // lateral time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-			case KICK_IN_RIGHT: // lateal time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_LEFT: // Tiro livre time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_RIGHT: // Tiro Livre time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_FAULT_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_FAULT_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case GOAL_KICK_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					executeStateMachine();
-				}
-				break;
-			case GOAL_KICK_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					executeStateMachine();
-				}
-				break;
-			case AFTER_GOAL_LEFT:
-				commander.doMoveBlocking(xInit, yInit);	
-				break;
-			case AFTER_GOAL_RIGHT:
-				commander.doMoveBlocking(xInit, yInit);	
-				break;
-			case INDIRECT_FREE_KICK_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case INDIRECT_FREE_KICK_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			default:
-				break;
-			}
+
+	/* Depois de segurar a bola o jogo volta num tiro livre do time: o goleiro afasta */
+	void releaseBall() {
+		if (arrivedAtBall()) {
+			commands.doKickToPointBlocking(100d, FIELD_CENTER);
 		}
 	}
 
-	private void suarez() {
-		// TODO Auto-generated method stub
-		try {
-			Thread.sleep(5000); // espera, para dar tempo de ver as mensagens iniciais
-		} catch (InterruptedException e) {
-			e.printStackTrace();
+	void goalKick() {
+		if (arrivedAtBall()) {
+			commands.doKickToPointBlocking(100d, FIELD_CENTER); // o chute ja leva a direcao, sem girar antes
+		} else {
+			dashBall(view.getBallPosition());
 		}
-		int xInit = -10;
-		int yInit = 8;
-		playerDeafaultPosition = new Vector2D(xInit*selfPerception.getSide().value(), yInit*selfPerception.getSide().value());
-		while (commander.isActive()) {
-			
-			updatePerceptions(); // deixar aqui, no comeo do loop, para ler o resultado do 'move'
-			switch (matchPerception.getState()) {
-			case BEFORE_KICK_OFF:
-				commander.doMoveBlocking(xInit, yInit);								
-				break;
-			case PLAY_ON:
-				//state = State.FOLLOW;
-				executeStateMachine();
-				break;
-			case KICK_OFF_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case KICK_OFF_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case CORNER_KICK_LEFT: // escanteio time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case CORNER_KICK_RIGHT: // escanteio time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case KICK_IN_LEFT: // lateral time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-			case KICK_IN_RIGHT: // lateal time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_LEFT: // Tiro livre time esquerdo
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_RIGHT: // Tiro Livre time direito
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_FAULT_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case FREE_KICK_FAULT_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case GOAL_KICK_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					executeStateMachine();
-				}
-				break;
-			case GOAL_KICK_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					executeStateMachine();
-				}
-				break;
-			case AFTER_GOAL_LEFT:
-				commander.doMoveBlocking(xInit, yInit);
-				break;
-			case AFTER_GOAL_RIGHT:
-				commander.doMoveBlocking(xInit, yInit);
-				break;
-			case INDIRECT_FREE_KICK_LEFT:
-				if (selfPerception.getSide() == EFieldSide.LEFT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			case INDIRECT_FREE_KICK_RIGHT:
-				if (selfPerception.getSide() == EFieldSide.RIGHT) {
-					state = State.PASSING_BALL;
-					executeStateMachine();
-				}
-				break;
-			default:
-				break;
-			}
+	}
 
+	void defend() {
+		Vector2D ballPos = view.getBallPosition();
+		if (arrivedAtBall()) { // chutar
+			commands.doKickBlocking(100.0d, 0.0d);
+		} else if (FieldZones.in(ballPos.getX(), ballPos.getY(), view.getSide(), area)) { // defender
+			dashBall(interceptPoint());
+		} else if (!isCloseTo(playerDeafaultPosition)) { // recuar
+			dash(playerDeafaultPosition);
+		} else { // olhar para a bola
+			turnTo(ballPos);
 		}
 	}
 
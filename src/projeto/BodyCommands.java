@@ -0,0 +1,28 @@
+package projeto;
+
+import simple_soccer_lib.utils.Vector2D;
+
+/**
+ * Comandos de corpo que a logica de decisao envia ao servidor. Em partida o
+ * destino e o PlayerCommander ({@link LibraryCommands}); em benchmarks e no
+ * replay pode ser um destino que so registra os comandos.
+ */
+public interface BodyCommands {
+
+	void doDashBlocking(double power);
+
+	void doTurnToDirectionBlocking(Vector2D direction);
+
+	void doTurnToPointBlocking(Vector2D point);
+
+	boolean doKick(double power, double direction);
+
+	void doKickBlocking(double power, double direction);
+
+	void doKickToPointBlocking(double power, Vector2D point);
+
+	void doMoveBlocking(double x, double y);
+
+	void doCatchBlocking(double direction);
+
+}
@@ -0,0 +1,218 @@
+package projeto;
+
+import simple_soccer_lib.utils.Vector2D;
+
+/**
+ * Camada entre o BarcelonaPlayer e os {@link BodyCommands} que evita mandar ao
+ * servidor comandos que ele iria ignorar.
+ *
+ * O servidor executa no maximo um comando de corpo (dash/turn/kick/move/catch)
+ * por ciclo, entao um segundo comando no mesmo ciclo do {@link CycleSynchronizer}
+ * e descartado aqui, seja ele bloqueante ou nao. Um move igual ao ultimo
+ * comando de corpo enviado tambem e descartado enquanto o jogador esta na
+ * posicao dele; se um ciclo passou e o jogador nao chegou la, o servidor
+ * perdeu o move e ele e reenviado.
+ */
+public class CommandFilter {
+	enum Command {
+		DASH, TURN, KICK, MOVE, CATCH
+	};
+
+	private static final double MOVE_TOLERANCE = 1.0; // erro da posicao percebida
+	static final int HISTORY = 8; // ultimos comandos aceitos, lidos pelo MatchRecorder
+
+	private final BodyCommands target;
+	private final boolean blocking;
+	private final CycleSynchronizer cycleSync;
+	private final ReactionTimer kickReaction = new ReactionTimer();
+	private PlayerMetrics metrics;
+
+	private long lastBodyCycle = -1;
+	private Command lastCommand;
+	private double lastArg1, lastArg2;
+	private final Command[] history = new Command[HISTORY];
+	private final double[] historyArg1 = new double[HISTORY], historyArg2 = new double[HISTORY];
+
+	private long sent;
+	private long suppressedSameCycle;
+	private long suppressedRepeats;
+
+	public CommandFilter(BodyCommands target, CycleSynchronizer cycleSync) {
+		this.target = target;
+		this.blocking = target instanceof LibraryCommands ? ((LibraryCommands) target).isBlocking()
+				: !(target instanceof AsyncCommands);
+		this.cycleSync = cycleSync;
+	}
+
+	public boolean doDashBlocking(double power) {
+		if (!accept(Command.DASH, power, 0)) {
+			return false;
+		}
+		long start = System.nanoTime();
+		target.doDashBlocking(power);
+		blockingSent(start);
+		return true;
+	}
+
+	public boolean doTurnToDirectionBlocking(Vector2D direction) {
+		if (!accept(Command.TURN, direction.getX(), direction.getY())) {
+			return false;
+		}
+		long start = System.nanoTime();
+		target.doTurnToDirectionBlocking(direction);
+		blockingSent(start);
+		return true;
+	}
+
+	public boolean doTurnToPointBlocking(Vector2D point) {
+		if (!accept(Command.TURN, point.getX(), point.getY())) {
+			return false;
+		}
+		long start = System.nanoTime();
+		target.doTurnToPointBlocking(point);
+		blockingSent(start);
+		return true;
+	}
+
+	public boolean doKick(double power, double direction) {
+		if (!accept(Command.KICK, power, direction)) {
+			return false;
+		}
+		kickReaction.kickSent();
+		return target.doKick(power, direction);
+	}
+
+	public boolean doKickBlocking(double power, double direction) {
+		if (!accept(Command.KICK, power, direction)) {
+			return false;
+		}
+		kickReaction.kickSent();
+		long start = System.nanoTime();
+		target.doKickBlocking(power, direction);
+		blockingSent(start);
+		return true;
+	}
+
+	public boolean doKickToPointBlocking(double power, Vector2D point) {
+		if (!accept(Command.KICK, power, point.getX())) {
+			return false;
+		}
+		kickReaction.kickSent();
+		long start = System.nanoTime();
+		target.doKickToPointBlocking(power, point);
+		blockingSent(start);
+		return true;
+	}
+
+	/**
+	 * Move para (x, y) nas coordenadas do time; position e a posicao atual do
+	 * jogador no mesmo referencial.
+	 */
+	public boolean doMoveBlocking(double x, double y, Vector2D position) {
+		if (lastCommand == Command.MOVE && lastArg1 == x && lastArg2 == y
+				&& Math.abs(position.getX() - x) <= MOVE_TOLERANCE && Math.abs(position.getY() - y) <= MOVE_TOLERANCE) {
+			suppressedRepeats++;
+			return false;
+		}
+		if (!accept(Command.MOVE, x, y)) {
+			return false;
+		}
+		long start = System.nanoTime();
+		target.doMoveBlocking(x, y);
+		blockingSent(start);
+		return true;
+	}
+
+	public boolean doCatchBlocking(double direction) {
+		if (!accept(Command.CATCH, direction, 0)) {
+			return false;
+		}
+		long start = System.nanoTime();
+		target.doCatchBlocking(direction);
+		blockingSent(start);
+		return true;
+	}
+
+	/* Um comando de corpo por ciclo */
+	private boolean accept(Command command, double arg1, double arg2) {
+		long cycle = cycleSync.getCycles();
+		if (cycle == lastBodyCycle) {
+			suppressedSameCycle++;
+			return false;
+		}
+		lastBodyCycle = cycle;
+		lastCommand = command;
+		lastArg1 = arg1;
+		lastArg2 = arg2;
+		int h = (int) (sent % HISTORY);
+		history[h] = command;
+		historyArg1[h] = arg1;
+		historyArg2[h] = arg2;
+		sent++;
+		return true;
+	}
+
+	private void blockingSent(long start) {
+		if (metrics != null) {
+			metrics.blocked(System.nanoTime() - start);
+		}
+	}
+
+	/** Passa a medir o tempo bloqueado nos do*Blocking. */
+	public void setMetrics(PlayerMetrics metrics) {
+		this.metrics = metrics;
+		if (target instanceof AsyncCommands) {
+			((AsyncCommands) target).setMetrics(metrics);
+		}
+	}
+
+	/** Tempo entre a bola ficar ao alcance e o chute sair. */
+	public ReactionTimer getKickReaction() {
+		return kickReaction;
+	}
+
+	/** Ultimo comando de corpo aceito e os dois argumentos guardados com ele. */
+	Command getLastCommand() {
+		return lastCommand;
+	}
+
+	double getLastArg1() {
+		return lastArg1;
+	}
+
+	double getLastArg2() {
+		return lastArg2;
+	}
+
+	/** Comando aceito numero n (contado como getSent()); so os ultimos HISTORY ficam guardados. */
+	Command getSentCommand(long n) {
+		return history[(int) (n % HISTORY)];
+	}
+
+	double getSentArg1(long n) {
+		return historyArg1[(int) (n % HISTORY)];
+	}
+
+	double getSentArg2(long n) {
+		return historyArg2[(int) (n % HISTORY)];
+	}
+
+	public long getSent() {
+		return sent;
+	}
+
+	public long getSuppressedSameCycle() {
+		return suppressedSameCycle;
+	}
+
+	public long getSuppressedRepeats() {
+		return suppressedRepeats;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("sent=%d suppressedSameCycle=%d suppressedRepeats=%d %s%s", sent, suppressedSameCycle,
+				suppressedRepeats, kickReaction, blocking ? "" : " " + target);
+	}
+
+}
@@ -0,0 +1,169 @@
+package projeto;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import simple_soccer_lib.PlayerCommander;
+import simple_soccer_lib.perception.MatchPerception;
+import simple_soccer_lib.perception.PlayerPerception;
+import simple_soccer_lib.utils.EMatchState;
+
+/**
+ * Sincroniza o loop de decisao de um jogador com os ciclos do servidor.
+ *
+ * O agente fica estacionado ate chegar uma nova percepcao (sense_body) e
+ * libera uma decisao para cada uma. Um ciclo novo e reconhecido pelo tempo
+ * do servidor na percepcao da partida, nao pelo objeto devolvido pelo
+ * commander nem pelo relogio local: uma percepcao com o mesmo tempo e
+ * contada como duplicada, mesmo que o intervalo seja longo, e um tempo
+ * maior abre um ciclo mesmo que chegue cedo por atraso da rede ou do
+ * escalonador; os tempos pulados sao contados como ciclos perdidos.
+ *
+ * Com o relogio parado (before_kick_off) ou sem tempo conhecido, o ciclo
+ * vira pelo relogio local: uma percepcao que chega ao menos meio
+ * server::simulator_step depois do inicio do ciclo anterior.
+ *
+ * O synchronizer e o unico a consumir perceiveSelf() e perceiveMatch() do
+ * commander; a ultima partida lida fica em {@link #getMatch()}.
+ */
+public class CycleSynchronizer {
+	static final int POLLS_PER_STEP = 20;
+
+	private final PlayerCommander commander;
+	private final long stepNanos;
+	private final long pollNanos;
+
+	private long lastCycleStart;
+	private MatchPerception lastMatch;
+	private int lastTime = -1;
+	private long cycles;
+	private long skippedCycles;
+	private long duplicatedCycles;
+	private long decisions;
+	private long latencySumNanos;
+	private long maxLatencyNanos;
+
+	public CycleSynchronizer(PlayerCommander commander, int simulatorStepMillis) {
+		this.commander = commander;
+		this.stepNanos = TimeUnit.MILLISECONDS.toNanos(simulatorStepMillis);
+		this.pollNanos = stepNanos / POLLS_PER_STEP;
+	}
+
+	/**
+	 * Bloqueia ate o inicio do proximo ciclo e devolve a percepcao do proprio
+	 * jogador recebida nele. Retorna null se o commander foi desativado.
+	 */
+	public PlayerPerception awaitNextCycle() {
+		while (commander.isActive()) {
+			PlayerPerception p = pollNextCycle();
+			if (p != null) {
+				return p;
+			}
+			LockSupport.parkNanos(pollNanos);
+		}
+		return null;
+	}
+
+	/**
+	 * Versao nao bloqueante: devolve a percepcao se um novo ciclo comecou,
+	 * ou null se ainda estamos no mesmo ciclo.
+	 */
+	public PlayerPerception pollNextCycle() {
+		observeMatch(commander.perceiveMatch()); // antes do self: o tempo nunca fica a frente dele
+		PlayerPerception p = commander.perceiveSelf();
+		if (p == null) {
+			return null;
+		}
+
+		long now = System.nanoTime();
+		int time = lastMatch == null ? -1 : lastMatch.getTime();
+		if (time >= 0 && time != lastTime) {
+			if (lastTime >= 0 && time > lastTime) {
+				skippedCycles += time - lastTime - 1;
+			}
+		} else if (time < 0 || lastMatch.getState() == EMatchState.BEFORE_KICK_OFF) {
+			if (lastCycleStart != 0 && now - lastCycleStart < stepNanos / 2) {
+				duplicatedCycles++; // relogio parado: o mesmo ciclo ainda
+				return null;
+			}
+		} else {
+			duplicatedCycles++; // mesmo tempo do servidor: descarta e espera o proximo
+			return null;
+		}
+		if (time >= 0) {
+			lastTime = time;
+		}
+		lastCycleStart = now;
+		cycles++;
+		return p;
+	}
+
+	/**
+	 * Guarda a percepcao da partida lida fora do synchronizer (inicio do
+	 * jogador) e devolve a mais recente conhecida.
+	 */
+	public MatchPerception observeMatch(MatchPerception match) {
+		if (match != null) {
+			lastMatch = match;
+		}
+		return lastMatch;
+	}
+
+	/** Ultima percepcao da partida lida pelo synchronizer, ou null. */
+	public MatchPerception getMatch() {
+		return lastMatch;
+	}
+
+	/** Abre um novo ciclo sem consultar o servidor (benchmarks e replay). */
+	public void markCycle() {
+		lastCycleStart = System.nanoTime();
+		cycles++;
+	}
+
+	/** Marca o fim da decisao do ciclo atual, para medir a latencia do ciclo. */
+	public void decisionDone() {
+		long latency = System.nanoTime() - lastCycleStart;
+		decisions++;
+		latencySumNanos += latency;
+		if (latency > maxLatencyNanos) {
+			maxLatencyNanos = latency;
+		}
+	}
+
+	/** Instante (System.nanoTime) em que o ciclo atual foi percebido. */
+	public long getCycleStartNanos() {
+		return lastCycleStart;
+	}
+
+	/** Intervalo entre verificacoes de nova percepcao, em nanossegundos. */
+	public long getPollNanos() {
+		return pollNanos;
+	}
+
+	public long getCycles() {
+		return cycles;
+	}
+
+	public long getSkippedCycles() {
+		return skippedCycles;
+	}
+
+	public long getDuplicatedCycles() {
+		return duplicatedCycles;
+	}
+
+	public double getMeanLatencyMillis() {
+		return decisions == 0 ? 0 : latencySumNanos / (decisions * 1e6);
+	}
+
+	public double getMaxLatencyMillis() {
+		return maxLatencyNanos / 1e6;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("cycles=%d skipped=%d duplicated=%d latency(ms) mean=%.2f max=%.2f", cycles,
+				skippedCycles, duplicatedCycles, getMeanLatencyMillis(), getMaxLatencyMillis());
+	}
+
+}
@@ -0,0 +1,19 @@
+package projeto;
+
+/**
+ * Como os jogadores de um time sao executados.
+ */
+public enum ExecutionMode {
+	/** Uma thread por jogador, bloqueando ate cada novo ciclo. */
+	THREAD_PER_PLAYER,
+	/**
+	 * Todos os jogadores (de todos os times) como tarefas em um pequeno pool compartilhado; os comandos de corpo
+	 * sao enviados sem bloquear ({@link LibraryCommands} nao bloqueante).
+	 */
+	EVENT_LOOP,
+	/**
+	 * Um thread de I/O por time consulta os jogadores; as decisoes vao para um pool compartilhado e enviam os
+	 * comandos sem bloquear, como no event loop.
+	 */
+	TEAM_DISPATCHER
+}
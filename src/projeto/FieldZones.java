@@ -0,0 +1,121 @@
+package projeto;
+
+import java.util.Arrays;
+
+import simple_soccer_lib.utils.EFieldSide;
+
+/**
+ * Regioes nomeadas do campo (areas, tercos, corredores e as zonas dos
+ * papeis) compiladas numa grade de bytes de 0.25 m: cada celula guarda o
+ * indice da sua combinacao de zonas numa tabela de mascaras, entao saber
+ * todas as zonas de um ponto e uma leitura na grade e outra na tabela.
+ *
+ * As zonas sao descritas do ponto de vista do time da esquerda (o proprio
+ * gol em x = -52.5, y do servidor crescendo para baixo, entao a esquerda
+ * de quem ataca e y negativo); para o time da direita o ponto e girado
+ * 180 graus antes da consulta. Fora da grade vale a celula da borda.
+ */
+final class FieldZones {
+
+	/** Retangulos [minX, maxX) x [minY, maxY) no referencial do time. */
+	enum Zone {
+		OWN_PENALTY_AREA(-52.5, -36.0, -20.16, 20.16),
+		OWN_GOAL_AREA(-52.5, -47.0, -9.16, 9.16),
+		OPPONENT_PENALTY_AREA(36.0, 52.5, -20.16, 20.16),
+		OPPONENT_GOAL_AREA(47.0, 52.5, -9.16, 9.16),
+		DEFENSIVE_THIRD(-52.5, -17.5, -34.0, 34.0),
+		MIDDLE_THIRD(-17.5, 17.5, -34.0, 34.0),
+		ATTACKING_THIRD(17.5, 52.5, -34.0, 34.0),
+		LEFT_FLANK(-52.5, 52.5, -34.0, -11.33),
+		CENTER_CHANNEL(-52.5, 52.5, -11.33, 11.33),
+		RIGHT_FLANK(-52.5, 52.5, 11.33, 34.0),
+		/* Papel: onde a defesa (pique) vai na bola; o goleiro segue a GoaliePolicy */
+		DEFENSE_ZONE(-52.5, -20.0, -25.0, 25.0);
+
+		final int mask = 1 << ordinal();
+		final double minX, maxX, minY, maxY;
+
+		Zone(double minX, double maxX, double minY, double maxY) {
+			this.minX = minX;
+			this.maxX = maxX;
+			this.minY = minY;
+			this.maxY = maxY;
+		}
+
+		boolean contains(double x, double y) {
+			return x >= minX && x < maxX && y >= minY && y < maxY;
+		}
+	}
+
+	static final double CELL = 0.25;
+	private static final double MIN_X = -57.5, MIN_Y = -39.0; // campo mais 5 m de cada lado
+	static final int NX = (int) (115.0 / CELL), NY = (int) (78.0 / CELL);
+
+	private static final byte[] GRID = new byte[NX * NY];
+	private static final int[] MASKS;
+
+	static {
+		// zonas retangulares: a mascara da celula e (zonas da coluna) & (zonas da linha)
+		int[] columns = new int[NX], rows = new int[NY];
+		for (Zone z : Zone.values()) {
+			for (int ix = 0; ix < NX; ix++) {
+				double x = MIN_X + (ix + 0.5) * CELL;
+				columns[ix] |= x >= z.minX && x < z.maxX ? z.mask : 0;
+			}
+			for (int iy = 0; iy < NY; iy++) {
+				double y = MIN_Y + (iy + 0.5) * CELL;
+				rows[iy] |= y >= z.minY && y < z.maxY ? z.mask : 0;
+			}
+		}
+		int[] masks = new int[256];
+		int count = 0;
+		int id = 0;
+		for (int ix = 0; ix < NX; ix++) {
+			for (int iy = 0; iy < NY; iy++) {
+				int mask = columns[ix] & rows[iy];
+				if (count == 0 || masks[id] != mask) {
+					id = 0;
+					while (id < count && masks[id] != mask) {
+						id++;
+					}
+				}
+				if (id == count) {
+					if (count == masks.length) {
+						throw new IllegalStateException("more than 256 zone combinations");
+					}
+					masks[count++] = mask;
+				}
+				GRID[ix * NY + iy] = (byte) id;
+			}
+		}
+		MASKS = Arrays.copyOf(masks, count);
+	}
+
+	private FieldZones() {
+	}
+
+	/** Mascara das zonas do ponto, no referencial do time da esquerda. */
+	static int zones(double x, double y) {
+		int ix = (int) ((x - MIN_X) / CELL);
+		int iy = (int) ((y - MIN_Y) / CELL);
+		ix = ix < 0 ? 0 : ix >= NX ? NX - 1 : ix;
+		iy = iy < 0 ? 0 : iy >= NY ? NY - 1 : iy;
+		return MASKS[GRID[ix * NY + iy] & 0xff];
+	}
+
+	/** Mascara das zonas do ponto (coordenadas do servidor) para o time do lado dado. */
+	static int zones(double x, double y, EFieldSide side) {
+		return side == EFieldSide.RIGHT ? zones(-x, -y) : zones(x, y);
+	}
+
+	/** Se o ponto esta em alguma das zonas da mascara. */
+	static boolean in(double x, double y, EFieldSide side, int mask) {
+		return (zones(x, y, side) & mask) != 0;
+	}
+
+	/** Numero de combinacoes distintas de zonas (entradas da tabela de mascaras). */
+	static int combinations() {
+		return MASKS.length;
+	}
+
+}
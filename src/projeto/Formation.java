@@ -0,0 +1,142 @@
+package projeto;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+
+/**
+ * Formacao do time lida de um arquivo texto (ver formations/7.txt): papel e
+ * posicoes de cada camisa por fase do jogo, guardados num unico array de
+ * double indexado pela camisa. Escolha o arquivo com -Dformation=...; sem
+ * arquivo vale a formacao original de 7 jogadores.
+ */
+final class Formation {
+	public static final String DEFAULT_FILE = "formations/7.txt";
+	public static final int MAX_PLAYERS = 11;
+
+	private static final int KICK_OFF_X = 0;
+	private static final int KICK_OFF_Y = 1;
+	private static final int DEFENSE_X = 2;
+	private static final int DEFENSE_Y = 3;
+	private static final int ATTACK_X = 4;
+	private static final int ATTACK_Y = 5;
+	private static final int FOLLOW_Y = 6;
+	private static final int STRIDE = 7;
+
+	private static final String BUILT_IN = "1 stegen -48 0 -48 0 -48 0 0\n" //
+			+ "2 pique -38 0 -38 0 -38 0 0\n" //
+			+ "3 coutinho -25 10 -25 10 -25 10 20\n" //
+			+ "4 busquets -25 -10 -25 -10 -25 -10 -20\n" //
+			+ "5 suarez -10 8 -10 8 -10 8 8\n" //
+			+ "6 messi -10 -8 -10 -8 -10 -8 -8\n" //
+			+ "7 messi -10 -8 -10 -8 -10 -8 0\n";
+
+	private static Formation instance;
+
+	private int size;
+	private final Role[] roles = new Role[MAX_PLAYERS + 1];
+	private final double[] data = new double[(MAX_PLAYERS + 1) * STRIDE];
+
+	private Formation() {
+	}
+
+	public static synchronized Formation get() {
+		if (instance == null) {
+			File file = new File(System.getProperty("formation", DEFAULT_FILE));
+			instance = file.isFile() ? load(file) : builtIn();
+		}
+		return instance;
+	}
+
+	static Formation builtIn() {
+		try {
+			return parse(new StringReader(BUILT_IN));
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public static Formation load(File file) {
+		try (Reader in = new FileReader(file)) {
+			return parse(in);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("cannot read formation " + file, e);
+		}
+	}
+
+	static Formation parse(Reader reader) throws IOException {
+		BufferedReader in = new BufferedReader(reader);
+		Formation f = new Formation();
+		String line;
+		int lineNumber = 0;
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			String[] tk = line.split("\\s+");
+			if (tk.length != 2 + STRIDE) {
+				throw new IllegalArgumentException("formation line " + lineNumber + ": expected " + (2 + STRIDE)
+						+ " fields");
+			}
+			int unum = Integer.parseInt(tk[0]);
+			if (unum < 1 || unum > MAX_PLAYERS || f.roles[unum] != null) {
+				throw new IllegalArgumentException("formation line " + lineNumber + ": bad uniform " + unum);
+			}
+			f.roles[unum] = Role.forName(tk[1]);
+			for (int i = 0; i < STRIDE; i++) {
+				f.data[unum * STRIDE + i] = Double.parseDouble(tk[2 + i]);
+			}
+			f.size = Math.max(f.size, unum);
+		}
+		if (f.size == 0) {
+			throw new IllegalArgumentException("formation: no players");
+		}
+		for (int unum = 1; unum <= f.size; unum++) {
+			if (f.roles[unum] == null) {
+				throw new IllegalArgumentException("formation: missing uniform " + unum);
+			}
+		}
+		return f;
+	}
+
+	/** Numero de jogadores (camisas 1..size). */
+	public int size() {
+		return size;
+	}
+
+	public Role getRole(int unum) {
+		return roles[clamp(unum)];
+	}
+
+	public double getKickOffX(int unum) {
+		return data[clamp(unum) * STRIDE + KICK_OFF_X];
+	}
+
+	public double getKickOffY(int unum) {
+		return data[clamp(unum) * STRIDE + KICK_OFF_Y];
+	}
+
+	/** Posicao base na fase atual: com a bola no campo adversario (attacking) ou no nosso. */
+	public double getHomeX(int unum, boolean attacking) {
+		return data[clamp(unum) * STRIDE + (attacking ? ATTACK_X : DEFENSE_X)];
+	}
+
+	public double getHomeY(int unum, boolean attacking) {
+		return data[clamp(unum) * STRIDE + (attacking ? ATTACK_Y : DEFENSE_Y)];
+	}
+
+	public double getFollowY(int unum) {
+		return data[clamp(unum) * STRIDE + FOLLOW_Y];
+	}
+
+	/* Camisa fora da formacao usa a ultima posicao */
+	private int clamp(int unum) {
+		return unum < 1 ? 1 : unum > size ? size : unum;
+	}
+
+}
@@ -0,0 +1,79 @@
+package projeto;
+
+/**
+ * Geometria do campo sobre coordenadas primitivas, sem criar objetos.
+ *
+ * Usada pelos predicados de decisao do BarcelonaPlayer, que rodam todo ciclo;
+ * o Vector2D da biblioteca aloca um objeto novo a cada sub()/distanceTo().
+ */
+public final class Geometry {
+
+	private Geometry() {
+	}
+
+	public static double distance(double x1, double y1, double x2, double y2) {
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	public static double distanceSq(double x1, double y1, double x2, double y2) {
+		double dx = x2 - x1;
+		double dy = y2 - y1;
+		return dx * dx + dy * dy;
+	}
+
+	/** Normaliza um angulo em graus para o intervalo (-180, 180]. */
+	public static double normalizeAngle(double degrees) {
+		while (degrees > 180.0d) {
+			degrees -= 360.0d;
+		}
+		while (degrees <= -180.0d) {
+			degrees += 360.0d;
+		}
+		return degrees;
+	}
+
+	/** Angulo (graus) que falta girar da direcao (dirX, dirY) ate o vetor (toX, toY). */
+	public static double angleFrom(double dirX, double dirY, double toX, double toY) {
+		double a = Math.toDegrees(Math.atan2(toY, toX) - Math.atan2(dirY, dirX));
+		return normalizeAngle(a);
+	}
+
+	/** Se o corpo em (x, y) com direcao (dirX, dirY) aponta para (targetX, targetY), com a tolerancia dada em graus. */
+	public static boolean isAligned(double x, double y, double dirX, double dirY, double targetX, double targetY,
+			double tolerance) {
+		double angle = angleFrom(dirX, dirY, targetX - x, targetY - y);
+		return angle < tolerance && angle > -tolerance;
+	}
+
+	/** Menor distancia de (x, y) a algum dos n primeiros pontos. */
+	public static double minDistance(double x, double y, double[] xs, double[] ys, int n) {
+		double min = Double.MAX_VALUE;
+		for (int i = 0; i < n; i++) {
+			double d = distanceSq(x, y, xs[i], ys[i]);
+			if (d < min) {
+				min = d;
+			}
+		}
+		return Math.sqrt(min);
+	}
+
+	/** Indice do ponto mais proximo de (x, y) entre os n primeiros, ignorando o indice skip; -1 se nao houver. */
+	public static int nearest(double x, double y, double[] xs, double[] ys, int n, int skip) {
+		int best = -1;
+		double min = Double.MAX_VALUE;
+		for (int i = 0; i < n; i++) {
+			if (i == skip) {
+				continue;
+			}
+			double d = distanceSq(x, y, xs[i], ys[i]);
+			if (d < min) {
+				best = i;
+				min = d;
+			}
+		}
+		return best;
+	}
+
+}
@@ -0,0 +1,260 @@
+package projeto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Politica do goleiro calculada offline: para cada faixa de posicao (1 m)
+ * e de velocidade (0.6 m/ciclo em x e em y) da bola, onde o goleiro deve
+ * ficar e se ele deve sair na bola ou pode segura-la.
+ *
+ * A posicao fica na bissetriz do angulo entre a bola e as traves, no ponto
+ * em que o goleiro alcanca as duas linhas bola-trave; se a bola vai para o
+ * gol, no ponto da trajetoria na altura dessa posicao. As coordenadas sao
+ * do time da esquerda (gol em x = -52.5); o da direita espelha x.
+ *
+ * A grade fica num arquivo (-Dgoalie.policy, gerado pelo main ou na
+ * primeira execucao) mapeado em memoria: tres colunas de bytes, entao a
+ * consulta do ciclo e um calculo de indice e tres leituras.
+ */
+final class GoaliePolicy {
+	static final String FILE = System.getProperty("goalie.policy",
+			new File(System.getProperty("java.io.tmpdir"), "barcelonafc-goalie.policy").getPath());
+
+	/* Flags de cada celula */
+	static final int SHOT = 1; // a bola vai entrar no gol
+	static final int ADVANCE = 2; // a bola para na grande area: sair nela
+	static final int CATCH_ZONE = 4; // bola dentro da grande area, onde o goleiro pode segurar
+
+	private static final int MAGIC = 0x474f4c50; // "GOLP"
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 32;
+
+	private static final double FIELD_X = 52.5, FIELD_Y = 34.0;
+	private static final int NX = 105, NY = 68; // 1 m
+	private static final int NV = 9;
+	private static final double V_STEP = 0.6; // centros de -2.4 a 2.4
+	private static final double MAX_DEPTH = 6.0; // o goleiro nunca passa desta distancia da linha (encobrir)
+	private static final double LINE_GAP = 0.5; // nem fica colado na linha
+	private static final double ADVANCE_SPEED = 1.0;
+	private static final double TARGET_UNIT = 0.1; // metros por unidade nos bytes do alvo
+	private static final int CELLS = NX * NY * NV * NV;
+
+	private static GoaliePolicy instance;
+
+	private final double goalHalfWidth;
+	private final double ballDecay;
+	private final double coverRadius;
+	private final ByteBuffer table; // alvo x, alvo y, flags; CELLS bytes cada
+	private FileChannel channel;
+
+	private GoaliePolicy(ServerParams params, ByteBuffer table) {
+		goalHalfWidth = params.getDouble("goal_width", 14.02) / 2;
+		ballDecay = params.getDouble("ball_decay", 0.94);
+		// o goleiro segura a bola a catchable_area_l e anda ~1 m antes de ela passar
+		coverRadius = params.getDouble("catchable_area_l", 1.2) + params.getDouble("player_speed_max", 1.05);
+		this.table = table;
+	}
+
+	static synchronized GoaliePolicy get() {
+		if (instance == null) {
+			ServerParams params = ServerParams.get();
+			File file = new File(FILE);
+			try {
+				instance = map(params, file);
+			} catch (IOException e) {
+				instance = null;
+			}
+			if (instance == null) {
+				instance = build(params);
+				try {
+					instance.save(file);
+				} catch (IOException e) {
+					System.err.println("goalie policy not written: " + e.getMessage());
+				}
+			}
+		}
+		return instance;
+	}
+
+	/** Calcula a grade em memoria. */
+	static GoaliePolicy build(ServerParams params) {
+		GoaliePolicy policy = new GoaliePolicy(params, ByteBuffer.allocate(HEADER_SIZE + 3 * CELLS));
+		policy.fill();
+		return policy;
+	}
+
+	/** Mapeia a grade do arquivo; null se ele nao existe ou e de outros parametros. */
+	static GoaliePolicy map(ServerParams params, File file) throws IOException {
+		if (!file.exists() || file.length() != HEADER_SIZE + 3L * CELLS) {
+			return null;
+		}
+		FileChannel channel = new RandomAccessFile(file, "r").getChannel();
+		ByteBuffer b = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		GoaliePolicy policy = new GoaliePolicy(params, b);
+		b.order(ByteOrder.LITTLE_ENDIAN);
+		if (b.getInt(0) != MAGIC || b.getInt(4) != VERSION || b.getLong(8) != policy.paramsHash()) {
+			channel.close();
+			return null;
+		}
+		policy.channel = channel;
+		return policy;
+	}
+
+	boolean isMapped() {
+		return channel != null;
+	}
+
+	/* Consulta */
+
+	/** Celula da bola em (x, y) com velocidade (vx, vy), nas coordenadas do time da esquerda. */
+	static int cell(double x, double y, double vx, double vy) {
+		int ix = clamp((int) (x + FIELD_X), NX);
+		int iy = clamp((int) (y + FIELD_Y), NY);
+		int ivx = clamp((int) Math.round(vx / V_STEP) + NV / 2, NV);
+		int ivy = clamp((int) Math.round(vy / V_STEP) + NV / 2, NV);
+		return ((ix * NY + iy) * NV + ivx) * NV + ivy;
+	}
+
+	private static int clamp(int i, int n) {
+		return i < 0 ? 0 : i >= n ? n - 1 : i;
+	}
+
+	double targetX(int cell) {
+		return -FIELD_X + (table.get(HEADER_SIZE + cell) & 0xff) * TARGET_UNIT;
+	}
+
+	double targetY(int cell) {
+		return table.get(HEADER_SIZE + CELLS + cell) * TARGET_UNIT;
+	}
+
+	int flags(int cell) {
+		return table.get(HEADER_SIZE + 2 * CELLS + cell);
+	}
+
+	/* Calculo offline */
+
+	private void fill() {
+		for (int ix = 0; ix < NX; ix++) {
+			for (int iy = 0; iy < NY; iy++) {
+				for (int ivx = 0; ivx < NV; ivx++) {
+					for (int ivy = 0; ivy < NV; ivy++) {
+						int c = ((ix * NY + iy) * NV + ivx) * NV + ivy;
+						solve(ix - FIELD_X + 0.5, iy - FIELD_Y + 0.5, (ivx - NV / 2) * V_STEP, (ivy - NV / 2) * V_STEP,
+								c);
+					}
+				}
+			}
+		}
+	}
+
+	private void solve(double bx, double by, double vx, double vy, int c) {
+		double lineX = -FIELD_X + LINE_GAP;
+		double tx, ty;
+		if (bx <= lineX) { // bola na linha de fundo: fica no poste mais proximo dela
+			tx = lineX;
+			ty = by;
+		} else {
+			// bissetriz: soma dos unitarios da bola para as traves
+			double ax = -FIELD_X - bx, ay = goalHalfWidth - by, bx2 = -FIELD_X - bx, by2 = -goalHalfWidth - by;
+			double la = Math.sqrt(ax * ax + ay * ay), lb = Math.sqrt(bx2 * bx2 + by2 * by2);
+			double u1x = ax / la, u1y = ay / la, u2x = bx2 / lb, u2y = by2 / lb;
+			double ux = u1x + u2x, uy = u1y + u2y, lu = Math.sqrt(ux * ux + uy * uy);
+			ux /= lu;
+			uy /= lu;
+			// a distancia as linhas bola-trave e d * sen(meio angulo)
+			double sinHalf = Math.sqrt((u1x - u2x) * (u1x - u2x) + (u1y - u2y) * (u1y - u2y)) / 2;
+			double d = coverRadius / Math.max(sinHalf, 1e-6);
+			d = Math.min(d, (bx - lineX) / Math.max(-ux, 1e-6)); // nao passa da linha
+			tx = bx + d * ux;
+			ty = by + d * uy;
+		}
+
+		tx = Math.max(lineX, Math.min(-FIELD_X + MAX_DEPTH, tx));
+
+		int penalty = FieldZones.Zone.OWN_PENALTY_AREA.mask;
+		int flags = (FieldZones.zones(bx, by) & penalty) != 0 ? CATCH_ZONE : 0;
+		// trajetoria: entra no gol? onde cruza a altura do goleiro?
+		double px = bx, py = by, svx = vx, svy = vy;
+		boolean crossedGuard = false;
+		double guardY = ty;
+		for (int k = 0; k < BallPredictor.HORIZON && svx * svx + svy * svy > 1e-4; k++) {
+			double nx = px + svx, ny = py + svy;
+			if (!crossedGuard && px > tx && nx <= tx) {
+				guardY = py + (ny - py) * (px - tx) / (px - nx);
+				crossedGuard = true;
+			}
+			if (nx <= -FIELD_X) {
+				double gy = py + (ny - py) * (px + FIELD_X) / (px - nx);
+				if (Math.abs(gy) < goalHalfWidth) {
+					flags |= SHOT;
+					ty = crossedGuard ? guardY : gy;
+				}
+				break;
+			}
+			px = nx;
+			py = ny;
+			svx *= ballDecay;
+			svy *= ballDecay;
+		}
+		double speed = Math.sqrt(vx * vx + vy * vy);
+		double restX = bx + vx / (1 - ballDecay), restY = by + vy / (1 - ballDecay);
+		if ((flags & SHOT) == 0 && speed < ADVANCE_SPEED && (FieldZones.zones(restX, restY) & penalty) != 0) {
+			flags |= ADVANCE;
+		}
+
+		ty = Math.max(-goalHalfWidth, Math.min(goalHalfWidth, ty));
+		table.put(HEADER_SIZE + c, (byte) Math.round((tx + FIELD_X) / TARGET_UNIT));
+		table.put(HEADER_SIZE + CELLS + c, (byte) Math.round(ty / TARGET_UNIT));
+		table.put(HEADER_SIZE + 2 * CELLS + c, (byte) flags);
+	}
+
+	/* Arquivo */
+
+	private long paramsHash() {
+		return (Double.doubleToLongBits(goalHalfWidth) * 31 + Double.doubleToLongBits(ballDecay)) * 31
+				+ Double.doubleToLongBits(coverRadius);
+	}
+
+	/* Grava num temporario e renomeia, como o cache do KickModel */
+	void save(File file) throws IOException {
+		ByteBuffer b = table.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+		b.putInt(0, MAGIC).putInt(4, VERSION).putLong(8, paramsHash());
+		b.putInt(16, NX).putInt(20, NY).putInt(24, NV);
+		b.rewind();
+		File tmp = new File(file.getPath() + ".tmp" + System.nanoTime());
+		try (FileChannel out = new RandomAccessFile(tmp, "rw").getChannel()) {
+			while (b.hasRemaining()) {
+				out.write(b);
+			}
+		}
+		if (!tmp.renameTo(file)) {
+			file.delete();
+			if (!tmp.renameTo(file)) {
+				tmp.delete();
+				throw new IOException("could not rename " + tmp);
+			}
+		}
+	}
+
+	/** Gera o arquivo da politica. uso: GoaliePolicy [arquivo] */
+	public static void main(String[] args) throws IOException {
+		File file = new File(args.length > 0 ? args[0] : FILE);
+		long t0 = System.nanoTime();
+		GoaliePolicy policy = build(ServerParams.get());
+		long elapsed = System.nanoTime() - t0;
+		policy.save(file);
+		int shots = 0, advances = 0;
+		for (int c = 0; c < CELLS; c++) {
+			shots += (policy.flags(c) & SHOT) != 0 ? 1 : 0;
+			advances += (policy.flags(c) & ADVANCE) != 0 ? 1 : 0;
+		}
+		System.out.printf("%s: %d cells (%d KB) in %.0f ms, %d shots, %d advances%n", file, CELLS,
+				file.length() / 1024, elapsed / 1e6, shots, advances);
+	}
+
+}
@@ -0,0 +1,146 @@
+package projeto;
+
+/**
+ * Tempo de interceptacao da bola, em ciclos, para todos os jogadores de uma
+ * vez: um giro (se o corpo nao aponta para o ponto de encontro) mais os
+ * dashes necessarios para chegar a trajetoria prevista da bola.
+ *
+ * Enquanto a bola e mais rapida que um jogador, o laco externo percorre os
+ * ciclos e o interno os jogadores, sobre arrays primitivos. Dai em diante a
+ * folga de cada jogador so cresce e o primeiro ciclo sai de duas buscas
+ * binarias (sem giro e com giro), como no {@link BallPredictor}. As tabelas
+ * nao mudam, entao uma instancia pode ser compartilhada entre threads.
+ */
+public final class InterceptionSolver {
+	public static final int NEVER = BallPredictor.HORIZON + 1;
+
+	private static InterceptionSolver instance;
+
+	private final int horizon = BallPredictor.HORIZON;
+	private final double[] travel = new double[BallPredictor.HORIZON + 1];
+	private final double[] reach = new double[BallPredictor.HORIZON + 1];
+	private final double[] reachAfterTurn = new double[BallPredictor.HORIZON + 1];
+	private final double kickableArea;
+	private final double cosTolerance;
+
+	public InterceptionSolver(ServerParams params, double alignToleranceDegrees) {
+		BallPredictor tables = new BallPredictor(params);
+		for (int k = 0; k <= horizon; k++) {
+			travel[k] = tables.travel(k);
+			reach[k] = tables.reach(k) + tables.getKickableArea();
+			reachAfterTurn[k] = k == 0 ? tables.getKickableArea() : reach[k - 1];
+		}
+		kickableArea = tables.getKickableArea();
+		cosTolerance = Math.cos(Math.toRadians(alignToleranceDegrees));
+	}
+
+	public static synchronized InterceptionSolver get() {
+		if (instance == null) {
+			instance = new InterceptionSolver(ServerParams.get(), 15.0);
+		}
+		return instance;
+	}
+
+	/**
+	 * Escreve em cycles[i] o primeiro ciclo em que o jogador i alcanca a bola,
+	 * ou NEVER. bodyCos/bodySin e a direcao do corpo (vetor nulo = desconhecida,
+	 * conta sempre um giro).
+	 */
+	public void solve(double ballX, double ballY, double ballVx, double ballVy, double[] x, double[] y,
+			double[] bodyCos, double[] bodySin, int n, int[] cycles) {
+		for (int i = 0; i < n; i++) {
+			cycles[i] = NEVER;
+		}
+		int pending = n;
+		int fast = fastCycles(ballVx, ballVy);
+		for (int k = 0; k < fast && pending > 0; k++) {
+			double bx = ballX + ballVx * travel[k];
+			double by = ballY + ballVy * travel[k];
+			for (int i = 0; i < n; i++) {
+				if (cycles[i] == NEVER && reaches(x[i], y[i], bodyCos[i], bodySin[i], bx, by, k)) {
+					cycles[i] = k;
+					pending--;
+				}
+			}
+		}
+		for (int i = 0; i < n && pending > 0; i++) {
+			if (cycles[i] != NEVER) {
+				continue;
+			}
+			// com giro o alcance e menor: a resposta fica entre as duas buscas
+			int lo = first(ballX, ballY, ballVx, ballVy, x[i], y[i], reach, fast);
+			int hi = first(ballX, ballY, ballVx, ballVy, x[i], y[i], reachAfterTurn, fast);
+			for (int k = lo; k <= hi && k <= horizon; k++) {
+				double bx = ballX + ballVx * travel[k];
+				double by = ballY + ballVy * travel[k];
+				if (reaches(x[i], y[i], bodyCos[i], bodySin[i], bx, by, k)) {
+					cycles[i] = k;
+					break;
+				}
+			}
+		}
+	}
+
+	/* Se o jogador em (px, py), virado para (cos, sin), alcanca em k ciclos a bola em (bx, by) */
+	private boolean reaches(double px, double py, double cos, double sin, double bx, double by, int k) {
+		double dx = bx - px, dy = by - py;
+		double d2 = dx * dx + dy * dy;
+		double along = dx * cos + dy * sin;
+		// sem giro se o corpo aponta para o ponto (ou se a bola ja esta no pe)
+		boolean facing = d2 <= kickableArea * kickableArea
+				|| along > 0 && along * along >= cosTolerance * cosTolerance * d2;
+		double r = facing ? reach[k] : reachAfterTurn[k];
+		return d2 <= r * r;
+	}
+
+	/* Primeiro k >= from com a bola a ate radius[k] do ponto, ou NEVER; a folga e crescente em k */
+	private int first(double ballX, double ballY, double ballVx, double ballVy, double px, double py,
+			double[] radius, int from) {
+		if (!within(ballX, ballY, ballVx, ballVy, px, py, radius, horizon)) {
+			return NEVER;
+		}
+		int lo = from, hi = horizon;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (within(ballX, ballY, ballVx, ballVy, px, py, radius, mid)) {
+				hi = mid;
+			} else {
+				lo = mid + 1;
+			}
+		}
+		return lo;
+	}
+
+	private boolean within(double ballX, double ballY, double ballVx, double ballVy, double px, double py,
+			double[] radius, int k) {
+		double dx = ballX + ballVx * travel[k] - px, dy = ballY + ballVy * travel[k] - py;
+		return dx * dx + dy * dy <= radius[k] * radius[k];
+	}
+
+	/*
+	 * Ciclos ate a bola andar por ciclo menos que o jogador ganha de alcance,
+	 * mesmo tendo que girar antes; dai em diante a folga so cresce
+	 */
+	private int fastCycles(double vx, double vy) {
+		double speed = Math.sqrt(vx * vx + vy * vy);
+		int k = 0;
+		while (k < horizon && speed * (travel[k + 1] - travel[k]) > reachAfterTurn[k + 1] - reachAfterTurn[k]) {
+			k++;
+		}
+		return k;
+	}
+
+	/** Indice do menor tempo; empate fica com o menor indice. -1 se ninguem chega. */
+	public static int fastest(int[] cycles, int n) {
+		int best = -1;
+		int bestCycle = NEVER;
+		for (int i = 0; i < n; i++) {
+			if (cycles[i] < bestCycle) {
+				bestCycle = cycles[i];
+				best = i;
+			}
+		}
+		return best;
+	}
+
+}
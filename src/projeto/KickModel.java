@@ -0,0 +1,274 @@
+package projeto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Modelo do chute do servidor: a aceleracao da bola e
+ * power * kick_power_rate * (1 - 0.25 * angulo/180 - 0.25 * folga/kickable_margin),
+ * onde angulo e o da bola em relacao ao corpo e folga a distancia entre a
+ * bola e o corpo; a velocidade resultante e limitada por ball_accel_max e
+ * ball_speed_max.
+ *
+ * Um chute com a bola parada sai da formula, em O(1). A sequencia de dois
+ * chutes (o primeiro ajeita a bola num ponto melhor da area de chute, o
+ * segundo acelera) e uma busca, entao ela e tabelada por distancia e angulo
+ * da bola e direcao desejada, e a tabela fica num arquivo (-Dkick.cache)
+ * para as proximas execucoes.
+ *
+ * Supoe o jogador parado e a bola parada antes do primeiro chute, e ignora
+ * o kick_rand.
+ */
+final class KickModel {
+	static final String CACHE = System.getProperty("kick.cache",
+			new File(System.getProperty("java.io.tmpdir"), "barcelonafc-kick.cache").getPath());
+
+	private static final int MAGIC = 0x4b49434b; // "KICK"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+	static final int DISTANCES = 16;
+	static final int ANGLES = 72; // 5 graus
+	private static final int FIELDS = 5; // velocidade, forca e direcao dos dois chutes
+	private static final int SPEED = 0, POWER1 = 1, DIR1 = 2, POWER2 = 3, DIR2 = 4;
+	/* Pontos intermediarios testados para o primeiro chute */
+	private static final int STOP_ANGLES = 36, STOP_DISTANCES = 6;
+
+	private static KickModel instance;
+
+	private final double kickPowerRate;
+	private final double maxPower;
+	private final double accelMax;
+	private final double speedMax;
+	private final double ballDecay;
+	private final double kickableMargin;
+	private final double minDistance; // bola encostada no corpo
+	private final double kickableArea;
+	private final float[] twoKicks = new float[DISTANCES * ANGLES * ANGLES * FIELDS];
+	private boolean loaded;
+
+	KickModel(ServerParams params) {
+		kickPowerRate = params.getDouble("kick_power_rate", 0.027);
+		maxPower = params.getDouble("maxpower", 100);
+		accelMax = params.getDouble("ball_accel_max", 2.7);
+		speedMax = params.getDouble("ball_speed_max", 3.0);
+		ballDecay = params.getDouble("ball_decay", 0.94);
+		kickableMargin = params.getDouble("kickable_margin", 0.7);
+		minDistance = params.getDouble("player_size", 0.3) + params.getDouble("ball_size", 0.085);
+		kickableArea = minDistance + kickableMargin;
+	}
+
+	static synchronized KickModel get() {
+		if (instance == null) {
+			instance = new KickModel(ServerParams.get());
+			instance.loadOrBuild(new File(CACHE));
+		}
+		return instance;
+	}
+
+	/** Le as tabelas do cache ou, se ele nao existe ou e de outros parametros, calcula e grava. */
+	void loadOrBuild(File cache) {
+		try {
+			loaded = load(cache);
+		} catch (IOException e) {
+			loaded = false;
+		}
+		if (!loaded) {
+			build();
+			try {
+				save(cache);
+			} catch (IOException e) {
+				System.err.println("kick model cache not written: " + e.getMessage());
+			}
+		}
+	}
+
+	boolean isLoaded() {
+		return loaded;
+	}
+
+	/* Um chute */
+
+	/** Aceleracao por unidade de forca com a bola a dist do centro do jogador e angle graus do corpo. */
+	double rate(double dist, double angle) {
+		double gap = Math.max(0, dist - minDistance);
+		return kickPowerRate * (1 - 0.25 * Math.abs(Geometry.normalizeAngle(angle)) / 180 - 0.25 * gap / kickableMargin);
+	}
+
+	/** Maior velocidade de um chute so, com a bola parada nessa posicao. */
+	double maxSpeed(double dist, double angle) {
+		return Math.min(speedMax, Math.min(accelMax, maxPower * rate(dist, angle)));
+	}
+
+	/** Forca para a bola parada sair com a velocidade dada, ou NaN se um chute nao basta. */
+	double power(double dist, double angle, double speed) {
+		if (speed > maxSpeed(dist, angle) + 1e-9) {
+			return Double.NaN;
+		}
+		return speed / rate(dist, angle);
+	}
+
+	/** Velocidade inicial para a bola andar distance metros e chegar com endSpeed. */
+	double speedFor(double distance, double endSpeed) {
+		// a cada ciclo a bola perde (1 - decay) da velocidade: anda (v0 - v) / (1 - decay) ate ficar com v
+		return endSpeed + distance * (1 - ballDecay);
+	}
+
+	/* Dois chutes */
+
+	private int cell(double dist, double angle, double direction) {
+		int d = (int) Math.round((dist - minDistance) / kickableMargin * (DISTANCES - 1));
+		d = Math.max(0, Math.min(DISTANCES - 1, d));
+		return ((d * ANGLES + angleBin(angle)) * ANGLES + angleBin(direction)) * FIELDS;
+	}
+
+	private static int angleBin(double degrees) {
+		int a = (int) Math.round((Geometry.normalizeAngle(degrees) + 180) * ANGLES / 360.0);
+		return a % ANGLES;
+	}
+
+	/** Velocidade final, na direcao dada (graus do corpo), com dois chutes seguidos. */
+	double twoKickSpeed(double dist, double angle, double direction) {
+		return twoKicks[cell(dist, angle, direction) + SPEED];
+	}
+
+	double firstPower(double dist, double angle, double direction) {
+		return twoKicks[cell(dist, angle, direction) + POWER1];
+	}
+
+	double firstDirection(double dist, double angle, double direction) {
+		return twoKicks[cell(dist, angle, direction) + DIR1];
+	}
+
+	double secondPower(double dist, double angle, double direction) {
+		return twoKicks[cell(dist, angle, direction) + POWER2];
+	}
+
+	double secondDirection(double dist, double angle, double direction) {
+		return twoKicks[cell(dist, angle, direction) + DIR2];
+	}
+
+	/* Busca, para cada celula, o ponto da area de chute de onde o segundo chute sai mais forte */
+	void build() {
+		for (int d = 0; d < DISTANCES; d++) {
+			double dist = minDistance + kickableMargin * d / (DISTANCES - 1);
+			for (int a = 0; a < ANGLES; a++) {
+				double angle = a * 360.0 / ANGLES - 180;
+				double bx = dist * Math.cos(Math.toRadians(angle)), by = dist * Math.sin(Math.toRadians(angle));
+				double reach1 = Math.min(accelMax, maxPower * rate(dist, angle));
+				for (int k = 0; k < ANGLES; k++) {
+					double direction = k * 360.0 / ANGLES - 180;
+					solveTwoKicks(bx, by, reach1, direction, ((d * ANGLES + a) * ANGLES + k) * FIELDS);
+				}
+			}
+		}
+	}
+
+	private void solveTwoKicks(double bx, double by, double reach1, double direction, int at) {
+		double ux = Math.cos(Math.toRadians(direction)), uy = Math.sin(Math.toRadians(direction));
+		double best = -1, p1 = 0, d1 = 0, p2 = 0, d2 = 0;
+		for (int i = 0; i < STOP_DISTANCES; i++) {
+			double r = minDistance + 0.05 + (kickableArea - 0.1 - minDistance) * i / (STOP_DISTANCES - 1);
+			for (int j = 0; j < STOP_ANGLES; j++) {
+				double stop = j * 360.0 / STOP_ANGLES - 180;
+				double tx = r * Math.cos(Math.toRadians(stop)), ty = r * Math.sin(Math.toRadians(stop));
+				// o primeiro chute leva a bola ate (tx, ty) em um ciclo, sem passar pelo corpo
+				double ax = tx - bx, ay = ty - by;
+				double a1 = Math.sqrt(ax * ax + ay * ay);
+				if (a1 > reach1 || crossesBody(bx, by, tx, ty)) {
+					continue;
+				}
+				double vx = ax * ballDecay, vy = ay * ballDecay;
+				double reach2 = Math.min(accelMax, maxPower * rate(r, stop));
+				// maior s com |s*u - v| <= reach2
+				double along = vx * ux + vy * uy;
+				double disc = reach2 * reach2 - (vx * vx + vy * vy) + along * along;
+				if (disc < 0) {
+					continue;
+				}
+				double s = Math.min(speedMax, along + Math.sqrt(disc));
+				if (s > best) {
+					double cx = s * ux - vx, cy = s * uy - vy;
+					best = s;
+					p1 = a1 / rate(Math.sqrt(bx * bx + by * by), Math.toDegrees(Math.atan2(by, bx)));
+					d1 = Math.toDegrees(Math.atan2(ay, ax));
+					p2 = Math.sqrt(cx * cx + cy * cy) / rate(r, stop);
+					d2 = Math.toDegrees(Math.atan2(cy, cx));
+				}
+			}
+		}
+		twoKicks[at + SPEED] = (float) Math.max(best, 0);
+		twoKicks[at + POWER1] = (float) Math.min(p1, maxPower);
+		twoKicks[at + DIR1] = (float) d1;
+		twoKicks[at + POWER2] = (float) Math.min(p2, maxPower);
+		twoKicks[at + DIR2] = (float) d2;
+	}
+
+	/* Se o segmento de (x1, y1) a (x2, y2) passa por dentro do corpo */
+	private boolean crossesBody(double x1, double y1, double x2, double y2) {
+		double dx = x2 - x1, dy = y2 - y1;
+		double len2 = dx * dx + dy * dy;
+		double t = len2 == 0 ? 0 : Math.max(0, Math.min(1, -(x1 * dx + y1 * dy) / len2));
+		double cx = x1 + t * dx, cy = y1 + t * dy;
+		return cx * cx + cy * cy < minDistance * minDistance;
+	}
+
+	/* Cache */
+
+	/* Os parametros que entram nas tabelas; outro server.conf invalida o cache */
+	private long paramsHash() {
+		long h = 17;
+		for (double p : new double[] { kickPowerRate, maxPower, accelMax, speedMax, ballDecay, kickableMargin,
+				minDistance }) {
+			h = h * 31 + Double.doubleToLongBits(p);
+		}
+		return h;
+	}
+
+	private boolean load(File cache) throws IOException {
+		if (!cache.exists() || cache.length() != HEADER_SIZE + 4L * twoKicks.length) {
+			return false;
+		}
+		try (FileChannel in = new RandomAccessFile(cache, "r").getChannel()) {
+			ByteBuffer b = ByteBuffer.allocate((int) in.size()).order(ByteOrder.LITTLE_ENDIAN);
+			while (b.hasRemaining()) {
+				if (in.read(b) < 0) {
+					return false;
+				}
+			}
+			if (b.getInt(0) != MAGIC || b.getInt(4) != VERSION || b.getInt(8) != DISTANCES || b.getInt(12) != ANGLES
+					|| b.getLong(16) != paramsHash()) {
+				return false;
+			}
+			b.position(HEADER_SIZE);
+			b.asFloatBuffer().get(twoKicks);
+			return true;
+		}
+	}
+
+	/* Grava num temporario e renomeia, para outro processo nunca ler um cache pela metade */
+	private void save(File cache) throws IOException {
+		File tmp = new File(cache.getPath() + ".tmp" + System.nanoTime());
+		ByteBuffer b = ByteBuffer.allocate(HEADER_SIZE + 4 * twoKicks.length).order(ByteOrder.LITTLE_ENDIAN);
+		b.putInt(MAGIC).putInt(VERSION).putInt(DISTANCES).putInt(ANGLES).putLong(paramsHash());
+		b.position(HEADER_SIZE);
+		b.asFloatBuffer().put(twoKicks);
+		b.rewind();
+		try (FileChannel out = new RandomAccessFile(tmp, "rw").getChannel()) {
+			while (b.hasRemaining()) {
+				out.write(b);
+			}
+		}
+		if (!tmp.renameTo(cache)) {
+			cache.delete();
+			if (!tmp.renameTo(cache)) {
+				tmp.delete();
+				throw new IOException("could not rename " + tmp);
+			}
+		}
+	}
+
+}
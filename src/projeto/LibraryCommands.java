@@ -0,0 +1,106 @@
+package projeto;
+
+import simple_soccer_lib.PlayerCommander;
+import simple_soccer_lib.utils.Vector2D;
+
+/**
+ * {@link BodyCommands} que repassa os comandos ao PlayerCommander.
+ *
+ * Bloqueante, cada do*Blocking espera o servidor executar o comando, como no
+ * loop de um thread por jogador. Nao bloqueante, usa as versoes do commander
+ * que so enviam o comando e retornam: e o que os modos
+ * {@link ExecutionMode#EVENT_LOOP} e {@link ExecutionMode#TEAM_DISPATCHER}
+ * usam, para que nenhuma thread do pool fique presa num comando e sem um
+ * thread de envio por jogador.
+ */
+public class LibraryCommands implements BodyCommands {
+	private final PlayerCommander commander;
+	private final boolean blocking;
+
+	public LibraryCommands(PlayerCommander commander) {
+		this(commander, true);
+	}
+
+	public LibraryCommands(PlayerCommander commander, boolean blocking) {
+		this.commander = commander;
+		this.blocking = blocking;
+	}
+
+	public boolean isBlocking() {
+		return blocking;
+	}
+
+	@Override
+	public void doDashBlocking(double power) {
+		if (blocking) {
+			commander.doDashBlocking(power);
+		} else {
+			commander.doDash(power);
+		}
+	}
+
+	@Override
+	public void doTurnToDirectionBlocking(Vector2D direction) {
+		if (blocking) {
+			commander.doTurnToDirectionBlocking(direction);
+		} else {
+			commander.doTurnToDirection(direction);
+		}
+	}
+
+	@Override
+	public void doTurnToPointBlocking(Vector2D point) {
+		if (blocking) {
+			commander.doTurnToPointBlocking(point);
+		} else {
+			commander.doTurnToPoint(point);
+		}
+	}
+
+	@Override
+	public boolean doKick(double power, double direction) {
+		return commander.doKick(power, direction);
+	}
+
+	@Override
+	public void doKickBlocking(double power, double direction) {
+		if (blocking) {
+			commander.doKickBlocking(power, direction);
+		} else {
+			commander.doKick(power, direction);
+		}
+	}
+
+	@Override
+	public void doKickToPointBlocking(double power, Vector2D point) {
+		if (blocking) {
+			commander.doKickToPointBlocking(power, point);
+		} else {
+			commander.doKickToPoint(power, point);
+		}
+	}
+
+	@Override
+	public void doMoveBlocking(double x, double y) {
+		if (blocking) {
+			commander.doMoveBlocking(x, y);
+		} else {
+			commander.doMove(x, y);
+		}
+	}
+
+	@Override
+	public void doCatchBlocking(double direction) {
+		if (blocking) {
+			commander.doCatchBlocking(direction);
+		} else {
+			commander.doCatch(direction);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return blocking ? "blocking" : "nonBlocking";
+	}
+
+}
@@ -0,0 +1,739 @@
+package projeto;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Substituto local do rcssserver para rodar partidas sem o servidor de
+ * Windows: implementa so a parte do protocolo usada pelo PlayerCommander
+ * (init, move, dash, turn, kick, catch; sense_body, see e hear do juiz) e uma
+ * fisica simplificada com os parametros do server.conf.
+ *
+ * No modo sincrono o ciclo avanca assim que todos os jogadores terminaram o
+ * ciclo (ou quando estoura o timeout), entao uma partida roda tao rapido
+ * quanto os agentes decidem. Como no synch_mode do rcssserver, um jogador
+ * termina o ciclo mandando (done); aqui qualquer outro comando tambem conta,
+ * ja que o PlayerCommander nao manda (done). Um jogador que ficou calado no
+ * ciclo anterior (parado, ou com o move filtrado) nao segura o ciclo: ele
+ * tem o passo normal para agir, como no modo assincrono. Para acelerar, os agentes e o simulador
+ * devem usar o mesmo passo curto, ex.: -Dserver.simulator_step=5.
+ *
+ * Com porta 0 o simulador nao escuta nenhuma porta: os inits chegam por
+ * {@link #offerInit}, o que permite varias partidas atras de uma mesma porta
+ * (ver {@link TournamentRunner}).
+ *
+ * Simplificacoes: sem ruido, sem stamina, sem colisoes, sem linhas no see,
+ * sem impedimento e sem troca de lado no intervalo.
+ */
+public class LocalSimulator implements Runnable {
+	public static final double HALF_LENGTH = 52.5;
+	public static final double HALF_WIDTH = 34.0;
+	private static final int MAX_PLAYERS_PER_TEAM = 11;
+	private static final int AFTER_GOAL_CYCLES = 50;
+
+	private static final String[] FLAG_NAMES;
+	private static final double[] FLAG_X, FLAG_Y;
+
+	static {
+		List<String> names = new ArrayList<String>();
+		List<double[]> pos = new ArrayList<double[]>();
+		flag(names, pos, "f c", 0, 0);
+		flag(names, pos, "f c t", 0, -HALF_WIDTH);
+		flag(names, pos, "f c b", 0, HALF_WIDTH);
+		flag(names, pos, "f l t", -HALF_LENGTH, -HALF_WIDTH);
+		flag(names, pos, "f l b", -HALF_LENGTH, HALF_WIDTH);
+		flag(names, pos, "f r t", HALF_LENGTH, -HALF_WIDTH);
+		flag(names, pos, "f r b", HALF_LENGTH, HALF_WIDTH);
+		flag(names, pos, "g l", -HALF_LENGTH, 0);
+		flag(names, pos, "g r", HALF_LENGTH, 0);
+		flag(names, pos, "f g l t", -HALF_LENGTH, -7.01);
+		flag(names, pos, "f g l b", -HALF_LENGTH, 7.01);
+		flag(names, pos, "f g r t", HALF_LENGTH, -7.01);
+		flag(names, pos, "f g r b", HALF_LENGTH, 7.01);
+		flag(names, pos, "f p l t", -36, -20.16);
+		flag(names, pos, "f p l c", -36, 0);
+		flag(names, pos, "f p l b", -36, 20.16);
+		flag(names, pos, "f p r t", 36, -20.16);
+		flag(names, pos, "f p r c", 36, 0);
+		flag(names, pos, "f p r b", 36, 20.16);
+		flag(names, pos, "f t 0", 0, -39);
+		flag(names, pos, "f b 0", 0, 39);
+		flag(names, pos, "f l 0", -57.5, 0);
+		flag(names, pos, "f r 0", 57.5, 0);
+		for (int d = 10; d <= 50; d += 10) {
+			flag(names, pos, "f t l " + d, -d, -39);
+			flag(names, pos, "f t r " + d, d, -39);
+			flag(names, pos, "f b l " + d, -d, 39);
+			flag(names, pos, "f b r " + d, d, 39);
+		}
+		for (int d = 10; d <= 30; d += 10) {
+			flag(names, pos, "f l t " + d, -57.5, -d);
+			flag(names, pos, "f l b " + d, -57.5, d);
+			flag(names, pos, "f r t " + d, 57.5, -d);
+			flag(names, pos, "f r b " + d, 57.5, d);
+		}
+		FLAG_NAMES = names.toArray(new String[names.size()]);
+		FLAG_X = new double[pos.size()];
+		FLAG_Y = new double[pos.size()];
+		for (int i = 0; i < pos.size(); i++) {
+			FLAG_X[i] = pos.get(i)[0];
+			FLAG_Y[i] = pos.get(i)[1];
+		}
+	}
+
+	private static void flag(List<String> names, List<double[]> pos, String name, double x, double y) {
+		names.add(name);
+		pos.add(new double[] { x, y });
+	}
+
+	/** Mudanca de modo de jogo, para a linha do tempo da partida. */
+	public static class PlayModeChange {
+		public final int time;
+		public final String playMode;
+
+		PlayModeChange(int time, String playMode) {
+			this.time = time;
+			this.playMode = playMode;
+		}
+	}
+
+	private static class Client {
+		DatagramChannel channel;
+		SocketAddress address;
+		String team;
+		char side;
+		int unum;
+		boolean goalie;
+		double x, y, vx, vy, body;
+
+		char command; // d, t, k, m, c ou 0
+		double arg1, arg2;
+		boolean done; // mandou (done) ou algum comando neste ciclo
+		int silentCycles; // ciclos seguidos sem nenhum comando
+		int dashCount, turnCount, kickCount, moveCount, catchCount;
+	}
+
+	private final int port;
+	private final boolean synch;
+	private final long stepNanos;
+	private final long synchTimeoutNanos;
+	private final int expectedClients;
+	private final int halfCycles;
+	private final int totalCycles;
+
+	private final double ballDecay, ballSpeedMax, ballAccelMax;
+	private final double playerDecay, playerSpeedMax, dashPowerRate, inertiaMoment;
+	private final double kickPowerRate, kickableMargin, kickableArea, catchableArea;
+	private final double goalHalfWidth, visibleAngle, visibleDistance;
+	private final int kickOffWait, dropBallTime;
+
+	private final List<Client> clients = new ArrayList<Client>();
+	private final List<String> teams = new ArrayList<String>();
+	private Selector selector;
+	private DatagramChannel serverChannel;
+	private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(8192);
+	private final ByteBuffer sendBuffer = ByteBuffer.allocateDirect(8192);
+	private final SExpressionTokenizer tokenizer = new SExpressionTokenizer();
+	private final StringBuilder out = new StringBuilder(4096);
+	private final Queue<Object[]> pendingInits = new ConcurrentLinkedQueue<Object[]>();
+	private final List<PlayModeChange> timeline = new ArrayList<PlayModeChange>();
+
+	private volatile boolean running = true;
+	private int time;
+	private String playMode = "before_kick_off";
+	private boolean playModeChanged = true;
+	private int playModeSince;
+	private int waitCycles;
+	private int scoreLeft, scoreRight;
+	private int possessionLeft, possessionRight;
+	private char lastKicker;
+	private double ballX, ballY, ballVx, ballVy;
+
+	public LocalSimulator(int port, boolean synch, int expectedClients) {
+		ServerParams p = ServerParams.get();
+		this.port = port;
+		this.synch = synch;
+		this.expectedClients = expectedClients;
+		this.stepNanos = TimeUnit.MILLISECONDS.toNanos(p.simulatorStep());
+		this.synchTimeoutNanos = stepNanos * 10;
+		this.halfCycles = (int) (p.getDouble("half_time", 300) * 1000 / 100); // half_time em segundos de 100ms
+		this.totalCycles = halfCycles * p.getInt("nr_normal_halfs", 2);
+		this.ballDecay = p.getDouble("ball_decay", 0.94);
+		this.ballSpeedMax = p.getDouble("ball_speed_max", 3);
+		this.ballAccelMax = p.getDouble("ball_accel_max", 2.7);
+		this.playerDecay = p.getDouble("player_decay", 0.4);
+		this.playerSpeedMax = p.getDouble("player_speed_max", 1.05);
+		this.dashPowerRate = p.getDouble("dash_power_rate", 0.006);
+		this.inertiaMoment = p.getDouble("inertia_moment", 5);
+		this.kickPowerRate = p.getDouble("kick_power_rate", 0.027);
+		this.kickableMargin = p.getDouble("kickable_margin", 0.7);
+		this.kickableArea = kickableMargin + p.getDouble("player_size", 0.3) + p.getDouble("ball_size", 0.085);
+		this.catchableArea = p.getDouble("catchable_area_l", 1.2);
+		this.goalHalfWidth = p.getDouble("goal_width", 14.02) / 2;
+		this.visibleAngle = p.getDouble("visible_angle", 90);
+		this.visibleDistance = p.getDouble("visible_distance", 3);
+		this.kickOffWait = p.getInt("kick_off_wait", 100);
+		this.dropBallTime = p.getInt("drop_ball_time", 200);
+	}
+
+	public static void main(String[] args) {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : ServerParams.get().getInt("port", 6000);
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 14;
+		LocalSimulator sim = new LocalSimulator(port, true, clients);
+		sim.run();
+		System.out.printf("final score %d x %d after %d cycles%n", sim.getScoreLeft(), sim.getScoreRight(),
+				sim.getTime());
+	}
+
+	@Override
+	public void run() {
+		try {
+			selector = Selector.open();
+			if (port > 0) {
+				serverChannel = DatagramChannel.open();
+				serverChannel.bind(new InetSocketAddress(port));
+				serverChannel.configureBlocking(false);
+				serverChannel.register(selector, SelectionKey.OP_READ);
+			}
+			timeline.add(new PlayModeChange(time, playMode));
+
+			while (running && time < totalCycles) {
+				waitForCommands();
+				step();
+				sendPerceptions();
+			}
+			setPlayMode("time_over");
+			sendPerceptions();
+		} catch (IOException e) {
+			e.printStackTrace();
+		} finally {
+			close();
+		}
+	}
+
+	/** Entrega um init recebido por outro socket; a resposta sai do canal do novo jogador. */
+	public void offerInit(String msg, SocketAddress from) {
+		pendingInits.add(new Object[] { msg, from });
+		if (selector != null) {
+			selector.wakeup();
+		}
+	}
+
+	public void stop() {
+		running = false;
+		if (selector != null) {
+			selector.wakeup();
+		}
+	}
+
+	public int getTime() {
+		return time;
+	}
+
+	public String getPlayMode() {
+		return playMode;
+	}
+
+	public int getScoreLeft() {
+		return scoreLeft;
+	}
+
+	public int getScoreRight() {
+		return scoreRight;
+	}
+
+	/** Ciclos de play_on em que o ultimo toque na bola foi do time da esquerda. */
+	public int getPossessionLeft() {
+		return possessionLeft;
+	}
+
+	public int getPossessionRight() {
+		return possessionRight;
+	}
+
+	/** Nome do time em 'l' ou 'r', ou null se ainda nao conectou. */
+	public String getTeamName(char side) {
+		int i = side == 'l' ? 0 : 1;
+		return i < teams.size() ? teams.get(i) : null;
+	}
+
+	public List<PlayModeChange> getTimeline() {
+		return timeline;
+	}
+
+	/* Recebe comandos ate todos terminarem o ciclo (sincrono) ou o ciclo acabar */
+	private void waitForCommands() throws IOException {
+		long start = System.nanoTime();
+		long minEnd = start + stepNanos; // passo minimo, para os agentes perceberem o ciclo
+		long maxEnd = start + (synch ? synchTimeoutNanos : stepNanos);
+		while (running) {
+			long now = System.nanoTime();
+			long end = synch && clients.size() >= expectedClients && allDone() ? minEnd : maxEnd;
+			if (now >= end) {
+				return;
+			}
+			long waitMillis = TimeUnit.NANOSECONDS.toMillis(end - now);
+			if (waitMillis > 0) {
+				selector.select(waitMillis);
+			} else {
+				selector.selectNow();
+			}
+			Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+			Object[] init;
+			while ((init = pendingInits.poll()) != null) {
+				handleInit((String) init[0], (SocketAddress) init[1]);
+			}
+			while (it.hasNext()) {
+				SelectionKey key = it.next();
+				it.remove();
+				if (key.channel() == serverChannel) {
+					receiveInit();
+				} else {
+					receiveCommands((Client) key.attachment());
+				}
+			}
+		}
+	}
+
+	private boolean allDone() {
+		for (Client c : clients) {
+			if (!c.done && c.silentCycles == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void receiveInit() throws IOException {
+		receiveBuffer.clear();
+		SocketAddress from = serverChannel.receive(receiveBuffer);
+		if (from == null) {
+			return;
+		}
+		receiveBuffer.flip();
+		handleInit(StandardCharsets.US_ASCII.decode(receiveBuffer).toString(), from);
+	}
+
+	private void handleInit(String msg, SocketAddress from) throws IOException {
+		msg = msg.trim();
+		if (!msg.startsWith("(init ")) {
+			return;
+		}
+		String team = msg.substring(6).split("[ )]")[0];
+		int teamIndex = teams.indexOf(team);
+		if (teamIndex < 0 && teams.size() < 2) {
+			teams.add(team);
+			teamIndex = teams.size() - 1;
+		}
+		int unum = 1;
+		for (Client c : clients) {
+			if (c.team.equals(team)) {
+				unum++;
+			}
+		}
+		if (teamIndex < 0 || unum > MAX_PLAYERS_PER_TEAM) {
+			if (serverChannel != null) {
+				serverChannel.send(ascii("(error no_more_team_or_player_or_goalie)"), from);
+			}
+			return;
+		}
+
+		Client c = new Client();
+		c.team = team;
+		c.side = teamIndex == 0 ? 'l' : 'r';
+		c.unum = unum;
+		c.goalie = msg.contains("(goalie)");
+		c.address = from;
+		c.x = c.side == 'l' ? -3 * unum : 3 * unum;
+		c.y = -HALF_WIDTH - 3; // fora do campo ate o primeiro move
+		c.body = c.side == 'l' ? 0 : 180;
+		c.channel = DatagramChannel.open();
+		c.channel.bind(new InetSocketAddress(0));
+		c.channel.configureBlocking(false);
+		c.channel.register(selector, SelectionKey.OP_READ, c);
+		clients.add(c);
+
+		c.channel.send(ascii("(init " + c.side + " " + c.unum + " " + playMode + ")"), from);
+	}
+
+	private void receiveCommands(Client c) throws IOException {
+		while (true) {
+			receiveBuffer.clear();
+			SocketAddress from = c.channel.receive(receiveBuffer);
+			if (from == null) {
+				return;
+			}
+			c.address = from;
+			receiveBuffer.flip();
+			parseCommands(c, receiveBuffer);
+		}
+	}
+
+	/*
+	 * Cada datagrama pode trazer varios comandos: (turn_neck 0)(dash 50). Lidos direto do buffer de
+	 * recepcao, sem decodificar para String.
+	 */
+	private void parseCommands(Client c, ByteBuffer msg) {
+		SExpressionTokenizer tk = tokenizer;
+		tk.reset(msg);
+		int t;
+		while ((t = tk.next()) != SExpressionTokenizer.END) {
+			if (t != SExpressionTokenizer.OPEN) {
+				continue;
+			}
+			int level = tk.depth();
+			if (tk.next() != SExpressionTokenizer.ATOM) {
+				continue;
+			}
+			char command = 0;
+			int args = 0;
+			if (tk.atomEquals("dash")) {
+				command = 'd';
+				args = 1;
+			} else if (tk.atomEquals("turn")) {
+				command = 't';
+				args = 1;
+			} else if (tk.atomEquals("kick")) {
+				command = 'k';
+				args = 2;
+			} else if (tk.atomEquals("move")) {
+				command = 'm';
+				args = 2;
+			} else if (tk.atomEquals("catch")) {
+				command = 'c';
+				args = 1;
+			} else if (tk.atomEquals("bye")) {
+				running = false; // um jogador saindo encerra a partida local
+			} // turn_neck, say, change_view, done... nao tem efeito, mas terminam o ciclo do jogador
+			c.done = true;
+			double arg1 = args > 0 ? nextNumber(tk) : 0;
+			double arg2 = args > 1 ? nextNumber(tk) : 0;
+			if (tk.depth() >= level) {
+				tk.skipList();
+			}
+			// comando mal formado: o servidor responderia (error illegal_command_form)
+			if (command != 0 && c.command == 0 && !Double.isNaN(arg1) && !Double.isNaN(arg2)) {
+				bodyCommand(c, command, arg1, arg2); // um comando de corpo por ciclo, como no servidor
+			}
+		}
+	}
+
+	private static double nextNumber(SExpressionTokenizer tk) {
+		return tk.next() == SExpressionTokenizer.ATOM ? tk.number() : Double.NaN;
+	}
+
+	private static void bodyCommand(Client c, char command, double arg1, double arg2) {
+		c.command = command;
+		c.arg1 = arg1;
+		c.arg2 = arg2;
+	}
+
+	private void step() {
+		for (Client c : clients) {
+			execute(c);
+			c.command = 0;
+			c.silentCycles = c.done ? 0 : c.silentCycles + 1;
+			c.done = false;
+		}
+		if (!"before_kick_off".equals(playMode)) {
+			time++;
+		}
+
+		for (Client c : clients) {
+			double speed = Math.hypot(c.vx, c.vy);
+			if (speed > playerSpeedMax) {
+				c.vx *= playerSpeedMax / speed;
+				c.vy *= playerSpeedMax / speed;
+			}
+			c.x += c.vx;
+			c.y += c.vy;
+			c.vx *= playerDecay;
+			c.vy *= playerDecay;
+		}
+		double speed = Math.hypot(ballVx, ballVy);
+		if (speed > ballSpeedMax) {
+			ballVx *= ballSpeedMax / speed;
+			ballVy *= ballSpeedMax / speed;
+		}
+		ballX += ballVx;
+		ballY += ballVy;
+		ballVx *= ballDecay;
+		ballVy *= ballDecay;
+
+		if (playMode.equals("play_on")) {
+			if (lastKicker == 'l') {
+				possessionLeft++;
+			} else if (lastKicker == 'r') {
+				possessionRight++;
+			}
+		}
+		referee();
+	}
+
+	private void execute(Client c) {
+		switch (c.command) {
+		case 'd': {
+			double power = clamp(c.arg1, -100, 100);
+			double accel = power * dashPowerRate;
+			double rad = Math.toRadians(c.body);
+			c.vx += accel * Math.cos(rad);
+			c.vy += accel * Math.sin(rad);
+			c.dashCount++;
+			break;
+		}
+		case 't': {
+			double moment = clamp(c.arg1, -180, 180);
+			c.body = Geometry.normalizeAngle(c.body + moment / (1.0 + inertiaMoment * Math.hypot(c.vx, c.vy)));
+			c.turnCount++;
+			break;
+		}
+		case 'k':
+			kick(c, clamp(c.arg1, 0, 100), clamp(c.arg2, -180, 180));
+			break;
+		case 'm':
+			if (playMode.equals("before_kick_off") || playMode.startsWith("goal_") && !playMode.startsWith("goal_kick")
+					|| playMode.startsWith("kick_off")) {
+				double sign = c.side == 'l' ? 1 : -1; // o lado direito move no proprio referencial
+				c.x = sign * c.arg1;
+				c.y = sign * c.arg2;
+				c.vx = c.vy = 0;
+				c.moveCount++;
+			}
+			break;
+		case 'c':
+			if (c.goalie && Geometry.distance(c.x, c.y, ballX, ballY) <= catchableArea
+					&& Math.abs(ballX) > HALF_LENGTH - 16.5 && Math.signum(ballX) == (c.side == 'l' ? -1 : 1)) {
+				ballX = c.x;
+				ballY = c.y;
+				ballVx = ballVy = 0;
+				lastKicker = c.side;
+				c.catchCount++;
+				setPlayMode("free_kick_" + c.side);
+			}
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void kick(Client c, double power, double direction) {
+		double dist = Geometry.distance(c.x, c.y, ballX, ballY);
+		if (dist > kickableArea || !canKick(c.side)) {
+			return;
+		}
+		double dirToBall = Math.toDegrees(Math.atan2(ballY - c.y, ballX - c.x));
+		double dirDiff = Math.abs(Geometry.normalizeAngle(dirToBall - c.body));
+		double distBall = Math.max(0, dist - (kickableArea - kickableMargin));
+		double eff = kickPowerRate * power * (1 - 0.25 * dirDiff / 180.0 - 0.25 * distBall / kickableMargin);
+		eff = Math.min(eff, ballAccelMax);
+		double rad = Math.toRadians(c.body + direction);
+		ballVx += eff * Math.cos(rad);
+		ballVy += eff * Math.sin(rad);
+		lastKicker = c.side;
+		c.kickCount++;
+		if (!playMode.equals("play_on")) {
+			setPlayMode("play_on");
+		}
+	}
+
+	/* Em bola parada so o time que cobra pode tocar na bola */
+	private boolean canKick(char side) {
+		if (playMode.equals("play_on") || playMode.equals("drop_ball")) {
+			return true;
+		}
+		if (playMode.equals("before_kick_off") || playMode.equals("time_over")
+				|| playMode.startsWith("goal_") && !playMode.startsWith("goal_kick")) {
+			return false;
+		}
+		return playMode.charAt(playMode.length() - 1) == side;
+	}
+
+	private void referee() {
+		if (playMode.equals("before_kick_off")) {
+			if (clients.size() >= expectedClients && ++waitCycles >= kickOffWait) {
+				setPlayMode("kick_off_l");
+			}
+			return;
+		}
+		if (playMode.startsWith("goal_") && !playMode.startsWith("goal_kick")) {
+			if (time - playModeSince >= AFTER_GOAL_CYCLES) {
+				placeBall(0, 0);
+				setPlayMode(playMode.charAt(5) == 'l' ? "kick_off_r" : "kick_off_l");
+			}
+			return;
+		}
+		if (time == halfCycles && !playMode.startsWith("kick_off")) {
+			placeBall(0, 0);
+			setPlayMode("kick_off_r");
+			return;
+		}
+		if (!playMode.equals("play_on")) {
+			if (time - playModeSince > dropBallTime) {
+				setPlayMode("play_on"); // drop ball: ninguem cobrou
+			}
+			return;
+		}
+
+		if (Math.abs(ballX) > HALF_LENGTH) {
+			char defending = ballX < 0 ? 'l' : 'r';
+			char attacking = defending == 'l' ? 'r' : 'l';
+			if (Math.abs(ballY) < goalHalfWidth) {
+				if (attacking == 'l') {
+					scoreLeft++;
+				} else {
+					scoreRight++;
+				}
+				ballVx = ballVy = 0;
+				setPlayMode("goal_" + attacking + "_" + (attacking == 'l' ? scoreLeft : scoreRight));
+			} else if (lastKicker == defending) {
+				placeBall(Math.signum(ballX) * HALF_LENGTH, Math.signum(ballY) * HALF_WIDTH);
+				setPlayMode("corner_kick_" + attacking);
+			} else {
+				placeBall(Math.signum(ballX) * (HALF_LENGTH - 5.5), Math.signum(ballY) * 9.16);
+				setPlayMode("goal_kick_" + defending);
+			}
+		} else if (Math.abs(ballY) > HALF_WIDTH) {
+			placeBall(ballX, Math.signum(ballY) * HALF_WIDTH);
+			setPlayMode("kick_in_" + (lastKicker == 'l' ? 'r' : 'l'));
+		}
+	}
+
+	private void placeBall(double x, double y) {
+		ballX = x;
+		ballY = y;
+		ballVx = ballVy = 0;
+	}
+
+	private void setPlayMode(String mode) {
+		if (!mode.equals(playMode)) {
+			playMode = mode;
+			playModeChanged = true;
+			playModeSince = time;
+			timeline.add(new PlayModeChange(time, mode));
+		}
+	}
+
+	private void sendPerceptions() throws IOException {
+		for (Client c : clients) {
+			senseBody(c);
+			send(c);
+			see(c);
+			send(c);
+			if (playModeChanged) {
+				out.setLength(0);
+				out.append("(hear ").append(time).append(" referee ").append(playMode).append(')');
+				send(c);
+			}
+		}
+		playModeChanged = false;
+	}
+
+	private void senseBody(Client c) {
+		double speed = Math.hypot(c.vx, c.vy);
+		double speedDir = speed == 0 ? 0
+				: Geometry.normalizeAngle(Math.toDegrees(Math.atan2(c.vy, c.vx)) - c.body);
+		out.setLength(0);
+		out.append("(sense_body ").append(time).append(" (view_mode high normal) (stamina 8000 1 130600) (speed ");
+		appendNumber(speed);
+		out.append(' ').append(Math.round(speedDir)).append(") (head_angle 0) (kick ").append(c.kickCount)
+				.append(") (dash ").append(c.dashCount).append(") (turn ").append(c.turnCount)
+				.append(") (say 0) (turn_neck 0) (catch ").append(c.catchCount).append(") (move ")
+				.append(c.moveCount).append(") (change_view 0))");
+	}
+
+	private void see(Client c) {
+		out.setLength(0);
+		out.append("(see ").append(time);
+		for (int i = 0; i < FLAG_NAMES.length; i++) {
+			seeObject(c, "(" + FLAG_NAMES[i] + ")", FLAG_X[i], FLAG_Y[i], 0, 0, false, 0);
+		}
+		seeObject(c, "(b)", ballX, ballY, ballVx, ballVy, true, 0);
+		for (Client o : clients) {
+			if (o == c) {
+				continue;
+			}
+			String name = "(p \"" + o.team + "\" " + o.unum + (o.goalie ? " goalie)" : ")");
+			seeObject(c, name, o.x, o.y, o.vx, o.vy, true, o.body);
+		}
+		out.append(')');
+	}
+
+	private void seeObject(Client c, String name, double x, double y, double vx, double vy, boolean moving,
+			double body) {
+		double dx = x - c.x, dy = y - c.y;
+		double dist = Math.hypot(dx, dy);
+		double dir = Geometry.normalizeAngle(Math.toDegrees(Math.atan2(dy, dx)) - c.body);
+		if (Math.abs(dir) > visibleAngle / 2 && dist > visibleDistance) {
+			return;
+		}
+		out.append(" (").append(name).append(' ');
+		appendNumber(dist);
+		out.append(' ').append(Math.round(dir));
+		if (moving && dist > 0) {
+			double rvx = vx - c.vx, rvy = vy - c.vy;
+			double ex = dx / dist, ey = dy / dist;
+			out.append(' ');
+			appendNumber(rvx * ex + rvy * ey);
+			out.append(' ');
+			appendNumber(Math.toDegrees((ex * rvy - ey * rvx) / dist));
+			if (!name.equals("(b)")) {
+				out.append(' ').append(Math.round(Geometry.normalizeAngle(body - c.body))).append(' ')
+						.append(Math.round(Geometry.normalizeAngle(body - c.body)));
+			}
+		}
+		out.append(')');
+	}
+
+	private void appendNumber(double v) {
+		out.append(Math.round(v * 10) / 10.0);
+	}
+
+	private void send(Client c) throws IOException {
+		if (c.address == null) {
+			return;
+		}
+		sendBuffer.clear();
+		for (int i = 0, n = Math.min(out.length(), sendBuffer.capacity()); i < n; i++) {
+			sendBuffer.put((byte) out.charAt(i));
+		}
+		sendBuffer.flip();
+		c.channel.send(sendBuffer, c.address);
+	}
+
+	private static ByteBuffer ascii(CharSequence s) {
+		return StandardCharsets.US_ASCII.encode(s.toString());
+	}
+
+	private static double clamp(double v, double min, double max) {
+		return v < min ? min : v > max ? max : v;
+	}
+
+	private void close() {
+		try {
+			for (Client c : clients) {
+				c.channel.close();
+			}
+			if (serverChannel != null) {
+				serverChannel.close();
+			}
+			if (selector != null) {
+				selector.close();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
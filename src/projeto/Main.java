@@ -4,8 +4,15 @@ import java.net.UnknownHostException;
 
 public class Main {
 
+	// uso: Main [thread|eventloop|dispatcher]
 	public static void main(String[] args) throws UnknownHostException {
-		BarcelonaFC team1 = new BarcelonaFC("a");
+		ExecutionMode mode = ExecutionMode.THREAD_PER_PLAYER;
+		if (args.length > 0 && args[0].equalsIgnoreCase("eventloop")) {
+			mode = ExecutionMode.EVENT_LOOP;
+		} else if (args.length > 0 && args[0].equalsIgnoreCase("dispatcher")) {
+			mode = ExecutionMode.TEAM_DISPATCHER;
+		}
+		BarcelonaFC team1 = new BarcelonaFC("a", mode);
 //		BarcelonaFC team2 = new BarcelonaFC("b");
 
 		team1.launchTeamAndServer();
@@ -0,0 +1,132 @@
+package projeto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import simple_soccer_lib.utils.EFieldSide;
+import simple_soccer_lib.utils.EMatchState;
+
+/**
+ * Leitura de um log do {@link MatchRecorder}, mapeado em memoria. Um
+ * registro e escolhido com {@link #select(long)} e lido pelos getters, sem
+ * alocar; os offsets sao os do MatchRecorder.
+ */
+final class MatchLog implements AutoCloseable {
+	private static final EMatchState[] MATCH_STATES = EMatchState.values();
+	private static final BarcelonaPlayer.State[] STATES = BarcelonaPlayer.State.values();
+	private static final CommandFilter.Command[] COMMANDS = CommandFilter.Command.values();
+
+	private final FileChannel channel;
+	private final MappedByteBuffer[] segments;
+	private final long count;
+	private MappedByteBuffer b;
+	private int at;
+
+	MatchLog(File file) throws IOException {
+		channel = new RandomAccessFile(file, "r").getChannel();
+		MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, MatchRecorder.HEADER_SIZE);
+		header.order(ByteOrder.LITTLE_ENDIAN);
+		if (header.getInt(0) != MatchRecorder.MAGIC || header.getInt(4) != MatchRecorder.VERSION
+				|| header.getInt(8) != MatchRecorder.RECORD_SIZE) {
+			channel.close();
+			throw new IOException("not a match log (or another version): " + file);
+		}
+		long available = (channel.size() - MatchRecorder.HEADER_SIZE) / MatchRecorder.RECORD_SIZE;
+		count = Math.min(header.getLong(MatchRecorder.HEADER_COUNT), available);
+		segments = new MappedByteBuffer[(int) ((count + MatchRecorder.SEGMENT_RECORDS - 1)
+				/ MatchRecorder.SEGMENT_RECORDS)];
+		for (int s = 0; s < segments.length; s++) {
+			long start = MatchRecorder.HEADER_SIZE + s * MatchRecorder.SEGMENT_SIZE;
+			long size = Math.min(MatchRecorder.SEGMENT_SIZE, channel.size() - start);
+			segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+			segments[s].order(ByteOrder.LITTLE_ENDIAN);
+		}
+	}
+
+	long size() {
+		return count;
+	}
+
+	void select(long record) {
+		b = segments[(int) (record / MatchRecorder.SEGMENT_RECORDS)];
+		at = (int) (record % MatchRecorder.SEGMENT_RECORDS) * MatchRecorder.RECORD_SIZE;
+	}
+
+	long cycle() {
+		return b.getLong(at + MatchRecorder.CYCLE);
+	}
+
+	EFieldSide side() {
+		return b.get(at + MatchRecorder.SIDE) == 1 ? EFieldSide.RIGHT : EFieldSide.LEFT;
+	}
+
+	int uniform() {
+		return b.get(at + MatchRecorder.UNUM);
+	}
+
+	EMatchState matchState() {
+		return MATCH_STATES[b.get(at + MatchRecorder.MATCH_STATE)];
+	}
+
+	BarcelonaPlayer.State stateBefore() {
+		return state(b.get(at + MatchRecorder.STATE_BEFORE));
+	}
+
+	BarcelonaPlayer.State stateAfter() {
+		return state(b.get(at + MatchRecorder.STATE_AFTER));
+	}
+
+	private static BarcelonaPlayer.State state(byte ordinal) {
+		return ordinal < 0 ? null : STATES[ordinal];
+	}
+
+	/** Quantos comandos de corpo a decisao mandou; so os MAX_COMMANDS primeiros estao no registro. */
+	int commandCount() {
+		return b.get(at + MatchRecorder.COMMANDS);
+	}
+
+	/** Comando i da decisao, ou null. */
+	CommandFilter.Command command(int i) {
+		byte c = i < MatchRecorder.MAX_COMMANDS ? b.get(at + MatchRecorder.COMMAND + i) : 0;
+		return c == 0 ? null : COMMANDS[c - 1];
+	}
+
+	double arg1(int i) {
+		return b.getDouble(at + MatchRecorder.ARGS + i * 16);
+	}
+
+	double arg2(int i) {
+		return b.getDouble(at + MatchRecorder.ARGS + i * 16 + 8);
+	}
+
+	double get(int offset) {
+		return b.getDouble(at + offset);
+	}
+
+	int mates() {
+		return b.get(at + MatchRecorder.MATES);
+	}
+
+	int opponents() {
+		return b.get(at + MatchRecorder.OPPONENTS);
+	}
+
+	/** Campo f (0 = x, 1 = y, 2 = cos, 3 = sin) do jogador i; i >= MAX_PLAYERS sao adversarios. */
+	double player(int i, int f) {
+		return b.getDouble(at + MatchRecorder.PLAYERS + i * MatchRecorder.PLAYER_SIZE + f * 8);
+	}
+
+	int playerUniform(int i) {
+		return b.get(at + MatchRecorder.UNIFORMS + i);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
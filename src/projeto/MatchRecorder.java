@@ -0,0 +1,229 @@
+package projeto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import simple_soccer_lib.utils.EFieldSide;
+
+/**
+ * Grava cada decisao de cada jogador da JVM num log binario mapeado em
+ * memoria, com registros de tamanho fixo: o que o jogador via (ele mesmo, a
+ * bola, os dois times do WorldModel), o estado antes e depois da decisao e os
+ * comandos de corpo enviados nela (ate MAX_COMMANDS). O {@link MatchReplay}
+ * le o log e repete as decisoes sem servidor.
+ *
+ * Ativado com -Drecord.file=partida.bfr. O arquivo cresce em segmentos
+ * mapeados de SEGMENT_RECORDS registros; o cabecalho guarda quantos
+ * registros estao completos, entao um log interrompido continua legivel. O
+ * arquivo nunca e cortado (o Windows nao deixa cortar um arquivo mapeado):
+ * o fim do ultimo segmento fica sem uso e o tamanho valido e o do cabecalho.
+ *
+ * Os jogadores gravam em paralelo: so a reserva do registro e a
+ * atualizacao do cabecalho passam pelo lock do gravador.
+ *
+ * Cabecalho (HEADER_SIZE bytes): magic, versao, tamanho do registro, maximo
+ * de jogadores por time, numero de registros. Layout do registro nos
+ * offsets abaixo; jogadores sao x, y, cos e sin do corpo, primeiro os
+ * companheiros e depois os adversarios, seguidos das camisas.
+ */
+public final class MatchRecorder {
+	static final int MAGIC = 0x42464352; // "BFCR"
+	static final int VERSION = 2;
+	static final int HEADER_SIZE = 64;
+	static final int HEADER_COUNT = 16;
+
+	static final int CYCLE = 0;
+	static final int SIDE = 8;
+	static final int UNUM = 9;
+	static final int MATCH_STATE = 10;
+	static final int STATE_BEFORE = 11;
+	static final int STATE_AFTER = 12;
+	static final int COMMANDS = 13; // quantos comandos a decisao mandou (pode passar de MAX_COMMANDS)
+	static final int MATES = 14;
+	static final int OPPONENTS = 15;
+	static final int SELF_X = 16;
+	static final int SELF_Y = 24;
+	static final int DIR_X = 32;
+	static final int DIR_Y = 40;
+	static final int BALL_X = 48;
+	static final int BALL_Y = 56;
+	static final int BALL_VX = 64; // do WorldModel do time
+	static final int BALL_VY = 72;
+	static final int PREDICTED_VX = 80; // do BallPredictor do jogador
+	static final int PREDICTED_VY = 88;
+	static final int MAX_COMMANDS = 4;
+	static final int COMMAND = 96; // MAX_COMMANDS bytes: ordinal de CommandFilter.Command + 1
+	static final int ARGS = 104; // MAX_COMMANDS pares de doubles
+	static final int PLAYERS = ARGS + MAX_COMMANDS * 16;
+	static final int PLAYER_SIZE = 32;
+	static final int UNIFORMS = PLAYERS + 2 * Formation.MAX_PLAYERS * PLAYER_SIZE;
+	static final int RECORD_SIZE = (UNIFORMS + 2 * Formation.MAX_PLAYERS + 7) & ~7;
+
+	static final int SEGMENT_RECORDS = 1 << 14;
+	static final long SEGMENT_SIZE = (long) SEGMENT_RECORDS * RECORD_SIZE;
+
+	private static MatchRecorder instance;
+	private static boolean initialized;
+
+	private final File file;
+	private final FileChannel channel;
+	private final MappedByteBuffer header;
+	private MappedByteBuffer segment;
+	private long count; // registros reservados
+	private int writing; // reservados ainda sendo escritos
+	private boolean failed;
+
+	public MatchRecorder(File file) throws IOException {
+		this.file = file;
+		this.channel = new RandomAccessFile(file, "rw").getChannel();
+		channel.truncate(0);
+		header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+		header.order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(0, MAGIC);
+		header.putInt(4, VERSION);
+		header.putInt(8, RECORD_SIZE);
+		header.putInt(12, Formation.MAX_PLAYERS);
+		header.putLong(HEADER_COUNT, 0);
+	}
+
+	/** O gravador da JVM, ou null se -Drecord.file nao foi dado. */
+	public static synchronized MatchRecorder get() {
+		if (!initialized) {
+			initialized = true;
+			String name = System.getProperty("record.file");
+			if (name != null) {
+				try {
+					instance = new MatchRecorder(new File(name));
+					Runtime.getRuntime().addShutdownHook(new Thread(instance::close, "match-recorder-close"));
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Grava a decisao que o jogador acabou de tomar; sentBefore e o
+	 * CommandFilter.getSent() do inicio dela.
+	 */
+	public void record(BarcelonaPlayer player, BarcelonaPlayer.State before, long sentBefore) {
+		MappedByteBuffer b;
+		int at;
+		synchronized (this) {
+			if (failed || !channel.isOpen()) {
+				return;
+			}
+			int slot = (int) (count % SEGMENT_RECORDS);
+			if (slot == 0) {
+				try {
+					segment = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + count * RECORD_SIZE,
+							SEGMENT_SIZE);
+					segment.order(ByteOrder.LITTLE_ENDIAN);
+				} catch (IOException e) {
+					e.printStackTrace();
+					failed = true;
+					return;
+				}
+			}
+			b = segment;
+			at = slot * RECORD_SIZE;
+			count++;
+			writing++;
+		}
+		// registros diferentes nao se sobrepoem: cada jogador escreve o seu sem o lock
+		write(b, at, player, before, sentBefore);
+		synchronized (this) {
+			if (--writing == 0) {
+				header.putLong(HEADER_COUNT, count); // so quando todos os reservados estao completos
+			}
+		}
+	}
+
+	private static void write(MappedByteBuffer b, int at, BarcelonaPlayer player, BarcelonaPlayer.State before,
+			long sentBefore) {
+		PlayerView view = player.getView();
+		WorldModel world = view.getWorld();
+		CommandFilter commands = player.getCommands();
+		BallPredictor predictor = player.getBallPredictor();
+		long sent = commands.getSent() - sentBefore;
+
+		b.putLong(at + CYCLE, player.getCycles());
+		b.put(at + SIDE, (byte) (view.getSide() == EFieldSide.RIGHT ? 1 : 0));
+		b.put(at + UNUM, (byte) view.getUniformNumber());
+		b.put(at + MATCH_STATE, (byte) view.getMatchState().ordinal());
+		b.put(at + STATE_BEFORE, (byte) (before == null ? -1 : before.ordinal()));
+		b.put(at + STATE_AFTER, (byte) (player.getState() == null ? -1 : player.getState().ordinal()));
+		b.put(at + COMMANDS, (byte) Math.min(sent, Byte.MAX_VALUE));
+		b.putDouble(at + SELF_X, view.getPosition().getX());
+		b.putDouble(at + SELF_Y, view.getPosition().getY());
+		b.putDouble(at + DIR_X, view.getDirection().getX());
+		b.putDouble(at + DIR_Y, view.getDirection().getY());
+		b.putDouble(at + BALL_X, view.getBallPosition().getX());
+		b.putDouble(at + BALL_Y, view.getBallPosition().getY());
+		b.putDouble(at + BALL_VX, world.getBallVx());
+		b.putDouble(at + BALL_VY, world.getBallVy());
+		b.putDouble(at + PREDICTED_VX, predictor.getVelocityX());
+		b.putDouble(at + PREDICTED_VY, predictor.getVelocityY());
+		for (int i = 0; i < MAX_COMMANDS; i++) {
+			boolean stored = i < sent && i < CommandFilter.HISTORY;
+			long n = sentBefore + i;
+			b.put(at + COMMAND + i, (byte) (stored ? commands.getSentCommand(n).ordinal() + 1 : 0));
+			b.putDouble(at + ARGS + i * 16, stored ? commands.getSentArg1(n) : 0);
+			b.putDouble(at + ARGS + i * 16 + 8, stored ? commands.getSentArg2(n) : 0);
+		}
+
+		int mates = Math.min(world.size(), Formation.MAX_PLAYERS);
+		int opponents = Math.min(world.getOpponentCount(), Formation.MAX_PLAYERS);
+		b.put(at + MATES, (byte) mates);
+		b.put(at + OPPONENTS, (byte) opponents);
+		for (int i = 0; i < mates; i++) {
+			int p = at + PLAYERS + i * PLAYER_SIZE;
+			b.putDouble(p, world.getX(i));
+			b.putDouble(p + 8, world.getY(i));
+			b.putDouble(p + 16, world.getBodyCos(i));
+			b.putDouble(p + 24, world.getBodySin(i));
+			b.put(at + UNIFORMS + i, (byte) world.getUniform(i));
+		}
+		for (int j = 0; j < opponents; j++) {
+			int p = at + PLAYERS + (Formation.MAX_PLAYERS + j) * PLAYER_SIZE;
+			b.putDouble(p, world.getOpponentX(j));
+			b.putDouble(p + 8, world.getOpponentY(j));
+			b.putDouble(p + 16, world.getOpponentBodyCos(j));
+			b.putDouble(p + 24, world.getOpponentBodySin(j));
+			b.put(at + UNIFORMS + Formation.MAX_PLAYERS + j, (byte) world.getOpponentUniform(j));
+		}
+	}
+
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Grava o que esta mapeado e fecha o arquivo. Registros ainda sendo
+	 * escritos nao entram na contagem do cabecalho.
+	 */
+	public synchronized void close() {
+		if (!channel.isOpen()) {
+			return;
+		}
+		try {
+			if (writing == 0) {
+				header.putLong(HEADER_COUNT, count);
+			}
+			if (segment != null) {
+				segment.force();
+			}
+			header.force();
+			channel.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		System.out.printf("recorded %d decisions to %s%n", count, file);
+	}
+
+}
@@ -0,0 +1,189 @@
+package projeto;
+
+import java.io.File;
+import java.io.IOException;
+
+import simple_soccer_lib.utils.Vector2D;
+
+/**
+ * Repete sem servidor as decisoes gravadas pelo {@link MatchRecorder}: cada
+ * registro recarrega a view do jogador gravado e chama a mesma decisao da
+ * partida, o mais rapido possivel. O estado resultante e os comandos de
+ * corpo da decisao sao comparados com os gravados, entao o replay serve tanto para medir a
+ * decisao quanto como teste de regressao.
+ *
+ * A formacao e a de -Dformation, que deve ser a mesma da partida gravada.
+ *
+ * uso: MatchReplay arquivo [repeticoes]
+ */
+public class MatchReplay {
+	private static final int REPORTED_MISMATCHES = 10;
+
+	private final Formation formation;
+	private long decisions;
+	private int players;
+	private long mismatches;
+	private long nanos;
+
+	public MatchReplay(Formation formation) {
+		this.formation = formation;
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("uso: MatchReplay arquivo [repeticoes]");
+			return;
+		}
+		int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+		MatchReplay replay = new MatchReplay(Formation.get());
+		try (MatchLog log = new MatchLog(new File(args[0]))) {
+			for (int r = 0; r < repeats; r++) {
+				replay.replay(log, r == 0);
+			}
+		}
+		System.out.println(replay);
+	}
+
+	/** Repete todas as decisoes do log com jogadores novos. */
+	void replay(MatchLog log, boolean report) {
+		BarcelonaPlayer[] replayed = new BarcelonaPlayer[2 * (Formation.MAX_PLAYERS + 1)];
+		int seen = 0;
+		BodyCommands sink = new DiscardCommands();
+		long start = System.nanoTime();
+		for (long r = 0; r < log.size(); r++) {
+			log.select(r);
+			int key = (log.side().value() > 0 ? 0 : Formation.MAX_PLAYERS + 1) + log.uniform();
+			BarcelonaPlayer player = replayed[key];
+			boolean first = player == null;
+			if (first) {
+				player = replayed[key] = new BarcelonaPlayer(sink, formation);
+				seen++;
+			}
+			load(log, player.getView());
+			if (first) {
+				player.startRole();
+				player.resetDecision(log.stateBefore());
+			}
+			long sentBefore = player.getCommands().getSent();
+			player.replayCycle(log.get(MatchRecorder.PREDICTED_VX), log.get(MatchRecorder.PREDICTED_VY));
+			decisions++;
+			if (!matches(log, player, sentBefore)) {
+				if (report && mismatches < REPORTED_MISMATCHES) {
+					CommandFilter commands = player.getCommands();
+					System.out.printf("mismatch at record %d (cycle %d, %s %d): recorded %s %d x %s, replayed %s %d x %s%n",
+							r, log.cycle(), log.side(), log.uniform(), log.stateAfter(), log.commandCount(),
+							log.command(0), player.getState(), commands.getSent() - sentBefore,
+							commands.getSent() != sentBefore ? commands.getSentCommand(sentBefore) : null);
+				}
+				mismatches++;
+			}
+		}
+		nanos += System.nanoTime() - start;
+		players = Math.max(players, seen);
+	}
+
+	/* Mesmo estado final e os mesmos comandos, na mesma ordem */
+	private static boolean matches(MatchLog log, BarcelonaPlayer player, long sentBefore) {
+		CommandFilter commands = player.getCommands();
+		long sent = commands.getSent() - sentBefore;
+		if (player.getState() != log.stateAfter() || sent != log.commandCount()) {
+			return false;
+		}
+		for (int i = 0; i < sent && i < MatchRecorder.MAX_COMMANDS; i++) {
+			long n = sentBefore + i;
+			if (commands.getSentCommand(n) != log.command(i) || commands.getSentArg1(n) != log.arg1(i)
+					|| commands.getSentArg2(n) != log.arg2(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/* View e WorldModel do registro corrente */
+	private static void load(MatchLog log, PlayerView view) {
+		view.setSelf("replay", log.uniform(), log.side(), log.get(MatchRecorder.SELF_X),
+				log.get(MatchRecorder.SELF_Y), log.get(MatchRecorder.DIR_X), log.get(MatchRecorder.DIR_Y));
+		view.setBall(log.get(MatchRecorder.BALL_X), log.get(MatchRecorder.BALL_Y));
+		view.setMatchState(log.matchState());
+
+		int n = log.mates(), m = log.opponents();
+		int[] uniforms = new int[n];
+		double[] x = new double[n], y = new double[n], cos = new double[n], sin = new double[n];
+		for (int i = 0; i < n; i++) {
+			uniforms[i] = log.playerUniform(i);
+			x[i] = log.player(i, 0);
+			y[i] = log.player(i, 1);
+			cos[i] = log.player(i, 2);
+			sin[i] = log.player(i, 3);
+		}
+		int[] oppUniforms = new int[m];
+		double[] ox = new double[m], oy = new double[m], ocos = new double[m], osin = new double[m];
+		for (int j = 0; j < m; j++) {
+			int i = Formation.MAX_PLAYERS + j;
+			oppUniforms[j] = log.playerUniform(i);
+			ox[j] = log.player(i, 0);
+			oy[j] = log.player(i, 1);
+			ocos[j] = log.player(i, 2);
+			osin[j] = log.player(i, 3);
+		}
+		view.setWorld(WorldModel.of(log.cycle(), uniforms, x, y, n, log.get(MatchRecorder.BALL_X),
+				log.get(MatchRecorder.BALL_Y), log.get(MatchRecorder.BALL_VX), log.get(MatchRecorder.BALL_VY), cos,
+				sin, oppUniforms, ox, oy, m, ocos, osin));
+	}
+
+	public long getDecisions() {
+		return decisions;
+	}
+
+	public long getMismatches() {
+		return mismatches;
+	}
+
+	@Override
+	public String toString() {
+		double seconds = nanos / 1e9;
+		// em tempo real, os jogadores gravados decidem juntos uma vez por ciclo
+		double realTime = (double) decisions / Math.max(players, 1) * ServerParams.get().simulatorStep() / 1000.0;
+		return String.format("replayed %d decisions of %d players in %.2fs (%.0f decisions/s, %.0fx real time), "
+				+ "mismatches=%d", decisions, players, seconds, decisions / seconds, realTime / seconds, mismatches);
+	}
+
+	/* Os comandos so passam pelo CommandFilter, que guarda o ultimo para a comparacao */
+	private static final class DiscardCommands implements BodyCommands {
+
+		@Override
+		public void doDashBlocking(double power) {
+		}
+
+		@Override
+		public void doTurnToDirectionBlocking(Vector2D direction) {
+		}
+
+		@Override
+		public void doTurnToPointBlocking(Vector2D point) {
+		}
+
+		@Override
+		public boolean doKick(double power, double direction) {
+			return true;
+		}
+
+		@Override
+		public void doKickBlocking(double power, double direction) {
+		}
+
+		@Override
+		public void doKickToPointBlocking(double power, Vector2D point) {
+		}
+
+		@Override
+		public void doMoveBlocking(double x, double y) {
+		}
+
+		@Override
+		public void doCatchBlocking(double direction) {
+		}
+
+	}
+
+}
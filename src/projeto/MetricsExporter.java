@@ -0,0 +1,92 @@
+package projeto;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Grava as {@link PlayerMetrics} de todos os jogadores da JVM num CSV a cada
+ * periodo, num thread proprio, para que nenhum jogador escreva em System.out
+ * durante o jogo.
+ *
+ * Ativado com -Dmetrics.file=metrics.csv; periodo em -Dmetrics.period=10
+ * (segundos). O arquivo e recriado por JVM, entao processos que rodam juntos
+ * precisam de arquivos diferentes (o {@link TournamentRunner} acrescenta o
+ * sufixo do time ao nome).
+ *
+ * O ultimo periodo, incompleto, nao se perde: cada jogador que termina grava
+ * a sua linha final ({@link #finished(PlayerMetrics)}) e um shutdown hook
+ * grava a dos que ainda estavam registrados quando a JVM saiu.
+ */
+public class MetricsExporter {
+	private static MetricsExporter instance;
+	private static boolean initialized;
+
+	private final List<PlayerMetrics> metrics = new CopyOnWriteArrayList<PlayerMetrics>();
+	private final String file;
+	private final long startMillis = System.currentTimeMillis();
+	private boolean headerWritten;
+
+	private MetricsExporter(String file, long periodSeconds) {
+		this.file = file;
+		ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "metrics-exporter");
+			t.setDaemon(true);
+			return t;
+		});
+		timer.scheduleAtFixedRate(this::export, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+		Runtime.getRuntime().addShutdownHook(new Thread(this::export, "metrics-flush"));
+	}
+
+	/** O exportador da JVM, ou null se -Dmetrics.file nao foi dado. */
+	public static synchronized MetricsExporter get() {
+		if (!initialized) {
+			initialized = true;
+			String file = System.getProperty("metrics.file");
+			if (file != null) {
+				instance = new MetricsExporter(file, Long.getLong("metrics.period", 10));
+			}
+		}
+		return instance;
+	}
+
+	public void register(PlayerMetrics m) {
+		metrics.add(m);
+	}
+
+	/** Grava a linha final do jogador, que deixa de ser exportado. */
+	public synchronized void finished(PlayerMetrics m) {
+		if (metrics.remove(m)) {
+			write(Collections.singletonList(m));
+		}
+	}
+
+	public synchronized void export() {
+		write(metrics);
+	}
+
+	private void write(List<PlayerMetrics> rows) {
+		if (rows.isEmpty()) {
+			return;
+		}
+		try (PrintWriter out = new PrintWriter(new FileWriter(file, headerWritten))) {
+			if (!headerWritten) {
+				PlayerMetrics.writeHeader(out);
+				headerWritten = true;
+			}
+			long now = System.currentTimeMillis() - startMillis;
+			for (PlayerMetrics m : rows) {
+				m.writeRow(out, now);
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
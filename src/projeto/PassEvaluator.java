@@ -0,0 +1,259 @@
+package projeto;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Escolha do passe: para cada companheiro gera passes candidatos (no pe,
+ * na frente dele, em diagonal e em profundidade), simula a bola de cada um
+ * e compara quando o recebedor e o adversario mais rapido chegam nela, com
+ * o {@link InterceptionSolver}.
+ *
+ * Os candidatos ficam em arrays primitivos e sao avaliados em lote, no
+ * maximo pass.budget por ciclo (primeiro os passes no pe de todos, depois
+ * os de frente...). Com -Dpass.parallel o lote e dividido entre threads; o
+ * resultado e o mesmo nos dois modos, o empate fica com o menor candidato.
+ */
+final class PassEvaluator {
+	static final int BUDGET = Integer.getInteger("pass.budget", 96);
+	static final boolean PARALLEL = Boolean.getBoolean("pass.parallel");
+
+	/* Alvo de cada tipo de passe em relacao ao recebedor: metros a frente (sentido do ataque) e ao lado */
+	private static final double[] AHEAD = { 0, 5, 4, 4, 12 };
+	private static final double[] SIDE = { 0, 0, 4, -4, 0 };
+	static final double END_SPEED = 0.8; // velocidade desejada da bola no alvo
+	private static final double MIN_END_SPEED = 0.2;
+	private static final double MIN_DISTANCE = 2.0;
+	private static final double MAX_BACKWARD = 5.0; // passe para tras de no maximo 5 m
+	private static final int SAFETY_CYCLES = 1; // recebedor tem que chegar antes do adversario
+	private static final int MARGIN_CAP = 6;
+	private static final double PROGRESS_WEIGHT = 0.15;
+	private static final double FIELD_X = 52.0, FIELD_Y = 33.5;
+	private static final int MIN_CHUNK = 16;
+
+	private static ExecutorService pool;
+
+	private final InterceptionSolver solver;
+	private final double ballDecay;
+	private final double maxSpeed;
+	private final boolean parallel;
+
+	/* Candidatos do ciclo */
+	private final int capacity;
+	private final double[] targetX, targetY, vx, vy, speed, score;
+	private final int[] receiver;
+	private int count;
+
+	/* Copia do modelo do ciclo, para o solver */
+	private final double[] mateX = new double[Formation.MAX_PLAYERS];
+	private final double[] mateY = new double[Formation.MAX_PLAYERS];
+	private final double[] mateCos = new double[Formation.MAX_PLAYERS];
+	private final double[] mateSin = new double[Formation.MAX_PLAYERS];
+	private final double[] oppX = new double[Formation.MAX_PLAYERS];
+	private final double[] oppY = new double[Formation.MAX_PLAYERS];
+	private final double[] oppCos = new double[Formation.MAX_PLAYERS];
+	private final double[] oppSin = new double[Formation.MAX_PLAYERS];
+	private int opponents;
+	private double ballX, ballY;
+	private int attack;
+
+	private final Chunk[] chunks;
+	private final Future<?>[] futures;
+
+	PassEvaluator(ServerParams params, int budget, boolean parallel) {
+		solver = InterceptionSolver.get();
+		ballDecay = params.getDouble("ball_decay", 0.94);
+		maxSpeed = Math.min(params.getDouble("ball_speed_max", 3.0),
+				params.getDouble("maxpower", 100) * params.getDouble("kick_power_rate", 0.027));
+		this.parallel = parallel;
+		capacity = budget;
+		targetX = new double[budget];
+		targetY = new double[budget];
+		vx = new double[budget];
+		vy = new double[budget];
+		speed = new double[budget];
+		score = new double[budget];
+		receiver = new int[budget];
+		int n = parallel ? Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), budget / MIN_CHUNK)) : 1;
+		chunks = new Chunk[n];
+		for (int i = 0; i < n; i++) {
+			chunks[i] = new Chunk();
+		}
+		futures = new Future<?>[n];
+	}
+
+	PassEvaluator() {
+		this(ServerParams.get(), BUDGET, PARALLEL);
+	}
+
+	/* Threads daemon, compartilhadas por todos os jogadores */
+	private static synchronized ExecutorService pool() {
+		if (pool == null) {
+			final AtomicInteger count = new AtomicInteger();
+			pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+				Thread t = new Thread(r, "pass-eval-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return pool;
+	}
+
+	/**
+	 * Gera e avalia os passes da bola em (bx, by) para os companheiros do
+	 * modelo, menos o indice me (-1 = nenhum). attack e o sentido do ataque
+	 * em x (+1 ou -1). Devolve o melhor candidato, ou -1 se nenhum passe e
+	 * seguro.
+	 */
+	int evaluate(WorldModel world, int me, double bx, double by, int attack) {
+		load(world, bx, by, attack);
+		generate(world.size(), me);
+		if (chunks.length == 1 || count < 2 * MIN_CHUNK) {
+			chunks[0].score(0, count);
+		} else {
+			int per = (count + chunks.length - 1) / chunks.length;
+			ExecutorService executor = pool();
+			for (int c = 1; c < chunks.length; c++) {
+				final Chunk chunk = chunks[c];
+				final int from = Math.min(count, c * per), to = Math.min(count, from + per);
+				futures[c] = executor.submit(() -> chunk.score(from, to));
+			}
+			chunks[0].score(0, Math.min(count, per));
+			for (int c = 1; c < chunks.length; c++) {
+				try {
+					futures[c].get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return -1;
+				} catch (ExecutionException e) {
+					throw new IllegalStateException(e.getCause());
+				}
+				futures[c] = null;
+			}
+		}
+		int best = -1;
+		for (int i = 0; i < count; i++) {
+			if (score[i] > Double.NEGATIVE_INFINITY && (best < 0 || score[i] > score[best])) {
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	private void load(WorldModel world, double bx, double by, int attack) {
+		int n = Math.min(world.size(), Formation.MAX_PLAYERS);
+		for (int i = 0; i < n; i++) {
+			mateX[i] = world.getX(i);
+			mateY[i] = world.getY(i);
+			mateCos[i] = world.getBodyCos(i);
+			mateSin[i] = world.getBodySin(i);
+		}
+		opponents = Math.min(world.getOpponentCount(), Formation.MAX_PLAYERS);
+		for (int i = 0; i < opponents; i++) {
+			oppX[i] = world.getOpponentX(i);
+			oppY[i] = world.getOpponentY(i);
+			oppCos[i] = world.getOpponentBodyCos(i);
+			oppSin[i] = world.getOpponentBodySin(i);
+		}
+		ballX = bx;
+		ballY = by;
+		this.attack = attack;
+	}
+
+	/* Um tipo de passe por vez para todos os companheiros, ate o orcamento */
+	private void generate(int mates, int me) {
+		count = 0;
+		mates = Math.min(mates, Formation.MAX_PLAYERS);
+		for (int kind = 0; kind < AHEAD.length; kind++) {
+			for (int j = 0; j < mates; j++) {
+				if (j == me) {
+					continue;
+				}
+				if (count == capacity) {
+					return;
+				}
+				double tx = mateX[j] + attack * AHEAD[kind];
+				double ty = mateY[j] + SIDE[kind];
+				if (Math.abs(tx) > FIELD_X || Math.abs(ty) > FIELD_Y || (tx - ballX) * attack < -MAX_BACKWARD) {
+					continue;
+				}
+				double dx = tx - ballX, dy = ty - ballY;
+				double d = Math.sqrt(dx * dx + dy * dy);
+				if (d < MIN_DISTANCE) {
+					continue;
+				}
+				// a bola perde (1 - decay) da velocidade por ciclo: anda (v0 - v) / (1 - decay) ate ficar com v
+				double v0 = Math.min(maxSpeed, END_SPEED + d * (1 - ballDecay));
+				if (v0 - d * (1 - ballDecay) < MIN_END_SPEED) {
+					continue;
+				}
+				targetX[count] = tx;
+				targetY[count] = ty;
+				speed[count] = v0;
+				vx[count] = v0 * dx / d;
+				vy[count] = v0 * dy / d;
+				receiver[count] = j;
+				count++;
+			}
+		}
+	}
+
+	/* Area de trabalho de uma thread; escreve so em score[from, to) */
+	private final class Chunk {
+		private final int[] opponentCycles = new int[Formation.MAX_PLAYERS];
+		private final double[] rx = new double[1], ry = new double[1], rcos = new double[1], rsin = new double[1];
+		private final int[] receiverCycle = new int[1];
+
+		void score(int from, int to) {
+			for (int i = from; i < to; i++) {
+				int j = receiver[i];
+				rx[0] = mateX[j];
+				ry[0] = mateY[j];
+				rcos[0] = mateCos[j];
+				rsin[0] = mateSin[j];
+				solver.solve(ballX, ballY, vx[i], vy[i], rx, ry, rcos, rsin, 1, receiverCycle);
+				int mine = receiverCycle[0];
+				int theirs = InterceptionSolver.NEVER;
+				if (opponents > 0) {
+					solver.solve(ballX, ballY, vx[i], vy[i], oppX, oppY, oppCos, oppSin, opponents, opponentCycles);
+					for (int k = 0; k < opponents; k++) {
+						theirs = Math.min(theirs, opponentCycles[k]);
+					}
+				}
+				if (mine == InterceptionSolver.NEVER || mine + SAFETY_CYCLES > theirs) {
+					score[i] = Double.NEGATIVE_INFINITY;
+				} else {
+					score[i] = Math.min(theirs - mine, MARGIN_CAP) + PROGRESS_WEIGHT * (targetX[i] - ballX) * attack;
+				}
+			}
+		}
+	}
+
+	int size() {
+		return count;
+	}
+
+	int getReceiver(int c) {
+		return receiver[c];
+	}
+
+	double getTargetX(int c) {
+		return targetX[c];
+	}
+
+	double getTargetY(int c) {
+		return targetY[c];
+	}
+
+	double getSpeed(int c) {
+		return speed[c];
+	}
+
+	double getScore(int c) {
+		return score[c];
+	}
+
+}
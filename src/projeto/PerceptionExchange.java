@@ -0,0 +1,151 @@
+package projeto;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import simple_soccer_lib.PlayerCommander;
+import simple_soccer_lib.perception.FieldPerception;
+import simple_soccer_lib.perception.MatchPerception;
+import simple_soccer_lib.perception.PlayerPerception;
+
+/**
+ * Troca sem locks das percepcoes de um jogador entre a thread que le o
+ * commander (uma so: o loop do jogador ou a thread de I/O do
+ * {@link TeamDispatcher}) e quem decide: o escritor monta um
+ * {@link PerceptionSnapshot} imutavel por ciclo e o publica numa
+ * AtomicReference; cada leitor pega o snapshot inteiro com um get().
+ *
+ * A biblioteca atualiza as percepcoes na thread de rede, entao o escritor
+ * le self, campo e partida e depois pergunta ao {@link CycleSynchronizer} se
+ * o ciclo virou: se chegou um sense_body no meio (captura rasgada), o
+ * synchronizer ja conta o ciclo novo e a captura recomeca com o self dele,
+ * marcada com o numero desse ciclo. So o synchronizer chama perceiveSelf()
+ * e perceiveMatch() (a partida vem dele), entao nenhum ciclo se perde nem
+ * fica com o numero errado. Sao
+ * contadas as capturas rasgadas, os ciclos sem visao nova (o campo anterior
+ * e mantido, marcado como velho) e as leituras de um snapshot com mais de
+ * um ciclo de idade.
+ */
+final class PerceptionExchange {
+	private static final int MAX_RETRIES = 3;
+
+	private final PlayerCommander commander;
+	private final CycleSynchronizer cycleSync;
+	private final long stepNanos;
+	private final AtomicReference<PerceptionSnapshot> latest = new AtomicReference<PerceptionSnapshot>();
+
+	/* Do escritor (uma thread so); volatile para os relatorios */
+	private volatile long published;
+	private volatile long tornCaptures;
+	private volatile long staleFields;
+
+	private final LongAdder reads = new LongAdder();
+	private final LongAdder staleReads = new LongAdder();
+
+	PerceptionExchange(PlayerCommander commander, CycleSynchronizer cycleSync, int simulatorStepMillis) {
+		this.commander = commander;
+		this.cycleSync = cycleSync;
+		this.stepNanos = TimeUnit.MILLISECONDS.toNanos(simulatorStepMillis);
+	}
+
+	/**
+	 * Escritor: completa o self que abriu o ciclo com o campo e a partida
+	 * atuais e publica o snapshot. O que a biblioteca nao renovou (null) fica
+	 * como no snapshot anterior. Deve rodar na thread que consulta o
+	 * synchronizer; se o ciclo virar durante a captura, o snapshot sai com o
+	 * numero do ciclo novo.
+	 */
+	PerceptionSnapshot publish(long cycle, PlayerPerception self) {
+		PerceptionSnapshot previous = latest.get();
+		FieldPerception field = null;
+		MatchPerception match = null;
+		for (int attempt = 0;; attempt++) {
+			FieldPerception f = commander.perceiveField();
+			MatchPerception m = cycleSync.getMatch();
+			if (f != null) {
+				field = f;
+			}
+			if (m != null) {
+				match = m;
+			}
+			if (attempt == MAX_RETRIES) {
+				break;
+			}
+			PlayerPerception again = cycleSync.pollNextCycle();
+			if (again == null) {
+				break;
+			}
+			tornCaptures++; // o ciclo virou durante a captura: fica tudo do mais novo
+			self = again;
+			cycle = cycleSync.getCycles();
+		}
+		return publish(cycle, self, field, match, previous);
+	}
+
+	/** Escritor, com as tres percepcoes ja lidas (inicio da partida). */
+	PerceptionSnapshot publish(long cycle, PlayerPerception self, FieldPerception field, MatchPerception match) {
+		return publish(cycle, self, field, match, latest.get());
+	}
+
+	private PerceptionSnapshot publish(long cycle, PlayerPerception self, FieldPerception field,
+			MatchPerception match, PerceptionSnapshot previous) {
+		boolean freshField = field != null && (previous == null || field != previous.getField());
+		if (previous != null) {
+			if (self == null) {
+				self = previous.getSelf();
+			}
+			if (field == null) {
+				field = previous.getField();
+			}
+			if (match == null) {
+				match = previous.getMatch();
+			}
+		}
+		if (!freshField) {
+			staleFields++;
+		}
+		PerceptionSnapshot snapshot = new PerceptionSnapshot(cycle, System.nanoTime(), self, field, match,
+				freshField);
+		latest.set(snapshot);
+		published++;
+		return snapshot;
+	}
+
+	/** Leitor: o snapshot mais recente, ou null antes do primeiro. */
+	PerceptionSnapshot read() {
+		PerceptionSnapshot s = latest.get();
+		reads.increment();
+		if (s != null && System.nanoTime() - s.getCapturedNanos() > stepNanos) {
+			staleReads.increment(); // a decisao comecou depois do ciclo seguinte
+		}
+		return s;
+	}
+
+	long getPublished() {
+		return published;
+	}
+
+	long getTornCaptures() {
+		return tornCaptures;
+	}
+
+	long getStaleFields() {
+		return staleFields;
+	}
+
+	long getReads() {
+		return reads.sum();
+	}
+
+	long getStaleReads() {
+		return staleReads.sum();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("snapshots=%d torn=%d staleFields=%d reads=%d staleReads=%d", published, tornCaptures,
+				staleFields, getReads(), getStaleReads());
+	}
+
+}
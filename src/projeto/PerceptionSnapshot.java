@@ -0,0 +1,57 @@
+package projeto;
+
+import simple_soccer_lib.perception.FieldPerception;
+import simple_soccer_lib.perception.MatchPerception;
+import simple_soccer_lib.perception.PlayerPerception;
+
+/**
+ * Percepcoes de um ciclo (self, campo e partida) juntas e imutaveis,
+ * marcadas com o ciclo do {@link CycleSynchronizer} em que foram lidas. E
+ * publicada inteira pela {@link PerceptionExchange}, entao uma decisao nunca
+ * mistura dados de ciclos diferentes.
+ */
+final class PerceptionSnapshot {
+	private final long cycle;
+	private final long capturedNanos;
+	private final PlayerPerception self;
+	private final FieldPerception field;
+	private final MatchPerception match;
+	private final boolean freshField;
+
+	PerceptionSnapshot(long cycle, long capturedNanos, PlayerPerception self, FieldPerception field,
+			MatchPerception match, boolean freshField) {
+		this.cycle = cycle;
+		this.capturedNanos = capturedNanos;
+		this.self = self;
+		this.field = field;
+		this.match = match;
+		this.freshField = freshField;
+	}
+
+	long getCycle() {
+		return cycle;
+	}
+
+	/** Instante (System.nanoTime) da captura. */
+	long getCapturedNanos() {
+		return capturedNanos;
+	}
+
+	PlayerPerception getSelf() {
+		return self;
+	}
+
+	FieldPerception getField() {
+		return field;
+	}
+
+	MatchPerception getMatch() {
+		return match;
+	}
+
+	/** false se nao chegou visao nova neste ciclo e o campo e o do snapshot anterior. */
+	boolean isFreshField() {
+		return freshField;
+	}
+
+}
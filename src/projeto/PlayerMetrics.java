@@ -0,0 +1,120 @@
+package projeto;
+
+import java.io.PrintWriter;
+
+/**
+ * Metricas por ciclo de um jogador: idade da percepcao quando a decisao
+ * comeca, tempo de decisao, comandos enviados por ciclo, tempo bloqueado nos
+ * do*Blocking, latencia de confirmacao dos comandos assincronos e transicoes
+ * entre estados. Cada histograma tem um unico thread que grava (o do jogador,
+ * ou o de envio do {@link AsyncCommands}) e tudo e exportado periodicamente
+ * pelo {@link MetricsExporter}.
+ */
+public class PlayerMetrics {
+	private static final BarcelonaPlayer.State[] STATES = BarcelonaPlayer.State.values();
+
+	private final String name;
+	private final Histogram perceptionAge = new Histogram();
+	private final Histogram decisionTime = new Histogram();
+	private final Histogram commandsPerCycle = new Histogram();
+	private final Histogram blockingTime = new Histogram();
+	private final Histogram ackLatency = new Histogram();
+	private final long[] transitions = new long[STATES.length * STATES.length];
+	private long cycles;
+
+	public PlayerMetrics(String name) {
+		this.name = name;
+	}
+
+	public void perceptionAge(long nanos) {
+		perceptionAge.record(nanos);
+	}
+
+	public void decisionTime(long nanos) {
+		decisionTime.record(nanos);
+	}
+
+	public void commandsSent(long commands) {
+		commandsPerCycle.record(commands);
+		cycles++;
+	}
+
+	public void blocked(long nanos) {
+		blockingTime.record(nanos);
+	}
+
+	public void acknowledged(long nanos) {
+		ackLatency.record(nanos);
+	}
+
+	public void transition(BarcelonaPlayer.State from, BarcelonaPlayer.State to) {
+		if (from != null && to != null && from != to) {
+			transitions[from.ordinal() * STATES.length + to.ordinal()]++;
+		}
+	}
+
+	public long getTransitions(BarcelonaPlayer.State from, BarcelonaPlayer.State to) {
+		return transitions[from.ordinal() * STATES.length + to.ordinal()];
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long getCycles() {
+		return cycles;
+	}
+
+	public Histogram getPerceptionAge() {
+		return perceptionAge;
+	}
+
+	public Histogram getDecisionTime() {
+		return decisionTime;
+	}
+
+	public Histogram getCommandsPerCycle() {
+		return commandsPerCycle;
+	}
+
+	public Histogram getBlockingTime() {
+		return blockingTime;
+	}
+
+	public Histogram getAckLatency() {
+		return ackLatency;
+	}
+
+	static void writeHeader(PrintWriter out) {
+		out.print("time_ms,player,cycles");
+		for (String h : new String[] { "perception_age_us", "decision_us", "blocking_us", "ack_us" }) {
+			out.print("," + h + "_p50," + h + "_p99," + h + "_max");
+		}
+		out.print(",commands_mean");
+		for (BarcelonaPlayer.State from : STATES) {
+			for (BarcelonaPlayer.State to : STATES) {
+				if (from != to) {
+					out.print("," + from + ">" + to);
+				}
+			}
+		}
+		out.println();
+	}
+
+	void writeRow(PrintWriter out, long timeMillis) {
+		out.print(timeMillis + "," + name + "," + cycles);
+		for (Histogram h : new Histogram[] { perceptionAge, decisionTime, blockingTime, ackLatency }) {
+			out.printf(",%d,%d,%d", h.percentile(0.5) / 1000, h.percentile(0.99) / 1000, h.getMax() / 1000);
+		}
+		out.printf(",%.2f", commandsPerCycle.getMean());
+		for (BarcelonaPlayer.State from : STATES) {
+			for (BarcelonaPlayer.State to : STATES) {
+				if (from != to) {
+					out.print("," + getTransitions(from, to));
+				}
+			}
+		}
+		out.println();
+	}
+
+}
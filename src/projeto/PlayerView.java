@@ -0,0 +1,101 @@
+package projeto;
+
+import simple_soccer_lib.perception.FieldPerception;
+import simple_soccer_lib.perception.MatchPerception;
+import simple_soccer_lib.perception.PlayerPerception;
+import simple_soccer_lib.utils.EFieldSide;
+import simple_soccer_lib.utils.EMatchState;
+import simple_soccer_lib.utils.Vector2D;
+
+/**
+ * O que a logica de decisao de um jogador enxerga no ciclo atual: o proprio
+ * jogador, a bola, o estado da partida, o {@link WorldModel} do time e um
+ * {@link SpatialIndex} com os dois times, atualizado junto com o modelo.
+ *
+ * Em partida e preenchida a partir das percepcoes da biblioteca; em
+ * benchmarks e no replay, diretamente pelos setters. Os vetores sao
+ * reaproveitados de um ciclo para o outro.
+ */
+public class PlayerView {
+	private String team = "";
+	private int uniformNumber;
+	private EFieldSide side = EFieldSide.LEFT;
+	private final Vector2D position = new Vector2D(0, 0);
+	private final Vector2D direction = new Vector2D(1, 0);
+	private final Vector2D ballPosition = new Vector2D(0, 0);
+	private EMatchState matchState = EMatchState.BEFORE_KICK_OFF;
+	private WorldModel world;
+	private final SpatialIndex index = new SpatialIndex();
+
+	public void load(PlayerPerception self, FieldPerception field, MatchPerception match) {
+		Vector2D pos = self.getPosition();
+		Vector2D dir = self.getDirection();
+		setSelf(self.getTeam(), self.getUniformNumber(), self.getSide(), pos.getX(), pos.getY(), dir.getX(),
+				dir.getY());
+		Vector2D ball = field.getBall().getPosition();
+		setBall(ball.getX(), ball.getY());
+		matchState = match.getState();
+	}
+
+	public void setSelf(String team, int uniformNumber, EFieldSide side, double x, double y, double dirX,
+			double dirY) {
+		this.team = team;
+		this.uniformNumber = uniformNumber;
+		this.side = side;
+		position.setX(x);
+		position.setY(y);
+		direction.setX(dirX);
+		direction.setY(dirY);
+	}
+
+	public void setBall(double x, double y) {
+		ballPosition.setX(x);
+		ballPosition.setY(y);
+	}
+
+	public void setMatchState(EMatchState matchState) {
+		this.matchState = matchState;
+	}
+
+	public void setWorld(WorldModel world) {
+		this.world = world;
+		index.load(world);
+	}
+
+	public String getTeam() {
+		return team;
+	}
+
+	public int getUniformNumber() {
+		return uniformNumber;
+	}
+
+	public EFieldSide getSide() {
+		return side;
+	}
+
+	public Vector2D getPosition() {
+		return position;
+	}
+
+	public Vector2D getDirection() {
+		return direction;
+	}
+
+	public Vector2D getBallPosition() {
+		return ballPosition;
+	}
+
+	public EMatchState getMatchState() {
+		return matchState;
+	}
+
+	public WorldModel getWorld() {
+		return world;
+	}
+
+	public SpatialIndex getIndex() {
+		return index;
+	}
+
+}
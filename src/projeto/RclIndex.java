@@ -0,0 +1,580 @@
+package projeto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Indice de um log de comandos do rcssserver (.rcl, linhas
+ * "ciclo,subciclo\tRecv Time_N: (comando ...)" e "ciclo,subciclo\t(referee ...)").
+ *
+ * O log e lido mapeado em memoria, em janelas, sem criar Strings por linha;
+ * o indice guarda por linha o offset, o ciclo, o jogador e o tipo do comando
+ * em colunas, num arquivo ao lado do log (log.idx) que e mapeado nas
+ * consultas. Como os ciclos do .rcl sao crescentes, uma faixa de ciclos e
+ * achada por busca binaria e so ela e varrida. Cada coluna e mapeada em
+ * pedacos de 1 GB, entao o indice pode passar de 2 GB.
+ *
+ * uso: RclIndex [-p jogador] [-c comando] [-from ciclo] [-to ciclo] [-count | -histogram] arquivo...
+ * ex.: RclIndex -p BarcelonaFC_a_5 -c kick -from 1000 -to 2000 partida.rcl
+ */
+public final class RclIndex implements AutoCloseable {
+	/** Tipos de linha; OTHER para comandos desconhecidos. */
+	public enum Type {
+		REFEREE, INIT, DASH, TURN, KICK, MOVE, CATCH, TURN_NECK, SAY, CHANGE_VIEW, BYE, OTHER;
+
+		final byte[] word = name().toLowerCase().getBytes(StandardCharsets.US_ASCII);
+
+		static Type parse(String s) {
+			return valueOf(s.toUpperCase());
+		}
+	}
+
+	private static final Type[] TYPES = Type.values();
+	private static final int MAGIC = 0x494c4352; // "RCLI"
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 48;
+	private static final long WINDOW = 256L << 20;
+	private static final short NO_PLAYER = -1;
+
+	private final File log;
+	private final FileChannel indexChannel;
+	private final String[] players;
+	private final int entries;
+	private final boolean ascending;
+	private final Column offsets, cycles, playerIds, types;
+	private FileChannel logChannel;
+
+	private RclIndex(File log, File indexFile) throws IOException {
+		this.log = log;
+		indexChannel = new RandomAccessFile(indexFile, "r").getChannel();
+		ByteBuffer h = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		indexChannel.read(h, 0);
+		if (h.position() != HEADER_SIZE || h.getInt(0) != MAGIC || h.getInt(4) != VERSION) {
+			indexChannel.close();
+			throw new IOException("not an rcl index: " + indexFile);
+		}
+		entries = h.getInt(24);
+		players = new String[h.getInt(28)];
+		ascending = h.getInt(32) != 0;
+		long namesEnd = h.getLong(40);
+		MappedByteBuffer b = indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, namesEnd);
+		b.order(ByteOrder.LITTLE_ENDIAN);
+		int at = HEADER_SIZE;
+		for (int i = 0; i < players.length; i++) {
+			byte[] name = new byte[b.getShort(at)];
+			for (int j = 0; j < name.length; j++) {
+				name[j] = b.get(at + 2 + j);
+			}
+			players[i] = new String(name, StandardCharsets.US_ASCII);
+			at += 2 + name.length;
+		}
+		long column = (at + 7) & ~7;
+		offsets = new Column(indexChannel, column, 8L * entries);
+		column += 8L * entries;
+		cycles = new Column(indexChannel, column, 4L * entries);
+		column += 4L * entries;
+		playerIds = new Column(indexChannel, column, 2L * entries);
+		column += 2L * entries;
+		types = new Column(indexChannel, column, entries);
+	}
+
+	/* Coluna do indice mapeada em pedacos de CHUNK bytes; os elementos (1 a 8 bytes) nunca cruzam pedacos */
+	private static final class Column {
+		private static final int CHUNK_BITS = 30;
+		private static final long CHUNK = 1L << CHUNK_BITS;
+		private final MappedByteBuffer[] chunks;
+
+		Column(FileChannel channel, long start, long length) throws IOException {
+			chunks = new MappedByteBuffer[(int) ((length + CHUNK - 1) >>> CHUNK_BITS)];
+			for (int i = 0; i < chunks.length; i++) {
+				long at = (long) i << CHUNK_BITS;
+				chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start + at, Math.min(CHUNK, length - at));
+				chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+			}
+		}
+
+		long getLong(int i) {
+			long p = (long) i << 3;
+			return chunks[(int) (p >>> CHUNK_BITS)].getLong((int) (p & (CHUNK - 1)));
+		}
+
+		int getInt(int i) {
+			long p = (long) i << 2;
+			return chunks[(int) (p >>> CHUNK_BITS)].getInt((int) (p & (CHUNK - 1)));
+		}
+
+		short getShort(int i) {
+			long p = (long) i << 1;
+			return chunks[(int) (p >>> CHUNK_BITS)].getShort((int) (p & (CHUNK - 1)));
+		}
+
+		byte get(int i) {
+			return chunks[i >>> CHUNK_BITS].get(i & (int) (CHUNK - 1));
+		}
+	}
+
+	/** Abre o indice do log, construindo-o antes se ele nao existe ou e mais velho que o log. */
+	public static RclIndex open(File log) throws IOException {
+		File indexFile = new File(log.getPath() + ".idx");
+		if (!indexFile.exists() || indexFile.lastModified() < log.lastModified()
+				|| indexedSize(indexFile) != log.length()) {
+			build(log, indexFile);
+		}
+		return new RclIndex(log, indexFile);
+	}
+
+	/* Tamanho do log quando o indice foi feito; -1 se nao for um indice */
+	private static long indexedSize(File indexFile) throws IOException {
+		try (FileChannel c = new RandomAccessFile(indexFile, "r").getChannel()) {
+			ByteBuffer b = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+			c.read(b, 0);
+			return b.position() == 16 && b.getInt(0) == MAGIC && b.getInt(4) == VERSION ? b.getLong(8) : -1;
+		}
+	}
+
+	/* Construcao */
+
+	/** Le o log inteiro e grava o indice; devolve o numero de linhas indexadas. */
+	public static int build(File log, File indexFile) throws IOException {
+		Builder builder = new Builder();
+		try (FileChannel in = new RandomAccessFile(log, "r").getChannel()) {
+			long size = in.size();
+			long base = 0;
+			while (base < size) {
+				MappedByteBuffer w = in.map(FileChannel.MapMode.READ_ONLY, base, Math.min(WINDOW, size - base));
+				int consumed = builder.scan(w, base, base + w.limit() == size, log);
+				if (consumed == 0) {
+					throw new IOException("line longer than " + WINDOW + " bytes at offset " + base);
+				}
+				base += consumed;
+			}
+		}
+		builder.write(indexFile, log.length());
+		return builder.count;
+	}
+
+	private static final class Builder {
+		long[] offsets = new long[1 << 16];
+		int[] cycles = new int[1 << 16];
+		short[] players = new short[1 << 16];
+		byte[] types = new byte[1 << 16];
+		int count;
+		boolean ascending = true;
+		final List<byte[]> names = new ArrayList<byte[]>();
+		int[] table = new int[256]; // hash aberto: indice em names + 1, no maximo meio cheio
+		final byte[] key = new byte[256];
+
+		/* Indexa as linhas completas da janela; devolve quantos bytes consumiu */
+		int scan(ByteBuffer w, long base, boolean last, File log) throws IOException {
+			int n = w.limit();
+			int pos = 0;
+			while (pos < n) {
+				int eol = pos;
+				while (eol < n && w.get(eol) != '\n') {
+					eol++;
+				}
+				if (eol == n && !last) {
+					return pos; // linha cortada: a proxima janela comeca nela
+				}
+				if (!line(w, pos, eol, base + pos)) {
+					throw new IOException("more than " + (Short.MAX_VALUE + 1) + " players in " + log);
+				}
+				pos = eol + 1;
+			}
+			return n;
+		}
+
+		/* false se o jogador da linha nao cabe mais nos ids de 16 bits */
+		private boolean line(ByteBuffer w, int pos, int end, long offset) {
+			int cycle = 0;
+			int i = pos;
+			boolean digits = false;
+			while (i < end && w.get(i) >= '0' && w.get(i) <= '9') {
+				cycle = cycle * 10 + (w.get(i++) - '0');
+				digits = true;
+			}
+			if (!digits) {
+				return true;
+			}
+			while (i < end && w.get(i) != '\t') {
+				i++;
+			}
+			i++;
+			short player = NO_PLAYER;
+			if (startsWith(w, i, end, "Recv ")) {
+				i += 5;
+				int nameStart = i;
+				while (i < end && w.get(i) != ':') {
+					i++;
+				}
+				int id = player(w, nameStart, i);
+				if (id > Short.MAX_VALUE) {
+					return false;
+				}
+				player = (short) id;
+				i++;
+			}
+			while (i < end && w.get(i) != '(') {
+				i++;
+			}
+			i++;
+			int wordStart = i;
+			while (i < end && w.get(i) != ' ' && w.get(i) != ')' && w.get(i) != '\r') {
+				i++;
+			}
+			Type type = type(w, wordStart, i);
+			if (player == NO_PLAYER && type != Type.REFEREE) {
+				return true;
+			}
+			add(offset, cycle, player, type);
+			return true;
+		}
+
+		private static boolean startsWith(ByteBuffer w, int i, int end, String s) {
+			if (end - i < s.length()) {
+				return false;
+			}
+			for (int k = 0; k < s.length(); k++) {
+				if (w.get(i + k) != s.charAt(k)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private static Type type(ByteBuffer w, int start, int end) {
+			for (Type t : TYPES) {
+				byte[] word = t.word;
+				if (word.length == end - start) {
+					int k = 0;
+					while (k < word.length && w.get(start + k) == word[k]) {
+						k++;
+					}
+					if (k == word.length) {
+						return t;
+					}
+				}
+			}
+			return Type.OTHER;
+		}
+
+		/* Id do nome do jogador, sem criar String */
+		private int player(ByteBuffer w, int start, int end) {
+			int len = Math.min(end - start, key.length);
+			int h = 0;
+			for (int k = 0; k < len; k++) {
+				key[k] = w.get(start + k);
+				h = h * 31 + key[k];
+			}
+			int mask = table.length - 1;
+			for (int slot = h & mask;; slot = (slot + 1) & mask) {
+				int id = table[slot] - 1;
+				if (id < 0) {
+					names.add(Arrays.copyOf(key, len));
+					table[slot] = names.size();
+					if (2 * names.size() > table.length) {
+						grow();
+					}
+					return names.size() - 1;
+				}
+				byte[] name = names.get(id);
+				if (name.length == len && equals(name, key, len)) {
+					return id;
+				}
+			}
+		}
+
+		private void grow() {
+			table = new int[table.length * 2];
+			int mask = table.length - 1;
+			for (int id = 0; id < names.size(); id++) {
+				byte[] name = names.get(id);
+				int h = 0;
+				for (byte c : name) {
+					h = h * 31 + c;
+				}
+				int slot = h & mask;
+				while (table[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				table[slot] = id + 1;
+			}
+		}
+
+		private static boolean equals(byte[] a, byte[] b, int len) {
+			for (int k = 0; k < len; k++) {
+				if (a[k] != b[k]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void add(long offset, int cycle, short player, Type type) {
+			if (count == offsets.length) {
+				int capacity = count * 2;
+				offsets = Arrays.copyOf(offsets, capacity);
+				cycles = Arrays.copyOf(cycles, capacity);
+				players = Arrays.copyOf(players, capacity);
+				types = Arrays.copyOf(types, capacity);
+			}
+			if (count > 0 && cycle < cycles[count - 1]) {
+				ascending = false;
+			}
+			offsets[count] = offset;
+			cycles[count] = cycle;
+			players[count] = player;
+			types[count] = (byte) type.ordinal();
+			count++;
+		}
+
+		/* Escrito em sequencia por um buffer, ja que o indice pode passar de 2 GB */
+		void write(File indexFile, long logSize) throws IOException {
+			long namesEnd = HEADER_SIZE;
+			for (byte[] name : names) {
+				namesEnd += 2 + name.length;
+			}
+			try (FileChannel out = new RandomAccessFile(indexFile, "rw").getChannel()) {
+				out.truncate(0);
+				ByteBuffer b = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+				b.putInt(MAGIC).putInt(VERSION).putLong(logSize).putLong(0);
+				b.putInt(count).putInt(names.size()).putInt(ascending ? 1 : 0).putInt(0);
+				b.putLong(namesEnd);
+				for (byte[] name : names) {
+					room(out, b, 2 + name.length).putShort((short) name.length).put(name);
+				}
+				for (long at = namesEnd; (at & 7) != 0; at++) {
+					room(out, b, 1).put((byte) 0);
+				}
+				for (int i = 0; i < count; i++) {
+					room(out, b, 8).putLong(offsets[i]);
+				}
+				for (int i = 0; i < count; i++) {
+					room(out, b, 4).putInt(cycles[i]);
+				}
+				for (int i = 0; i < count; i++) {
+					room(out, b, 2).putShort(players[i]);
+				}
+				for (int i = 0; i < count; i++) {
+					room(out, b, 1).put(types[i]);
+				}
+				flush(out, b);
+				out.force(false);
+			}
+		}
+
+		private static ByteBuffer room(FileChannel out, ByteBuffer b, int bytes) throws IOException {
+			if (b.remaining() < bytes) {
+				flush(out, b);
+			}
+			return b;
+		}
+
+		private static void flush(FileChannel out, ByteBuffer b) throws IOException {
+			b.flip();
+			while (b.hasRemaining()) {
+				out.write(b);
+			}
+			b.clear();
+		}
+	}
+
+	/* Consultas */
+
+	public int size() {
+		return entries;
+	}
+
+	public int getCycle(int entry) {
+		return cycles.getInt(entry);
+	}
+
+	public long getOffset(int entry) {
+		return offsets.getLong(entry);
+	}
+
+	public Type getType(int entry) {
+		return TYPES[types.get(entry)];
+	}
+
+	/** Nome do jogador da linha, ou null para linhas do juiz. */
+	public String getPlayer(int entry) {
+		short id = playerIds.getShort(entry);
+		return id < 0 ? null : players[id];
+	}
+
+	/** Id interno do jogador, -1 se ele nao aparece no log; null aceita qualquer um. */
+	private int playerId(String name) {
+		if (name == null) {
+			return Integer.MIN_VALUE;
+		}
+		for (int i = 0; i < players.length; i++) {
+			if (players[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/** Primeira linha com ciclo >= cycle. */
+	public int firstAtOrAfter(int cycle) {
+		if (!ascending) {
+			return 0;
+		}
+		int lo = 0, hi = entries;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (getCycle(mid) < cycle) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Linhas do jogador (null = todos) com o tipo dado (null = todos) nos
+	 * ciclos [from, to]; escreve as entradas em out e devolve quantas achou
+	 * (mesmo alem do tamanho de out).
+	 */
+	public int find(String player, Type type, int from, int to, int[] out) {
+		int id = playerId(player);
+		if (id == -1) {
+			return 0;
+		}
+		int found = 0;
+		for (int e = firstAtOrAfter(from); e < entries; e++) {
+			int cycle = getCycle(e);
+			if (cycle > to) {
+				if (ascending) {
+					break;
+				}
+				continue;
+			}
+			if (cycle < from || type != null && types.get(e) != type.ordinal()
+					|| id != Integer.MIN_VALUE && playerIds.getShort(e) != id) {
+				continue;
+			}
+			if (found < out.length) {
+				out[found] = e;
+			}
+			found++;
+		}
+		return found;
+	}
+
+	/** Comandos de jogadores por ciclo em [from, to]: histogram[c - from]. */
+	public int[] commandsPerCycle(int from, int to) {
+		int[] histogram = new int[to - from + 1];
+		for (int e = firstAtOrAfter(from); e < entries; e++) {
+			int cycle = getCycle(e);
+			if (cycle > to) {
+				if (ascending) {
+					break;
+				}
+				continue;
+			}
+			if (cycle >= from && playerIds.getShort(e) >= 0) {
+				histogram[cycle - from]++;
+			}
+		}
+		return histogram;
+	}
+
+	/** A linha do log, lida pelo offset guardado no indice. */
+	public String line(int entry) throws IOException {
+		if (logChannel == null) {
+			logChannel = new RandomAccessFile(log, "r").getChannel();
+		}
+		long offset = getOffset(entry);
+		ByteBuffer b = ByteBuffer.allocate((int) Math.min(4096, logChannel.size() - offset));
+		logChannel.read(b, offset);
+		String s = new String(b.array(), 0, b.position(), StandardCharsets.US_ASCII);
+		int eol = s.indexOf('\n');
+		return (eol < 0 ? s : s.substring(0, eol)).trim();
+	}
+
+	@Override
+	public void close() throws IOException {
+		indexChannel.close();
+		if (logChannel != null) {
+			logChannel.close();
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		String player = null;
+		Type type = null;
+		int from = 0, to = Integer.MAX_VALUE;
+		boolean count = false, histogram = false;
+		List<File> files = new ArrayList<File>();
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "-p":
+				player = args[++i];
+				break;
+			case "-c":
+				type = Type.parse(args[++i]);
+				break;
+			case "-from":
+				from = Integer.parseInt(args[++i]);
+				break;
+			case "-to":
+				to = Integer.parseInt(args[++i]);
+				break;
+			case "-count":
+				count = true;
+				break;
+			case "-histogram":
+				histogram = true;
+				break;
+			default:
+				files.add(new File(args[i]));
+				break;
+			}
+		}
+		if (files.isEmpty()) {
+			System.out.println("uso: RclIndex [-p jogador] [-c comando] [-from ciclo] [-to ciclo] "
+					+ "[-count | -histogram] arquivo...");
+			return;
+		}
+
+		long start = System.nanoTime();
+		long total = 0;
+		int[] hits = new int[count ? 0 : 100000];
+		for (File file : files) {
+			try (RclIndex index = RclIndex.open(file)) {
+				if (histogram) {
+					int last = Math.min(to, index.size() == 0 ? from : index.getCycle(index.size() - 1));
+					if (last < from) {
+						continue;
+					}
+					int[] h = index.commandsPerCycle(from, last);
+					for (int c = 0; c < h.length; c++) {
+						System.out.printf("%s,%d,%d%n", file.getName(), from + c, h[c]);
+					}
+					continue;
+				}
+				int found = index.find(player, type, from, to, hits);
+				total += found;
+				for (int i = 0; i < Math.min(found, hits.length); i++) {
+					System.out.println(file.getName() + ": " + index.line(hits[i]));
+				}
+			}
+		}
+		if (!histogram) {
+			System.err.printf("%d lines in %.1f ms%n", total, (System.nanoTime() - start) / 1e6);
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package projeto;
+
+/**
+ * Mede o tempo de reacao entre a bola ficar ao alcance do chute e o chute
+ * ser efetivamente enviado ao servidor.
+ */
+public class ReactionTimer {
+	private long kickableSince = -1;
+
+	private long reactions;
+	private long sumNanos;
+	private long maxNanos;
+
+	/** Chamado uma vez por ciclo com a situacao atual da bola. */
+	public void update(boolean ballKickable) {
+		if (!ballKickable) {
+			kickableSince = -1;
+		} else if (kickableSince < 0) {
+			kickableSince = System.nanoTime();
+		}
+	}
+
+	public void kickSent() {
+		if (kickableSince < 0) {
+			return;
+		}
+		long elapsed = System.nanoTime() - kickableSince;
+		reactions++;
+		sumNanos += elapsed;
+		if (elapsed > maxNanos) {
+			maxNanos = elapsed;
+		}
+		kickableSince = -1;
+	}
+
+	public long getReactions() {
+		return reactions;
+	}
+
+	public double getMeanMillis() {
+		return reactions == 0 ? 0 : sumNanos / (reactions * 1e6);
+	}
+
+	public double getMaxMillis() {
+		return maxNanos / 1e6;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("kickReactions=%d mean=%.1fms max=%.1fms", reactions, getMeanMillis(), getMaxMillis());
+	}
+
+}
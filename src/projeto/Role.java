@@ -0,0 +1,192 @@
+package projeto;
+
+import java.util.EnumMap;
+
+import simple_soccer_lib.utils.EFieldSide;
+import simple_soccer_lib.utils.EMatchState;
+
+/**
+ * Papel de um jogador: a acao para cada modo de jogo (as posicoes ficam na
+ * {@link Formation}). As tabelas sao montadas uma vez por lado, de
+ * modo que bolas paradas do adversario simplesmente nao tem acao, e a decisao
+ * do ciclo e so um EnumMap.get().
+ */
+final class Role {
+
+	/** Acao executada por um jogador no ciclo. */
+	interface Action {
+		void execute(BarcelonaPlayer player);
+	}
+
+	static final Action IDLE = p -> {
+	};
+
+	/* Bolas paradas em que o time cobrador toca a bola */
+	private static final EMatchState[][] SET_PIECES = {
+			{ EMatchState.KICK_OFF_LEFT, EMatchState.KICK_OFF_RIGHT },
+			{ EMatchState.CORNER_KICK_LEFT, EMatchState.CORNER_KICK_RIGHT },
+			{ EMatchState.KICK_IN_LEFT, EMatchState.KICK_IN_RIGHT },
+			{ EMatchState.FREE_KICK_LEFT, EMatchState.FREE_KICK_RIGHT },
+			{ EMatchState.FREE_KICK_FAULT_LEFT, EMatchState.FREE_KICK_FAULT_RIGHT },
+			{ EMatchState.INDIRECT_FREE_KICK_LEFT, EMatchState.INDIRECT_FREE_KICK_RIGHT } };
+
+	static final Role STEGEN = builder("stegen").goalie().setup(BarcelonaPlayer::setupGoalArea)
+			.on(EMatchState.BEFORE_KICK_OFF, BarcelonaPlayer::moveHome)
+			.on(EMatchState.PLAY_ON, BarcelonaPlayer::keepGoal)
+			.onOwn(EMatchState.GOAL_KICK_LEFT, EMatchState.GOAL_KICK_RIGHT, BarcelonaPlayer::goalKick)
+			.onOwn(EMatchState.FREE_KICK_LEFT, EMatchState.FREE_KICK_RIGHT, BarcelonaPlayer::releaseBall)
+			.build();
+
+	static final Role PIQUE = builder("pique").setup(BarcelonaPlayer::setupDefenseArea)
+			.on(EMatchState.BEFORE_KICK_OFF, BarcelonaPlayer::moveHome)
+			.on(EMatchState.AFTER_GOAL_LEFT, BarcelonaPlayer::moveHome)
+			.on(EMatchState.AFTER_GOAL_RIGHT, BarcelonaPlayer::moveHome)
+			.on(EMatchState.PLAY_ON, BarcelonaPlayer::defend)
+			.ownSetPieces(BarcelonaPlayer::passBall)
+			.onOwn(EMatchState.INDIRECT_FREE_KICK_LEFT, EMatchState.INDIRECT_FREE_KICK_RIGHT, IDLE)
+			.onOwn(EMatchState.GOAL_KICK_LEFT, EMatchState.GOAL_KICK_RIGHT, BarcelonaPlayer::executeStateMachine)
+			.build();
+
+	static final Role COUTINHO = midfielder("coutinho");
+
+	static final Role BUSQUETS = midfielder("busquets");
+
+	static final Role SUAREZ = forward("suarez")
+			.onOwn(EMatchState.GOAL_KICK_LEFT, EMatchState.GOAL_KICK_RIGHT, BarcelonaPlayer::executeStateMachine)
+			.build();
+
+	static final Role MESSI = forward("messi")
+			.onOwn(EMatchState.GOAL_KICK_LEFT, EMatchState.GOAL_KICK_RIGHT, BarcelonaPlayer::returnHome)
+			.build();
+
+	private static final Role[] ROLES = { STEGEN, PIQUE, COUTINHO, BUSQUETS, SUAREZ, MESSI };
+
+	private final String name;
+	private final boolean goalie;
+	private final Action setup;
+	private final EnumMap<EMatchState, Action> leftTable;
+	private final EnumMap<EMatchState, Action> rightTable;
+
+	private Role(Builder b) {
+		this.name = b.name;
+		this.goalie = b.goalie;
+		this.setup = b.setup;
+		this.leftTable = complete(b.left);
+		this.rightTable = complete(b.right);
+	}
+
+	private static EnumMap<EMatchState, Action> complete(EnumMap<EMatchState, Action> table) {
+		EnumMap<EMatchState, Action> full = new EnumMap<EMatchState, Action>(table);
+		for (EMatchState s : EMatchState.values()) {
+			if (!full.containsKey(s)) {
+				full.put(s, IDLE);
+			}
+		}
+		return full;
+	}
+
+	/** Papel pelo nome usado nos arquivos de formacao. */
+	static Role forName(String name) {
+		for (Role r : ROLES) {
+			if (r.name.equalsIgnoreCase(name)) {
+				return r;
+			}
+		}
+		throw new IllegalArgumentException("unknown role " + name);
+	}
+
+	/** Tabela completa (toda entrada tem acao) para o lado do time. */
+	EnumMap<EMatchState, Action> table(EFieldSide side) {
+		return side == EFieldSide.RIGHT ? rightTable : leftTable;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	boolean isGoalie() {
+		return goalie;
+	}
+
+	Action getSetup() {
+		return setup;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+	private static Role midfielder(String name) {
+		return builder(name)
+				.on(EMatchState.BEFORE_KICK_OFF, BarcelonaPlayer::moveHome)
+				.on(EMatchState.AFTER_GOAL_LEFT, BarcelonaPlayer::moveHome)
+				.on(EMatchState.AFTER_GOAL_RIGHT, BarcelonaPlayer::moveHome)
+				.on(EMatchState.PLAY_ON, BarcelonaPlayer::attack)
+				.ownSetPieces(BarcelonaPlayer::passBall)
+				.onOwn(EMatchState.GOAL_KICK_LEFT, EMatchState.GOAL_KICK_RIGHT, BarcelonaPlayer::executeStateMachine)
+				.build();
+	}
+
+	private static Builder forward(String name) {
+		return builder(name)
+				.on(EMatchState.BEFORE_KICK_OFF, BarcelonaPlayer::moveHome)
+				.on(EMatchState.AFTER_GOAL_LEFT, BarcelonaPlayer::moveHome)
+				.on(EMatchState.AFTER_GOAL_RIGHT, BarcelonaPlayer::moveHome)
+				.on(EMatchState.PLAY_ON, BarcelonaPlayer::executeStateMachine)
+				.ownSetPieces(BarcelonaPlayer::passBall);
+	}
+
+	static Builder builder(String name) {
+		return new Builder(name);
+	}
+
+	static final class Builder {
+		private final String name;
+		private boolean goalie;
+		private Action setup = IDLE;
+		private final EnumMap<EMatchState, Action> left = new EnumMap<EMatchState, Action>(EMatchState.class);
+		private final EnumMap<EMatchState, Action> right = new EnumMap<EMatchState, Action>(EMatchState.class);
+
+		private Builder(String name) {
+			this.name = name;
+		}
+
+		Builder goalie() {
+			goalie = true;
+			return this;
+		}
+
+		/** Executada uma vez, quando o jogador assume o papel. */
+		Builder setup(Action action) {
+			setup = action;
+			return this;
+		}
+
+		/** Mesma acao para os dois lados. */
+		Builder on(EMatchState state, Action action) {
+			left.put(state, action);
+			right.put(state, action);
+			return this;
+		}
+
+		/** Acao so quando o modo de jogo e do proprio time. */
+		Builder onOwn(EMatchState leftState, EMatchState rightState, Action action) {
+			left.put(leftState, action);
+			right.put(rightState, action);
+			return this;
+		}
+
+		Builder ownSetPieces(Action action) {
+			for (EMatchState[] pair : SET_PIECES) {
+				onOwn(pair[0], pair[1], action);
+			}
+			return this;
+		}
+
+		Role build() {
+			return new Role(this);
+		}
+	}
+
+}
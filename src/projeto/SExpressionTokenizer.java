@@ -0,0 +1,190 @@
+package projeto;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tokenizador de S-expressions do protocolo do rcssserver para mensagens
+ * recebidas num ByteBuffer (tipicamente o buffer direto do datagrama), sem
+ * criar Strings nem alocar: os atomos sao comparados com
+ * {@link #atomEquals(String)} e os numeros lidos com {@link #number()}.
+ *
+ * A mensagem e copiada de uma vez para um byte[] reaproveitado; ler byte a
+ * byte do buffer direto foi duas vezes mais lento (ver SExpressionBenchmark).
+ *
+ * Tokens: '(' , ')', atomos (palavras, numeros e strings entre aspas, com as
+ * aspas incluidas). Uma instancia e reaproveitada a cada mensagem e nao e
+ * thread-safe.
+ */
+public final class SExpressionTokenizer {
+	public static final int END = 0;
+	public static final int OPEN = 1;
+	public static final int CLOSE = 2;
+	public static final int ATOM = 3;
+
+	private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+			1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	private byte[] buf = new byte[8192];
+	private int pos, limit;
+	private int start, end; // atomo corrente
+	private int depth;
+
+	/** Passa a ler buf de position() ate limit(); a posicao do buffer nao muda. */
+	public void reset(ByteBuffer buf) {
+		int n = buf.remaining();
+		if (this.buf.length < n) {
+			this.buf = new byte[n];
+		}
+		int position = buf.position();
+		buf.get(this.buf, 0, n);
+		buf.position(position);
+		this.pos = 0;
+		this.limit = n;
+		this.depth = 0;
+		this.start = this.end = pos;
+	}
+
+	/** Proximo token: OPEN, CLOSE, ATOM ou END. */
+	public int next() {
+		while (pos < limit) {
+			byte b = buf[pos];
+			if (b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == 0) {
+				pos++;
+				continue;
+			}
+			if (b == '(') {
+				pos++;
+				depth++;
+				return OPEN;
+			}
+			if (b == ')') {
+				pos++;
+				depth--;
+				return CLOSE;
+			}
+			start = pos;
+			if (b == '"') {
+				pos++;
+				while (pos < limit && buf[pos] != '"') {
+					pos++;
+				}
+				pos = Math.min(pos + 1, limit);
+			} else {
+				while (pos < limit) {
+					b = buf[pos];
+					if (b == ' ' || b == '(' || b == ')' || b == '\n' || b == '\r' || b == '\t' || b == 0) {
+						break;
+					}
+					pos++;
+				}
+			}
+			end = pos;
+			return ATOM;
+		}
+		return END;
+	}
+
+	/** Pula o resto da lista corrente, ate o ')' que a fecha. */
+	public void skipList() {
+		int target = depth - 1;
+		int t;
+		while ((t = next()) != END) {
+			if (t == CLOSE && depth == target) {
+				return;
+			}
+		}
+	}
+
+	/** Nivel de parenteses depois do ultimo token. */
+	public int depth() {
+		return depth;
+	}
+
+	/** Se o atomo corrente e exatamente s (ASCII). */
+	public boolean atomEquals(String s) {
+		int n = end - start;
+		if (n != s.length()) {
+			return false;
+		}
+		for (int i = 0; i < n; i++) {
+			if (buf[start + i] != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int atomLength() {
+		return end - start;
+	}
+
+	/** Byte i do atomo corrente. */
+	public byte atomByte(int i) {
+		return buf[start + i];
+	}
+
+	/**
+	 * O atomo corrente como numero (inteiro, decimal ou com expoente); NaN se
+	 * nao e um numero. Para ate 15 digitos significativos o resultado e o
+	 * mesmo de Double.parseDouble.
+	 */
+	public double number() {
+		int i = start;
+		boolean negative = false;
+		if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+			negative = buf[i] == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0, scale = 0;
+		boolean dot = false, any = false;
+		for (; i < end; i++) {
+			byte b = buf[i];
+			if (b >= '0' && b <= '9') {
+				any = true;
+				if (digits < 18) {
+					mantissa = mantissa * 10 + (b - '0');
+					if (mantissa != 0) {
+						digits++;
+					}
+					if (dot) {
+						scale++;
+					}
+				} else if (!dot) {
+					scale--; // digitos alem da precisao so mudam a escala
+				}
+			} else if (b == '.' && !dot) {
+				dot = true;
+			} else {
+				break;
+			}
+		}
+		if (!any) {
+			return Double.NaN;
+		}
+		if (i < end && (buf[i] == 'e' || buf[i] == 'E')) {
+			i++;
+			boolean expNegative = false;
+			if (i < end && (buf[i] == '-' || buf[i] == '+')) {
+				expNegative = buf[i] == '-';
+				i++;
+			}
+			int exp = 0;
+			for (; i < end && buf[i] >= '0' && buf[i] <= '9'; i++) {
+				exp = Math.min(exp * 10 + (buf[i] - '0'), 1000);
+			}
+			scale += expNegative ? exp : -exp;
+		}
+		if (i != end) {
+			return Double.NaN;
+		}
+		double v = mantissa;
+		if (scale > 0) {
+			v = scale < POW10.length ? v / POW10[scale] : v / Math.pow(10, scale);
+		} else if (scale < 0) {
+			v = -scale < POW10.length ? v * POW10[-scale] : v * Math.pow(10, -scale);
+		}
+		return negative ? -v : v;
+	}
+
+}
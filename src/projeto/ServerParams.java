@@ -0,0 +1,82 @@
+package projeto;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parametros do rcssserver lidos do server.conf distribuido em tools/.
+ * Se o arquivo nao for encontrado, valem os defaults do servidor 14.
+ * Uma propriedade de sistema server.<nome> (ex.: -Dserver.simulator_step=5)
+ * tem precedencia sobre o arquivo.
+ */
+public class ServerParams {
+	public static final String DEFAULT_CONF = "tools/rcssserver-14.0.3-win/server.conf";
+
+	private static ServerParams instance;
+
+	private final Map<String, String> values = new HashMap<String, String>();
+
+	private ServerParams() {
+	}
+
+	public static synchronized ServerParams get() {
+		if (instance == null) {
+			instance = load(new File(DEFAULT_CONF));
+		}
+		return instance;
+	}
+
+	public static ServerParams load(File conf) {
+		ServerParams params = new ServerParams();
+		if (!conf.isFile()) {
+			return params;
+		}
+		try (BufferedReader in = new BufferedReader(new FileReader(conf))) {
+			String line;
+			while ((line = in.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				int eq = line.indexOf('=');
+				if (eq < 0) {
+					continue;
+				}
+				String key = line.substring(0, eq).trim();
+				if (key.startsWith("server::")) {
+					key = key.substring("server::".length());
+				}
+				params.values.put(key, line.substring(eq + 1).trim());
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return params;
+	}
+
+	public double getDouble(String key, double defaultValue) {
+		String v = System.getProperty("server." + key, values.get(key));
+		if (v == null) {
+			return defaultValue;
+		}
+		try {
+			return Double.parseDouble(v);
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	public int getInt(String key, int defaultValue) {
+		return (int) getDouble(key, defaultValue);
+	}
+
+	/** Duracao de um ciclo de simulacao, em milissegundos. */
+	public int simulatorStep() {
+		return getInt("simulator_step", 100);
+	}
+
+}
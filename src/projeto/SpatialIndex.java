@@ -0,0 +1,142 @@
+package projeto;
+
+/**
+ * Posicoes dos jogadores dos dois times em arrays primitivos, para consultas
+ * de vizinho mais proximo, raio e cone.
+ *
+ * Com no maximo 22 jogadores uma varredura linear sobre arrays contiguos e
+ * mais rapida que qualquer grade ou k-d tree (ver SpatialIndexBenchmark), entao
+ * o indice e so isso: {@link #load(WorldModel)} sobrescreve os arrays no
+ * lugar a cada ciclo. Pertence a um unico jogador (nao e thread-safe) e
+ * nenhuma consulta aloca: os resultados sao indices, escritos em arrays do
+ * chamador.
+ *
+ * Indices 0..getMateCount()-1 sao companheiros, na ordem do WorldModel; os
+ * demais sao adversarios.
+ */
+public final class SpatialIndex {
+	public static final int MATES = 1;
+	public static final int OPPONENTS = 2;
+	public static final int ALL = MATES | OPPONENTS;
+
+	private static final int MAX_ENTRIES = 2 * Formation.MAX_PLAYERS;
+
+	private final double[] x = new double[MAX_ENTRIES];
+	private final double[] y = new double[MAX_ENTRIES];
+	private final int[] uniform = new int[MAX_ENTRIES];
+	private int size;
+	private int mates;
+
+	/** Atualiza o indice com as posicoes do ciclo. */
+	public void load(WorldModel world) {
+		int n = Math.min(world.size(), MAX_ENTRIES);
+		int m = Math.min(world.getOpponentCount(), MAX_ENTRIES - n);
+		for (int i = 0; i < n; i++) {
+			x[i] = world.getX(i);
+			y[i] = world.getY(i);
+			uniform[i] = world.getUniform(i);
+		}
+		for (int j = 0; j < m; j++) {
+			x[n + j] = world.getOpponentX(j);
+			y[n + j] = world.getOpponentY(j);
+			uniform[n + j] = world.getOpponentUniform(j);
+		}
+		mates = n;
+		size = n + m;
+	}
+
+	/* Faixa de indices dos times em teamMask */
+	private int first(int teamMask) {
+		return (teamMask & MATES) != 0 ? 0 : mates;
+	}
+
+	private int last(int teamMask) {
+		return (teamMask & OPPONENTS) != 0 ? size : mates;
+	}
+
+	/**
+	 * Indice do jogador mais proximo do ponto entre os times de teamMask,
+	 * ignorando o indice skip; -1 se nao houver.
+	 */
+	public int nearest(double px, double py, int teamMask, int skip) {
+		int best = -1;
+		double bestSq = Double.MAX_VALUE;
+		for (int i = first(teamMask), end = last(teamMask); i < end; i++) {
+			if (i == skip) {
+				continue;
+			}
+			double dx = x[i] - px, dy = y[i] - py;
+			double d = dx * dx + dy * dy;
+			if (d < bestSq) {
+				bestSq = d;
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/** Jogadores a ate radius do ponto; escreve os indices em out e devolve quantos couberam. */
+	public int withinRadius(double px, double py, double radius, int teamMask, int[] out) {
+		double radiusSq = radius * radius;
+		int count = 0;
+		for (int i = first(teamMask), end = last(teamMask); i < end && count < out.length; i++) {
+			double dx = x[i] - px, dy = y[i] - py;
+			if (dx * dx + dy * dy <= radiusSq) {
+				out[count++] = i;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Jogadores a ate range do ponto e a no maximo halfAngle graus da direcao
+	 * dirDegrees; escreve os indices em out e devolve quantos couberam.
+	 */
+	public int withinCone(double px, double py, double dirDegrees, double halfAngle, double range, int teamMask,
+			int[] out) {
+		double rangeSq = range * range;
+		double rad = Math.toRadians(dirDegrees);
+		double dirX = Math.cos(rad), dirY = Math.sin(rad);
+		double cosHalf = Math.cos(Math.toRadians(Math.min(halfAngle, 180)));
+		int count = 0;
+		for (int i = first(teamMask), end = last(teamMask); i < end && count < out.length; i++) {
+			double dx = x[i] - px, dy = y[i] - py;
+			double d = dx * dx + dy * dy;
+			if (d > rangeSq) {
+				continue;
+			}
+			double along = dx * dirX + dy * dirY;
+			// cos(angulo) >= cosHalf, sem raiz quando o sinal ja decide
+			if (d == 0 || (along >= 0 ? cosHalf <= 0 || along * along >= cosHalf * cosHalf * d
+					: cosHalf < 0 && along * along <= cosHalf * cosHalf * d)) {
+				out[count++] = i;
+			}
+		}
+		return count;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getMateCount() {
+		return mates;
+	}
+
+	public boolean isOpponent(int i) {
+		return i >= mates;
+	}
+
+	public int getUniform(int i) {
+		return uniform[i];
+	}
+
+	public double getX(int i) {
+		return x[i];
+	}
+
+	public double getY(int i) {
+		return y[i];
+	}
+
+}
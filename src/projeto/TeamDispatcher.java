@@ -0,0 +1,104 @@
+package projeto;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Modo {@link ExecutionMode#TEAM_DISPATCHER}: um unico thread de I/O por time
+ * consulta as percepcoes de todos os jogadores e, quando um jogador recebe um
+ * ciclo novo, manda a decisao dele para um pool de decisao compartilhado por
+ * todos os times do processo.
+ *
+ * O thread de I/O publica o snapshot do ciclo na {@link PerceptionExchange}
+ * do jogador e a decisao o le de la, sem locks. Enquanto a decisao de um
+ * jogador esta no pool o dispatcher nao o consulta, entao cada jogador
+ * continua sendo usado por um thread de cada vez.
+ *
+ * As decisoes mandam os comandos de corpo sem bloquear ({@link LibraryCommands}
+ * nao bloqueante): uma decisao ocupa uma thread do pool so pelo tempo de CPU,
+ * por isso o pool tem uma thread por processador, e nao ha thread de envio
+ * por jogador.
+ */
+public class TeamDispatcher {
+	private static ExecutorService decisions;
+
+	private final String name;
+	private final List<Slot> players = new CopyOnWriteArrayList<Slot>();
+	private final long pollNanos;
+	private Thread thread;
+
+	private static final class Slot {
+		final BarcelonaPlayer player;
+		volatile boolean deciding;
+
+		Slot(BarcelonaPlayer player) {
+			this.player = player;
+		}
+	}
+
+	public TeamDispatcher(String name) {
+		this.name = name;
+		this.pollNanos = TimeUnit.MILLISECONDS.toNanos(ServerParams.get().simulatorStep())
+				/ CycleSynchronizer.POLLS_PER_STEP;
+	}
+
+	/* Threads daemon: a JVM termina quando os dispatchers (nao daemon) terminam */
+	private static synchronized ExecutorService decisions() {
+		if (decisions == null) {
+			final AtomicInteger count = new AtomicInteger();
+			decisions = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), r -> {
+				Thread t = new Thread(r, "team-decision-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return decisions;
+	}
+
+	public synchronized void add(BarcelonaPlayer player) {
+		players.add(new Slot(player));
+		if (thread == null) {
+			thread = new Thread(this::dispatchLoop, "team-io-" + name);
+			thread.start();
+		}
+	}
+
+	private void dispatchLoop() {
+		ExecutorService pool = decisions();
+		while (!players.isEmpty()) {
+			for (Slot s : players) {
+				if (s.deciding) {
+					continue;
+				}
+				if (!s.player.isActive()) {
+					s.player.finish();
+					players.remove(s);
+					continue;
+				}
+				if (s.player.pollCycle()) {
+					s.deciding = true;
+					pool.execute(() -> {
+						try {
+							s.player.decideOn();
+						} catch (RuntimeException e) {
+							e.printStackTrace();
+						} finally {
+							s.deciding = false;
+						}
+					});
+				}
+			}
+			LockSupport.parkNanos(pollNanos);
+		}
+	}
+
+	public int getActivePlayers() {
+		return players.size();
+	}
+
+}
@@ -0,0 +1,86 @@
+package projeto;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event loop compartilhado por todos os times do processo no modo
+ * {@link ExecutionMode#EVENT_LOOP}.
+ *
+ * Cada jogador vira uma tarefa periodica que chama {@link BarcelonaPlayer#step()}
+ * e devolve a thread logo em seguida, de modo que dezenas de times rodam em
+ * poucas threads em vez de uma thread por agente. Para isso o step() nunca
+ * pode bloquear: os jogadores deste modo mandam os comandos de corpo pelas
+ * versoes nao bloqueantes da biblioteca ({@link LibraryCommands}), sem nenhum
+ * thread de envio por jogador.
+ */
+public class TeamExecutor {
+	private static TeamExecutor shared;
+
+	private final ScheduledExecutorService loop;
+	private final AtomicInteger activePlayers = new AtomicInteger();
+
+	public TeamExecutor(int threads) {
+		final AtomicInteger count = new AtomicInteger();
+		loop = Executors.newScheduledThreadPool(threads, new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable r) {
+				return new Thread(r, "team-loop-" + count.incrementAndGet());
+			}
+		});
+	}
+
+	public static synchronized TeamExecutor shared() {
+		if (shared == null) {
+			shared = new TeamExecutor(Math.max(2, Runtime.getRuntime().availableProcessors() / 2));
+		}
+		return shared;
+	}
+
+	public void submit(final BarcelonaPlayer player) {
+		final ScheduledFuture<?>[] self = new ScheduledFuture<?>[1];
+		long period = player.getCycleSynchronizer().getPollNanos();
+		activePlayers.incrementAndGet();
+		synchronized (self) {
+			self[0] = loop.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					boolean alive;
+					try {
+						alive = player.step();
+					} catch (RuntimeException e) {
+						e.printStackTrace();
+						alive = false;
+					}
+					if (!alive) {
+						synchronized (self) {
+							self[0].cancel(false);
+						}
+						if (activePlayers.decrementAndGet() == 0) {
+							shutdown();
+						}
+					}
+				}
+			}, 0, period, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/* Sem jogadores ativos o pool e encerrado, para que a JVM possa terminar como no modo com threads */
+	private void shutdown() {
+		synchronized (TeamExecutor.class) {
+			if (shared == this) {
+				shared = null;
+			}
+		}
+		loop.shutdown();
+	}
+
+	public int getActivePlayers() {
+		return activePlayers.get();
+	}
+
+}
@@ -0,0 +1,293 @@
+package projeto;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import simple_soccer_lib.AbstractTeam;
+
+/**
+ * Roda varias partidas BarcelonaFC x adversario em paralelo, cada uma com seu
+ * {@link LocalSimulator}, e grava os resultados em CSV (como o CSVSaver do
+ * servidor, mas do lado do cliente e com posse de bola e linha do tempo).
+ *
+ * A biblioteca sempre conecta na porta do server.conf, entao o runner escuta
+ * essa porta e repassa cada init ao simulador da partida certa pelo sufixo do
+ * nome do time (ex.: BarcelonaFC_m3a). Depois do init cada jogador fala com o
+ * simulador da sua partida por um canal proprio. Cada time roda numa JVM
+ * filha, que e encerrada no fim da partida.
+ *
+ * uso: TournamentRunner [partidas] [paralelas] [adversario,...]
+ * ex.: java -Dserver.simulator_step=5 projeto.TournamentRunner 20 4 projeto.BarcelonaFC
+ */
+public class TournamentRunner {
+	private static final Pattern MATCH_SUFFIX = Pattern.compile("_m(\\d+)[ab]$");
+	/* Configuracao repassada as JVMs dos times; a formacao define quantos jogadores o simulador espera */
+	private static final String[] FORWARDED = { "server.", "commands.", "formation", "kick.", "goalie.", "pass.",
+			"metrics.", "record." };
+	/* Arquivos escritos pelos times: um por JVM */
+	private static final String[] PER_PROCESS = { "metrics.file", "record.file" };
+
+	/** Resultado de uma partida, do ponto de vista do BarcelonaFC. */
+	static class MatchResult {
+		int match;
+		String opponent;
+		String left, right;
+		int goalsLeft, goalsRight;
+		int possessionLeft, possessionRight;
+		int cycles;
+		long wallMillis;
+		List<LocalSimulator.PlayModeChange> timeline;
+
+		boolean barcelonaIsLeft() {
+			return left != null && left.endsWith("a");
+		}
+
+		int goalsFor() {
+			return barcelonaIsLeft() ? goalsLeft : goalsRight;
+		}
+
+		int goalsAgainst() {
+			return barcelonaIsLeft() ? goalsRight : goalsLeft;
+		}
+
+		double possession() {
+			int total = possessionLeft + possessionRight;
+			if (total == 0) {
+				return 0.5;
+			}
+			return (barcelonaIsLeft() ? possessionLeft : possessionRight) / (double) total;
+		}
+	}
+
+	private final int port;
+	private final int parallel;
+	private final Map<Integer, LocalSimulator> simulators = new ConcurrentHashMap<Integer, LocalSimulator>();
+	private DatagramChannel lobby;
+
+	public TournamentRunner(int port, int parallel) {
+		this.port = port;
+		this.parallel = parallel;
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 3 && args[0].equals("team")) {
+			launchTeam(args[1], args[2]);
+			return;
+		}
+		int matches = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+		int cores = Runtime.getRuntime().availableProcessors();
+		int parallel = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(1, cores / 2);
+		String[] opponents = (args.length > 2 ? args[2] : BarcelonaFC.class.getName()).split(",");
+
+		TournamentRunner runner = new TournamentRunner(ServerParams.get().getInt("port", 6000), parallel);
+		List<MatchResult> results = runner.run(matches, opponents);
+		writeResults(results, new File("tournament.csv"));
+		writeTimelines(results, new File("tournament_timeline.csv"));
+		printSummary(results);
+	}
+
+	/* Entrada da JVM filha: sobe um time e deixa os jogadores rodando */
+	private static void launchTeam(String className, String suffix) throws Exception {
+		AbstractTeam team = (AbstractTeam) Class.forName(className).getConstructor(String.class)
+				.newInstance(suffix);
+		team.launchTeam();
+	}
+
+	public List<MatchResult> run(int matches, String[] opponents) throws Exception {
+		lobby = DatagramChannel.open();
+		lobby.bind(new InetSocketAddress(port));
+		Thread router = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				route();
+			}
+		}, "tournament-lobby");
+		router.setDaemon(true);
+		router.start();
+
+		ExecutorService pool = Executors.newFixedThreadPool(parallel);
+		try {
+			List<Future<MatchResult>> futures = new ArrayList<Future<MatchResult>>();
+			for (int m = 0; m < matches; m++) {
+				final int match = m;
+				final String opponent = opponents[m % opponents.length];
+				futures.add(pool.submit(() -> playMatch(match, opponent)));
+			}
+			List<MatchResult> results = new ArrayList<MatchResult>();
+			for (Future<MatchResult> f : futures) {
+				MatchResult r = f.get();
+				results.add(r);
+				System.out.printf("match %d: %s %d x %d %s (%d cycles, %d ms)%n", r.match, r.left, r.goalsLeft,
+						r.goalsRight, r.right, r.cycles, r.wallMillis);
+			}
+			return results;
+		} finally {
+			pool.shutdown();
+			lobby.close();
+		}
+	}
+
+	/* Repassa cada init ao simulador da partida indicada pelo sufixo do time */
+	private void route() {
+		ByteBuffer buf = ByteBuffer.allocate(1024);
+		try {
+			while (true) {
+				buf.clear();
+				SocketAddress from = lobby.receive(buf);
+				buf.flip();
+				String msg = StandardCharsets.US_ASCII.decode(buf).toString().trim();
+				if (!msg.startsWith("(init ")) {
+					continue;
+				}
+				Matcher m = MATCH_SUFFIX.matcher(msg.substring(6).split("[ )]")[0]);
+				LocalSimulator sim = m.find() ? simulators.get(Integer.valueOf(m.group(1))) : null;
+				if (sim != null) {
+					sim.offerInit(msg, from);
+				}
+			}
+		} catch (ClosedChannelException e) {
+			// fim do torneio
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private MatchResult playMatch(int match, String opponent) throws IOException {
+		LocalSimulator sim = new LocalSimulator(0, true, 2 * Formation.get().size()); // times do mesmo tamanho
+		simulators.put(match, sim);
+		long start = System.currentTimeMillis();
+		Process home = startTeam(BarcelonaFC.class.getName(), "m" + match + "a");
+		Process away = startTeam(opponent, "m" + match + "b");
+		try {
+			sim.run();
+		} finally {
+			home.destroy();
+			away.destroy();
+			simulators.remove(match);
+		}
+
+		MatchResult r = new MatchResult();
+		r.match = match;
+		r.opponent = opponent;
+		r.left = sim.getTeamName('l');
+		r.right = sim.getTeamName('r');
+		r.goalsLeft = sim.getScoreLeft();
+		r.goalsRight = sim.getScoreRight();
+		r.possessionLeft = sim.getPossessionLeft();
+		r.possessionRight = sim.getPossessionRight();
+		r.cycles = sim.getTime();
+		r.wallMillis = System.currentTimeMillis() - start;
+		r.timeline = sim.getTimeline();
+		return r;
+	}
+
+	private static Process startTeam(String className, String suffix) throws IOException {
+		List<String> cmd = new ArrayList<String>();
+		cmd.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+		for (String name : System.getProperties().stringPropertyNames()) {
+			String value = System.getProperty(name);
+			for (String file : PER_PROCESS) {
+				if (name.equals(file)) {
+					value = suffixed(value, suffix);
+				}
+			}
+			for (String prefix : FORWARDED) {
+				if (name.startsWith(prefix)) {
+					cmd.add("-D" + name + "=" + value);
+					break;
+				}
+			}
+		}
+		cmd.add("-cp");
+		cmd.add(System.getProperty("java.class.path"));
+		cmd.add(TournamentRunner.class.getName());
+		cmd.add("team");
+		cmd.add(className);
+		cmd.add(suffix);
+		return new ProcessBuilder(cmd).redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.appendTo(new File("tournament_" + suffix + ".log"))).start();
+	}
+
+	/* metrics.csv -> metrics_m3a.csv */
+	static String suffixed(String file, String suffix) {
+		int dot = file.lastIndexOf('.');
+		if (dot <= file.lastIndexOf(File.separatorChar)) {
+			return file + "_" + suffix;
+		}
+		return file.substring(0, dot) + "_" + suffix + file.substring(dot);
+	}
+
+	static void writeResults(List<MatchResult> results, File file) throws IOException {
+		try (PrintWriter out = new PrintWriter(file, "US-ASCII")) {
+			out.println("match,opponent,left,right,goals_left,goals_right,possession_left,possession_right,cycles,wall_ms");
+			for (MatchResult r : results) {
+				out.printf("%d,%s,%s,%s,%d,%d,%d,%d,%d,%d%n", r.match, r.opponent, r.left, r.right, r.goalsLeft,
+						r.goalsRight, r.possessionLeft, r.possessionRight, r.cycles, r.wallMillis);
+			}
+		}
+	}
+
+	static void writeTimelines(List<MatchResult> results, File file) throws IOException {
+		try (PrintWriter out = new PrintWriter(file, "US-ASCII")) {
+			out.println("match,cycle,play_mode");
+			for (MatchResult r : results) {
+				for (LocalSimulator.PlayModeChange c : r.timeline) {
+					out.printf("%d,%d,%s%n", r.match, c.time, c.playMode);
+				}
+			}
+		}
+	}
+
+	/* Vitorias/empates/derrotas, media e desvio do saldo e posse media por adversario */
+	static void printSummary(List<MatchResult> results) {
+		Map<String, List<MatchResult>> byOpponent = new LinkedHashMap<String, List<MatchResult>>();
+		for (MatchResult r : results) {
+			List<MatchResult> list = byOpponent.get(r.opponent);
+			if (list == null) {
+				list = new ArrayList<MatchResult>();
+				byOpponent.put(r.opponent, list);
+			}
+			list.add(r);
+		}
+		for (Map.Entry<String, List<MatchResult>> e : byOpponent.entrySet()) {
+			int wins = 0, draws = 0, losses = 0;
+			double sum = 0, sumSq = 0, possession = 0;
+			for (MatchResult r : e.getValue()) {
+				int diff = r.goalsFor() - r.goalsAgainst();
+				if (diff > 0) {
+					wins++;
+				} else if (diff == 0) {
+					draws++;
+				} else {
+					losses++;
+				}
+				sum += diff;
+				sumSq += diff * diff;
+				possession += r.possession();
+			}
+			int n = e.getValue().size();
+			double mean = sum / n;
+			double std = Math.sqrt(Math.max(0, sumSq / n - mean * mean));
+			System.out.printf("vs %s: %d matches W/D/L %d/%d/%d goal diff %.2f +- %.2f possession %.1f%%%n",
+					e.getKey(), n, wins, draws, losses, mean, std, 100 * possession / n);
+		}
+	}
+
+}
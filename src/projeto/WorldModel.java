@@ -0,0 +1,324 @@
+package projeto;
+
+import java.util.List;
+
+import simple_soccer_lib.perception.FieldPerception;
+import simple_soccer_lib.perception.PlayerPerception;
+import simple_soccer_lib.utils.EFieldSide;
+import simple_soccer_lib.utils.Vector2D;
+
+/**
+ * Fotografia imutavel do time em um ciclo: posicoes, matriz de distancias
+ * entre companheiros, distancia de cada um a bola, quem esta mais perto da
+ * bola e o companheiro mais proximo de cada jogador. As posicoes dos
+ * adversarios vistos tambem ficam aqui, para o {@link SpatialIndex}, e o
+ * tempo de interceptacao da bola de todos os jogadores, calculado pelo
+ * {@link InterceptionSolver}.
+ *
+ * E calculada uma vez por ciclo pelo {@link WorldModelPublisher} e
+ * compartilhada por todos os jogadores do time.
+ */
+public final class WorldModel {
+	private final long cycle;
+	private final int size;
+	private final PlayerPerception[] players;
+	private final int[] uniforms;
+	private final double[] x, y;
+	private final double ballX, ballY;
+	private final double[] distances; // size x size
+	private final double[] ballDistances;
+	private final int[] nearestMate;
+	private final int ballClosest;
+	private final int opponentCount;
+	private final int[] opponentUniforms;
+	private final double[] opponentX, opponentY;
+	private final double ballVx, ballVy;
+	private final double[] bodyCos, bodySin;
+	private final double[] opponentBodyCos, opponentBodySin;
+	private final int[] interceptCycles;
+	private final int[] opponentInterceptCycles;
+	private final int fastestMate;
+	private final int fastestOpponent;
+
+	private WorldModel(long cycle, PlayerPerception[] players, int[] uniforms, double[] x, double[] y, int size,
+			double ballX, double ballY, int[] opponentUniforms, double[] opponentX, double[] opponentY,
+			int opponentCount, double ballVx, double ballVy, double[] bodyCos, double[] bodySin,
+			double[] opponentBodyCos, double[] opponentBodySin) {
+		this.cycle = cycle;
+		this.size = size;
+		this.players = players;
+		this.uniforms = uniforms;
+		this.x = x;
+		this.y = y;
+		this.ballX = ballX;
+		this.ballY = ballY;
+		this.opponentUniforms = opponentUniforms;
+		this.opponentX = opponentX;
+		this.opponentY = opponentY;
+		this.opponentCount = opponentCount;
+		this.distances = new double[size * size];
+		this.ballDistances = new double[size];
+		this.nearestMate = new int[size];
+
+		int closest = -1;
+		double closestDist = Double.MAX_VALUE;
+		for (int i = 0; i < size; i++) {
+			for (int j = i + 1; j < size; j++) {
+				double d = Geometry.distance(x[i], y[i], x[j], y[j]);
+				distances[i * size + j] = d;
+				distances[j * size + i] = d;
+			}
+			double b = Geometry.distance(x[i], y[i], ballX, ballY);
+			ballDistances[i] = b;
+			if (b < closestDist) {
+				closestDist = b;
+				closest = i;
+			}
+		}
+		for (int i = 0; i < size; i++) {
+			int best = -1;
+			double bestDist = Double.MAX_VALUE;
+			for (int j = 0; j < size; j++) {
+				if (j != i && distances[i * size + j] < bestDist) {
+					bestDist = distances[i * size + j];
+					best = j;
+				}
+			}
+			nearestMate[i] = best;
+		}
+		this.ballClosest = closest;
+
+		this.ballVx = ballVx;
+		this.ballVy = ballVy;
+		this.bodyCos = bodyCos;
+		this.bodySin = bodySin;
+		this.opponentBodyCos = opponentBodyCos;
+		this.opponentBodySin = opponentBodySin;
+		InterceptionSolver solver = InterceptionSolver.get();
+		this.interceptCycles = new int[size];
+		this.opponentInterceptCycles = new int[opponentCount];
+		solver.solve(ballX, ballY, ballVx, ballVy, x, y, bodyCos, bodySin, size, interceptCycles);
+		solver.solve(ballX, ballY, ballVx, ballVy, opponentX, opponentY, opponentBodyCos, opponentBodySin,
+				opponentCount, opponentInterceptCycles);
+		this.fastestMate = InterceptionSolver.fastest(interceptCycles, size);
+		this.fastestOpponent = InterceptionSolver.fastest(opponentInterceptCycles, opponentCount);
+	}
+
+	/**
+	 * Monta o modelo a partir da percepcao de campo de um jogador do time; a
+	 * velocidade da bola vem do {@link BallPredictor} do time.
+	 */
+	public static WorldModel build(long cycle, FieldPerception field, EFieldSide side, double ballVx,
+			double ballVy) {
+		List<PlayerPerception> team = field.getTeamPlayers(side);
+		int n = team.size();
+		PlayerPerception[] players = new PlayerPerception[n];
+		int[] uniforms = new int[n];
+		double[] x = new double[n];
+		double[] y = new double[n];
+		double[] bodyCos = new double[n];
+		double[] bodySin = new double[n];
+		for (int i = 0; i < n; i++) {
+			PlayerPerception p = team.get(i);
+			Vector2D pos = p.getPosition();
+			players[i] = p;
+			uniforms[i] = p.getUniformNumber();
+			x[i] = pos.getX();
+			y[i] = pos.getY();
+			direction(p, bodyCos, bodySin, i);
+		}
+
+		List<PlayerPerception> others = field.getTeamPlayers(side == EFieldSide.LEFT ? EFieldSide.RIGHT
+				: EFieldSide.LEFT);
+		int m = others.size();
+		int[] oppUniforms = new int[m];
+		double[] oppX = new double[m];
+		double[] oppY = new double[m];
+		double[] oppCos = new double[m];
+		double[] oppSin = new double[m];
+		for (int i = 0; i < m; i++) {
+			PlayerPerception p = others.get(i);
+			Vector2D pos = p.getPosition();
+			oppUniforms[i] = p.getUniformNumber();
+			oppX[i] = pos.getX();
+			oppY[i] = pos.getY();
+			direction(p, oppCos, oppSin, i);
+		}
+
+		Vector2D ball = field.getBall().getPosition();
+		return new WorldModel(cycle, players, uniforms, x, y, n, ball.getX(), ball.getY(), oppUniforms, oppX,
+				oppY, m, ballVx, ballVy, bodyCos, bodySin, oppCos, oppSin);
+	}
+
+	/* Direcao do corpo como vetor unitario; (0, 0) se a percepcao nao traz direcao */
+	private static void direction(PlayerPerception p, double[] cos, double[] sin, int i) {
+		Vector2D dir = p.getDirection();
+		if (dir == null) {
+			return;
+		}
+		double len = Math.sqrt(dir.getX() * dir.getX() + dir.getY() * dir.getY());
+		if (len > 0) {
+			cos[i] = dir.getX() / len;
+			sin[i] = dir.getY() / len;
+		}
+	}
+
+	/** Monta o modelo a partir de arrays primitivos (os arrays passam a pertencer ao modelo). */
+	public static WorldModel of(long cycle, int[] uniforms, double[] x, double[] y, int size, double ballX,
+			double ballY) {
+		return of(cycle, uniforms, x, y, size, ballX, ballY, new int[0], new double[0], new double[0], 0);
+	}
+
+	/** Idem, com os adversarios; bola parada e direcoes desconhecidas. */
+	public static WorldModel of(long cycle, int[] uniforms, double[] x, double[] y, int size, double ballX,
+			double ballY, int[] opponentUniforms, double[] opponentX, double[] opponentY, int opponentCount) {
+		return of(cycle, uniforms, x, y, size, ballX, ballY, 0, 0, new double[size], new double[size],
+				opponentUniforms, opponentX, opponentY, opponentCount, new double[opponentCount],
+				new double[opponentCount]);
+	}
+
+	/** Idem, com velocidade da bola e direcoes (vetores unitarios) dos corpos. */
+	public static WorldModel of(long cycle, int[] uniforms, double[] x, double[] y, int size, double ballX,
+			double ballY, double ballVx, double ballVy, double[] bodyCos, double[] bodySin, int[] opponentUniforms,
+			double[] opponentX, double[] opponentY, int opponentCount, double[] opponentBodyCos,
+			double[] opponentBodySin) {
+		return new WorldModel(cycle, new PlayerPerception[size], uniforms, x, y, size, ballX, ballY,
+				opponentUniforms, opponentX, opponentY, opponentCount, ballVx, ballVy, bodyCos, bodySin,
+				opponentBodyCos, opponentBodySin);
+	}
+
+	/** Tempo do servidor do ciclo em que o modelo foi montado. */
+	public long getCycle() {
+		return cycle;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/** Indice do jogador com o numero dado, ou -1 se ele nao aparece na percepcao. */
+	public int indexOf(int uniformNumber) {
+		for (int i = 0; i < size; i++) {
+			if (uniforms[i] == uniformNumber) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public PlayerPerception getPlayer(int i) {
+		return players[i];
+	}
+
+	public int getUniform(int i) {
+		return uniforms[i];
+	}
+
+	public double getX(int i) {
+		return x[i];
+	}
+
+	public double getY(int i) {
+		return y[i];
+	}
+
+	public double getBallX() {
+		return ballX;
+	}
+
+	public double getBallY() {
+		return ballY;
+	}
+
+	public double getDistance(int i, int j) {
+		return distances[i * size + j];
+	}
+
+	public double getBallDistance(int i) {
+		return ballDistances[i];
+	}
+
+	/** Indice do jogador mais proximo da bola, ou -1 se o time nao e visto. */
+	public int getBallClosest() {
+		return ballClosest;
+	}
+
+	/** Indice do companheiro mais proximo do jogador i, ou -1. */
+	public int getNearestMate(int i) {
+		return nearestMate[i];
+	}
+
+	/** Indice do jogador mais proximo do ponto, ignorando o indice skip; -1 se nao houver. */
+	public int nearestTo(double px, double py, int skip) {
+		return Geometry.nearest(px, py, x, y, size, skip);
+	}
+
+	public int getOpponentCount() {
+		return opponentCount;
+	}
+
+	public int getOpponentUniform(int i) {
+		return opponentUniforms[i];
+	}
+
+	public double getOpponentX(int i) {
+		return opponentX[i];
+	}
+
+	public double getOpponentY(int i) {
+		return opponentY[i];
+	}
+
+	public double getBallVx() {
+		return ballVx;
+	}
+
+	public double getBallVy() {
+		return ballVy;
+	}
+
+	/** Direcao do corpo do companheiro i como vetor unitario; (0, 0) se desconhecida. */
+	public double getBodyCos(int i) {
+		return bodyCos[i];
+	}
+
+	public double getBodySin(int i) {
+		return bodySin[i];
+	}
+
+	public double getOpponentBodyCos(int i) {
+		return opponentBodyCos[i];
+	}
+
+	public double getOpponentBodySin(int i) {
+		return opponentBodySin[i];
+	}
+
+	/** Ciclos ate o companheiro i alcancar a bola, ou InterceptionSolver.NEVER. */
+	public int getInterceptCycles(int i) {
+		return interceptCycles[i];
+	}
+
+	public int getOpponentInterceptCycles(int i) {
+		return opponentInterceptCycles[i];
+	}
+
+	/** Companheiro que chega primeiro a bola (empate: o primeiro na percepcao), ou -1. */
+	public int getFastestMate() {
+		return fastestMate;
+	}
+
+	/** Adversario que chega primeiro a bola, ou -1. */
+	public int getFastestOpponent() {
+		return fastestOpponent;
+	}
+
+	/** Estimativa do espaco ocupado pelo modelo (cabecalhos de objeto e arrays incluidos). */
+	public long footprintBytes() {
+		long header = 16;
+		long arrays = 5 * header + 4L * size * 2 + 8L * size * 3 + 8L * size * size + 4L * size;
+		long opponents = 6 * header + 4L * opponentCount * 2 + 8L * opponentCount * 4;
+		return header + 8 * 26 + arrays + 3 * header + 4L * size + 8L * size * 2 + opponents;
+	}
+
+}
@@ -0,0 +1,101 @@
+package projeto;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import simple_soccer_lib.perception.FieldPerception;
+import simple_soccer_lib.utils.EFieldSide;
+import simple_soccer_lib.utils.EMatchState;
+
+/**
+ * Publica o {@link WorldModel} do time. O primeiro jogador a decidir em um
+ * ciclo novo monta o modelo; os demais reaproveitam a mesma instancia ate o
+ * ciclo seguinte.
+ *
+ * O ciclo e o tempo do servidor na percepcao da partida, o mesmo para
+ * todos os jogadores: o modelo e montado quando o publicado e de um ciclo
+ * anterior ao pedido (ou do mesmo ciclo com outro modo de jogo, ja que o
+ * relogio fica parado no before_kick_off). Dois jogadores que chegam juntos
+ * ao ciclo novo disputam o lock e so o primeiro monta; quem pede um ciclo
+ * ja passado recebe o modelo mais novo e e contado como atrasado (o ciclo
+ * do modelo diz quantos ciclos ele pulou).
+ *
+ * A velocidade da bola, usada no calculo de interceptacao do modelo, vem de
+ * um {@link BallPredictor} do time alimentado uma vez por modelo montado e
+ * zerado a cada mudanca de modo de jogo e fora do play_on.
+ */
+public class WorldModelPublisher {
+	private final AtomicReference<WorldModel> current = new AtomicReference<WorldModel>();
+	private final BallPredictor predictor = new BallPredictor(ServerParams.get());
+	private volatile EMatchState lastState; // escrito so com o lock do publisher
+
+	private final AtomicLong builds = new AtomicLong();
+	private final AtomicLong reuses = new AtomicLong();
+	private final AtomicLong lagging = new AtomicLong();
+	private final AtomicLong buildNanos = new AtomicLong();
+
+	/**
+	 * Modelo do ciclo (tempo do servidor) de um jogador.
+	 */
+	public WorldModel acquire(long cycle, FieldPerception field, EFieldSide side, EMatchState state) {
+		WorldModel model = current.get();
+		if (isCurrent(model, cycle, state)) {
+			return reuse(model, cycle);
+		}
+		synchronized (this) {
+			model = current.get();
+			if (isCurrent(model, cycle, state)) {
+				return reuse(model, cycle); // outro jogador montou enquanto este esperava o lock
+			}
+			long now = System.nanoTime();
+			if (state != lastState || state != EMatchState.PLAY_ON) {
+				predictor.reset(); // bola reposta pelo juiz: a diferenca de posicoes nao e velocidade
+			}
+			lastState = state;
+			predictor.observe(field.getBall().getPosition().getX(), field.getBall().getPosition().getY());
+			WorldModel fresh = WorldModel.build(cycle, field, side, predictor.getVelocityX(), predictor.getVelocityY());
+			current.set(fresh);
+			buildNanos.addAndGet(System.nanoTime() - now);
+			builds.incrementAndGet();
+			return fresh;
+		}
+	}
+
+	private boolean isCurrent(WorldModel model, long cycle, EMatchState state) {
+		return model != null && (model.getCycle() > cycle || (model.getCycle() == cycle && state == lastState));
+	}
+
+	private WorldModel reuse(WorldModel model, long cycle) {
+		if (model.getCycle() > cycle) {
+			lagging.incrementAndGet(); // o time ja esta num ciclo que este jogador nao viu
+		} else {
+			reuses.incrementAndGet();
+		}
+		return model;
+	}
+
+	public long getBuilds() {
+		return builds.get();
+	}
+
+	public long getReuses() {
+		return reuses.get();
+	}
+
+	public long getLagging() {
+		return lagging.get();
+	}
+
+	public double getMeanBuildMicros() {
+		long b = builds.get();
+		return b == 0 ? 0 : buildNanos.get() / (b * 1e3);
+	}
+
+	@Override
+	public String toString() {
+		WorldModel model = current.get();
+		return String.format("worldModel builds=%d reuses=%d lagging=%d meanBuild=%.2fus footprint=%dB",
+				getBuilds(), getReuses(), getLagging(), getMeanBuildMicros(), model == null ? 0 : model.footprintBytes());
+	}
+
+}